@@ -1,6 +1,10 @@
 package org.app.dlms.Backend.Dao;
 
 import org.app.dlms.Backend.Model.Book;
+import org.app.dlms.Backend.Model.Page;
+import org.app.dlms.Backend.Model.PageCursor;
+import org.app.dlms.Middleware.Cache.EntityCache;
+import org.app.dlms.Middleware.Cache.EntityCaches;
 import org.app.dlms.Middleware.DatabaseConnection;
 
 import java.sql.Connection;
@@ -8,18 +12,28 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object for Book entities
  */
 public class BookDAO {
 
+    // Most books a search returns; nobody pages through more matches than this
+    public static final int MAX_SEARCH_RESULTS = 1000;
+
     private DatabaseConnection dbConnection;
+    private final EntityCache<Integer, Book> bookCache;
+    private final GenreDictionary genres;
 
     public BookDAO() {
         dbConnection = DatabaseConnection.getInstance();
+        bookCache = EntityCaches.getInstance().books();
+        genres = GenreDictionary.getInstance();
     }
 
     /**
@@ -42,15 +56,7 @@ public class BookDAO {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setIsbn(rs.getString("isbn"));
-                book.setPublisher(rs.getString("publisher"));
-                book.setYear(rs.getInt("year"));
-                book.setAvailable(rs.getBoolean("available"));
-                book.setStock(rs.getInt("stock"));
+                book = extractBookFromResultSet(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving book by ISBN: " + isbn);
@@ -68,6 +74,10 @@ public class BookDAO {
      * @return The book if found, null otherwise
      */
     public Book getBookById(int id) {
+        return bookCache.get(id, this::loadBookById);
+    }
+
+    private Book loadBookById(int id) {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -81,15 +91,7 @@ public class BookDAO {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setIsbn(rs.getString("isbn"));
-                book.setPublisher(rs.getString("publisher"));
-                book.setYear(rs.getInt("year"));
-                book.setAvailable(rs.getBoolean("available"));
-                book.setStock(rs.getInt("stock"));
+                book = extractBookFromResultSet(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving book by ID: " + id);
@@ -101,6 +103,85 @@ public class BookDAO {
         return book;
     }
 
+    /**
+     * Get several books by their IDs using chunked IN queries
+     *
+     * @param ids The IDs of the books
+     * @return Map from book ID to book; IDs that do not exist are left out
+     */
+    public Map<Integer, Book> getBooksByIds(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bookCache.getAll(ids, this::loadBooksByIds);
+    }
+
+    private Map<Integer, Book> loadBooksByIds(Collection<Integer> ids) {
+        Map<Integer, Book> books = new HashMap<>();
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            for (int[] chunk : IdBatches.chunks(ids)) {
+                String sql = "SELECT * FROM books WHERE id IN (" + IdBatches.placeholders(chunk.length) + ")";
+                stmt = conn.prepareStatement(sql);
+                for (int i = 0; i < chunk.length; i++) {
+                    stmt.setInt(i + 1, chunk[i]);
+                }
+                rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    Book book = extractBookFromResultSet(rs);
+                    books.put(book.getId(), book);
+                }
+                rs.close();
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving books by IDs");
+            e.printStackTrace();
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+
+        return books;
+    }
+
+    /**
+     * Drop a book from the shared cache after it was written. The update and
+     * delete statements are keyed by ISBN, so the cached entry is found by ISBN too.
+     *
+     * @param isbn The ISBN of the written book
+     */
+    private void invalidateCachedBook(String isbn) {
+        bookCache.invalidateIf(book -> book.getIsbn() != null && book.getIsbn().equals(isbn));
+    }
+
+    /**
+     * Create a Book from the current row of a books query
+     *
+     * @param rs The result set positioned on a row
+     * @return The book
+     * @throws SQLException If a column can not be read
+     */
+    private Book extractBookFromResultSet(ResultSet rs) throws SQLException {
+        Book book = new Book();
+        book.setId(rs.getInt("id"));
+        book.setTitle(rs.getString("title"));
+        book.setAuthor(rs.getString("author"));
+        book.setIsbn(rs.getString("isbn"));
+        book.setPublisher(rs.getString("publisher"));
+        book.setYear(rs.getInt("year"));
+        book.setAvailable(rs.getBoolean("available"));
+        book.setStock(rs.getInt("stock"));
+        book.setGenreId(rs.getInt("genre_id"));
+        book.setGenre(genres.get(book.getGenreId()));
+        return book;
+    }
+
     /**
      * Get all books in the library
      *
@@ -119,16 +200,7 @@ public class BookDAO {
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                Book book = new Book();
-                book.setId(rs.getInt("id"));
-                book.setTitle(rs.getString("title"));
-                book.setAuthor(rs.getString("author"));
-                book.setIsbn(rs.getString("isbn"));
-                book.setPublisher(rs.getString("publisher"));
-                book.setYear(rs.getInt("year"));
-                book.setAvailable(rs.getBoolean("available"));
-                book.setStock(rs.getInt("stock"));
-                books.add(book);
+                books.add(extractBookFromResultSet(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving all books");
@@ -141,49 +213,177 @@ public class BookDAO {
     }
 
     /**
-     * Add a new book to the library
+     * Pass every book to the consumer, in ID order, without loading the whole
+     * table into memory. Rows are streamed from the server one at a time.
      *
-     * @param book The book to add
-     * @return The ID of the newly added book, or -1 if operation fails
+     * @param consumer Receives each book
+     * @return The number of books passed to the consumer
      */
-    public int addBook(Book book) {
+    public long streamAll(Consumer<Book> consumer) {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        int generatedId = -1;
+        long count = 0;
 
         try {
             conn = dbConnection.getConnection();
-            String sql = "INSERT INTO books (title, author, isbn, publisher, year, genre_id, available, stock) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-            stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+            // Fixed column order so rows are read by index, not by name
+            String sql = "SELECT id, title, author, isbn, publisher, year, genre_id, available, stock " +
+                         "FROM books ORDER BY id";
+            stmt = StreamingQueries.prepare(conn, sql);
+            rs = stmt.executeQuery();
 
-            stmt.setString(1, book.getTitle());
-            stmt.setString(2, book.getAuthor());
-            stmt.setString(3, book.getIsbn());
-            stmt.setString(4, book.getPublisher());
-            stmt.setInt(5, book.getYear());
-            stmt.setInt(6, book.getGenreId());
-            stmt.setBoolean(7, book.isAvailable());
-            stmt.setInt(8, book.getStock());
+            while (rs.next()) {
+                Book book = new Book();
+                book.setId(rs.getInt(1));
+                book.setTitle(rs.getString(2));
+                book.setAuthor(rs.getString(3));
+                book.setIsbn(rs.getString(4));
+                book.setPublisher(rs.getString(5));
+                book.setYear(rs.getInt(6));
+                book.setGenreId(rs.getInt(7));
+                book.setGenre(genres.get(book.getGenreId()));
+                book.setAvailable(rs.getBoolean(8));
+                book.setStock(rs.getInt(9));
+                consumer.accept(book);
+                count++;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error streaming books after " + count + " rows");
+            e.printStackTrace();
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
 
-            int affectedRows = stmt.executeUpdate();
+        return count;
+    }
 
-            if (affectedRows > 0) {
-                rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    generatedId = rs.getInt(1);
-                    book.setId(generatedId);
-                }
+    /**
+     * Get one page of books, newest first, using keyset pagination
+     *
+     * @param after Cursor of the previous page, or null for the first page
+     * @param pageSize Maximum number of books on the page
+     * @return The page of books
+     */
+    public Page<Book> getBooksPage(PageCursor after, int pageSize) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Book> books = new ArrayList<>();
+
+        try {
+            conn = dbConnection.getConnection();
+            String sql = after == null
+                    ? "SELECT * FROM books ORDER BY id DESC LIMIT ?"
+                    : "SELECT * FROM books WHERE id < ? ORDER BY id DESC LIMIT ?";
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (after != null) {
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, KeysetPages.limitFor(pageSize));
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                books.add(extractBookFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error adding book: " + book.getTitle());
+            System.err.println("Error retrieving page of books after " + after);
             e.printStackTrace();
         } finally {
             closeResources(conn, stmt, rs);
         }
 
-        return generatedId;
+        return KeysetPages.toPage(books, pageSize, book -> PageCursor.afterId(book.getId()));
+    }
+
+    /**
+     * Get one page of a list of books given by ID, such as the matches of a
+     * facet query, using the IDs themselves as the keyset
+     *
+     * @param ids The IDs of the books, highest first
+     * @param after Cursor of the previous page, or null for the first page
+     * @param pageSize Maximum number of books on the page
+     * @return The page of books, in the order of the IDs
+     */
+    public Page<Book> getBooksPage(int[] ids, PageCursor after, int pageSize) {
+        int start = 0;
+        if (after != null) {
+            // Binary search for the first ID below the cursor in the descending list
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ids[mid] >= after.getId()) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            start = low;
+        }
+        int end = Math.min(ids.length, start + KeysetPages.limitFor(pageSize));
+
+        List<Integer> pageIds = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            pageIds.add(ids[i]);
+        }
+        Map<Integer, Book> found = getBooksByIds(pageIds);
+        List<Book> books = new ArrayList<>(pageIds.size());
+        for (Integer id : pageIds) {
+            Book book = found.get(id);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return KeysetPages.toPage(books, pageSize, book -> PageCursor.afterId(book.getId()));
+    }
+
+    /**
+     * Add a new book to the library. The book counter is updated in the same transaction.
+     *
+     * @param book The book to add
+     * @return The ID of the newly added book, or -1 if operation fails
+     */
+    public int addBook(Book book) {
+        try {
+            int id = dbConnection.inTransaction(conn -> {
+                String sql = "INSERT INTO books (title, author, isbn, publisher, year, genre_id, available, stock) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+                int generatedId = -1;
+                try (PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    stmt.setString(1, book.getTitle());
+                    stmt.setString(2, book.getAuthor());
+                    stmt.setString(3, book.getIsbn());
+                    stmt.setString(4, book.getPublisher());
+                    stmt.setInt(5, book.getYear());
+                    stmt.setInt(6, book.getGenreId());
+                    stmt.setBoolean(7, book.isAvailable());
+                    stmt.setInt(8, book.getStock());
+
+                    if (stmt.executeUpdate() == 0) {
+                        return -1;
+                    }
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            generatedId = rs.getInt(1);
+                            book.setId(generatedId);
+                        }
+                    }
+                }
+                LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.BOOKS, 1);
+                return generatedId;
+            });
+            if (id > 0) {
+                BookSearchIndex.getInstance().put(book);
+                BookFacets.getInstance().put(book);
+            }
+            return id;
+        } catch (SQLException e) {
+            System.err.println("Error adding book: " + book.getTitle());
+            e.printStackTrace();
+            return -1;
+        }
     }
 
     /**
@@ -200,9 +400,7 @@ public class BookDAO {
         try {
             conn = dbConnection.getConnection();
             String sql = "UPDATE books SET title = ?, author = ?, publisher = ?, " +
-                    "year = ?, " +
-//                    "genre_id = ?," +
-                    " available = ?, stock = ? " +
+                    "year = ?, genre_id = ?, available = ?, stock = ? " +
                     "WHERE isbn = ?";
             stmt = conn.prepareStatement(sql);
 
@@ -210,10 +408,10 @@ public class BookDAO {
             stmt.setString(2, book.getAuthor());
             stmt.setString(3, book.getPublisher());
             stmt.setInt(4, book.getYear());
-//            stmt.setInt(5, book.getGenreId());
-            stmt.setBoolean(5, book.isAvailable());
-            stmt.setInt(6, book.getStock());
-            stmt.setString(7, book.getIsbn());
+            stmt.setInt(5, book.getGenreId());
+            stmt.setBoolean(6, book.isAvailable());
+            stmt.setInt(7, book.getStock());
+            stmt.setString(8, book.getIsbn());
 
             int affectedRows = stmt.executeUpdate();
             success = (affectedRows > 0);
@@ -223,46 +421,90 @@ public class BookDAO {
         } finally {
             closeResources(conn, stmt, null);
         }
+        invalidateCachedBook(book.getIsbn());
+        if (success) {
+            // The update is keyed by ISBN, so the caller's book may not carry its ID
+            Book stored = book.getId() > 0 ? book : getBookByIsbn(book.getIsbn());
+            BookSearchIndex.getInstance().put(stored);
+            BookFacets.getInstance().put(stored);
+        }
 
         return success;
     }
 
     /**
-     * Delete a book from the library
+     * Delete a book from the library. The book counter is updated in the same transaction.
      *
      * @param isbn The ISBN of the book to delete
      * @return True if successful, false otherwise
      */
     public boolean deleteBook(String isbn) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        boolean success = false;
+        int deletedId = -1;
 
         try {
-            conn = dbConnection.getConnection();
-            String sql = "DELETE FROM books WHERE isbn = ?";
-            stmt = conn.prepareStatement(sql);
-            stmt.setString(1, isbn);
-
-            int affectedRows = stmt.executeUpdate();
-            success = (affectedRows > 0);
+            deletedId = dbConnection.inTransaction(conn -> {
+                // The search index is keyed by ID, so find it before the row is gone
+                int id;
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT id FROM books WHERE isbn = ? FOR UPDATE")) {
+                    stmt.setString(1, isbn);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            return -1;
+                        }
+                        id = rs.getInt(1);
+                    }
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM books WHERE id = ?")) {
+                    stmt.setInt(1, id);
+                    if (stmt.executeUpdate() == 0) {
+                        return -1;
+                    }
+                }
+                LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.BOOKS, -1);
+                return id;
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting book with ISBN: " + isbn);
             e.printStackTrace();
-        } finally {
-            closeResources(conn, stmt, null);
+        }
+        invalidateCachedBook(isbn);
+
+        boolean success = deletedId > 0;
+        if (success) {
+            BookSearchIndex.getInstance().remove(deletedId);
+            BookFacets.getInstance().remove(deletedId);
         }
 
         return success;
     }
 
     /**
-     * Search for books by title, author, or category
+     * Search for books by title, author, publisher or ISBN. Once the search
+     * index is loaded the matches come from it, best match first; before that
+     * the books table is scanned with LIKE.
      *
      * @param searchTerm The search term
      * @return List of books matching the search term
      */
     public List<Book> searchBooks(String searchTerm) {
+        BookSearchIndex index = BookSearchIndex.getInstance();
+        if (!index.isLoaded() || searchTerm == null || searchTerm.isBlank()) {
+            return searchBooksByLike(searchTerm);
+        }
+
+        List<Integer> ids = index.search(searchTerm, MAX_SEARCH_RESULTS);
+        Map<Integer, Book> found = getBooksByIds(ids);
+        List<Book> books = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Book book = found.get(id);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    private List<Book> searchBooksByLike(String searchTerm) {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -296,7 +538,7 @@ public class BookDAO {
             System.err.println("Error searching for books with term: " + searchTerm);
             e.printStackTrace();
         } finally {
-            closeResources(conn, stmt, null);
+            closeResources(conn, stmt, rs);
         }
         return books;
     }
@@ -338,7 +580,9 @@ public class BookDAO {
 
         try {
             conn = dbConnection.getConnection();
-            String sql = "UPDATE books SET stock = stock + ? WHERE isbn = ? AND (stock + ?) >= 0";
+            // MySQL applies SET assignments left to right, so available sees the new stock
+            String sql = "UPDATE books SET stock = stock + ?, available = (stock > 0) " +
+                         "WHERE isbn = ? AND (stock + ?) >= 0";
             stmt = conn.prepareStatement(sql);
             stmt.setInt(1, quantity);
             stmt.setString(2, isbn);
@@ -346,43 +590,21 @@ public class BookDAO {
 
             int affectedRows = stmt.executeUpdate();
             success = (affectedRows > 0);
-
-            // Update availability status based on stock
-            if (success) {
-                updateAvailabilityStatus(isbn);
-            }
         } catch (SQLException e) {
             System.err.println("Error updating stock for book with ISBN: " + isbn);
             e.printStackTrace();
         } finally {
             closeResources(conn, stmt, null);
         }
+        invalidateCachedBook(isbn);
+        if (success) {
+            // The stock decides availability
+            BookFacets.getInstance().put(getBookByIsbn(isbn));
+        }
 
         return success;
     }
 
-    /**
-     * Update the availability status based on current stock
-     *
-     * @param isbn The ISBN of the book
-     */
-    private void updateAvailabilityStatus(String isbn) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
-        try {
-            conn = dbConnection.getConnection();
-            String sql = "UPDATE books SET available = (stock > 0) WHERE isbn = ?";
-            stmt = conn.prepareStatement(sql);
-            stmt.setString(1, isbn);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error updating availability status for book with ISBN: " + isbn);
-            e.printStackTrace();
-        } finally {
-            closeResources(conn, stmt, null);
-        }
-    }
     /**
      * Check if a book has enough copies in stock
      *
@@ -0,0 +1,175 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Model.Book;
+import org.app.dlms.Backend.Model.BookFacetSelection;
+import org.app.dlms.Middleware.Search.FacetIndex;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * In-memory facets of the catalog: genre, publication year, publisher,
+ * author and availability of every book, for browsing the inventory by
+ * facet with live counts per value.
+ *
+ * Built once at startup by streaming the books table, like
+ * BookSearchIndex. BookDAO applies book writes after they succeed, and
+ * BorrowRecordDAO refreshes a book whose availability a loan changed.
+ */
+public final class BookFacets {
+
+    /**
+     * The facets of a book, in the order they are stored in the index
+     */
+    public enum Facet {
+        GENRE, YEAR, PUBLISHER, AUTHOR, AVAILABILITY
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(BookFacets.class.getName());
+
+    private static final BookFacets INSTANCE = new BookFacets();
+
+    private volatile FacetIndex index;
+
+    private BookFacets() {
+    }
+
+    /**
+     * Get the singleton instance
+     *
+     * @return The book facets
+     */
+    public static BookFacets getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Build the facets from the books table, e.g. at application startup.
+     * Writes made while the table is read wait until the new index is in place.
+     *
+     * @return The number of books indexed
+     */
+    public synchronized long load() {
+        FacetIndex loaded = new FacetIndex(Facet.values().length);
+        long start = System.nanoTime();
+        long count = new BookDAO().streamAll(book -> add(loaded, book));
+        index = loaded;
+        LOGGER.fine(() -> String.format("Built catalog facets for %d books in %.1f ms",
+                count, (System.nanoTime() - start) / 1_000_000.0));
+        return count;
+    }
+
+    /**
+     * @return True once the facets have been built
+     */
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    /**
+     * Find the books matching a selection and count the books per facet value.
+     * Genres are counted by genre ID and availability as "true" or "false".
+     *
+     * @param selection The chosen facet values
+     * @return The matching book IDs, newest first, and the counts; null if the facets are not loaded
+     */
+    public FacetIndex.Result query(BookFacetSelection selection) {
+        FacetIndex current = index;
+        if (current == null) {
+            return null;
+        }
+
+        List<Set<String>> selections = new ArrayList<>();
+        Set<String> genres = new HashSet<>();
+        for (Integer genreId : selection.getGenreIds()) {
+            genres.add(String.valueOf(genreId));
+        }
+        selections.add(genres);
+        selections.add(yearsInRange(current, selection.getYearFrom(), selection.getYearTo()));
+        selections.add(selection.getPublishers());
+        selections.add(selection.getAuthors());
+        selections.add(selection.isAvailableOnly() ? Set.of(String.valueOf(true)) : null);
+        return current.query(selections);
+    }
+
+    /**
+     * Get the counts of one facet from a query result
+     *
+     * @param result The result of query()
+     * @param facet The facet
+     * @return Number of matching books per value
+     */
+    public static Map<String, Integer> counts(FacetIndex.Result result, Facet facet) {
+        return result.getCounts(facet.ordinal());
+    }
+
+    /**
+     * Add or replace a book just written to the database
+     *
+     * @param book The book as stored, with its ID
+     */
+    synchronized void put(Book book) {
+        if (index == null || book == null || book.getId() <= 0) {
+            return; // Not loaded yet; the first load reads the change from the database
+        }
+        add(index, book);
+    }
+
+    /**
+     * Read a book again after a write that only knows its ID, such as a loan
+     * changing its availability
+     *
+     * @param id The ID of the written book
+     */
+    void refresh(int id) {
+        if (index == null) {
+            return;
+        }
+        Book book = new BookDAO().getBookById(id);
+        if (book != null) {
+            put(book);
+        }
+    }
+
+    /**
+     * Remove a book just deleted from the database
+     *
+     * @param id The ID of the deleted book
+     */
+    synchronized void remove(int id) {
+        if (index != null) {
+            index.remove(id);
+        }
+    }
+
+    // The stored years within the range; null when the range is open on both ends
+    private static Set<String> yearsInRange(FacetIndex index, Integer from, Integer to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        Set<String> years = new HashSet<>();
+        for (String value : index.getValues(Facet.YEAR.ordinal())) {
+            int year = Integer.parseInt(value);
+            if ((from == null || year >= from) && (to == null || year <= to)) {
+                years.add(value);
+            }
+        }
+        if (years.isEmpty()) {
+            years.add(""); // Selects nothing rather than everything
+        }
+        return years;
+    }
+
+    private static void add(FacetIndex index, Book book) {
+        index.put(book.getId(),
+                String.valueOf(book.getGenreId()),
+                String.valueOf(book.getYear()),
+                book.getPublisher(),
+                book.getAuthor(),
+                String.valueOf(book.isAvailable()));
+    }
+}
@@ -0,0 +1,127 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Model.Book;
+import org.app.dlms.Middleware.DatabaseConnection;
+import org.app.dlms.Middleware.Search.InvertedIndex;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * In-memory full-text index over the title, author, publisher and ISBN of
+ * every book, so searching does not need a LIKE scan of the books table.
+ *
+ * The index is built once at startup by streaming the table; BookDAO then
+ * applies every add, update and delete to it after the database write
+ * succeeds. Matches in the title or ISBN rank above matches in the author,
+ * which rank above matches in the publisher.
+ *
+ * A query that matches nothing is retried allowing a typing mistake or two
+ * per word, so a misspelled author name still finds the author. That second
+ * try gives up after search.fuzzy.budget milliseconds and returns what it
+ * found by then.
+ */
+public final class BookSearchIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(BookSearchIndex.class.getName());
+
+    private static final BookSearchIndex INSTANCE = new BookSearchIndex();
+
+    // Field weights, in the order the fields are passed to the index
+    private static final float TITLE_WEIGHT = 4;
+    private static final float AUTHOR_WEIGHT = 2;
+    private static final float PUBLISHER_WEIGHT = 1;
+    private static final float ISBN_WEIGHT = 4;
+
+    private static final long DEFAULT_FUZZY_BUDGET = 20;
+
+    private final long fuzzyBudgetNanos;
+    private volatile InvertedIndex index;
+
+    private BookSearchIndex() {
+        fuzzyBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, DatabaseConnection.getInstance()
+                .getLongProperty("search.fuzzy.budget", DEFAULT_FUZZY_BUDGET)));
+    }
+
+    /**
+     * Get the singleton instance
+     *
+     * @return The book search index
+     */
+    public static BookSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Build the index from the books table, e.g. at application startup.
+     * Writes made while the table is read wait until the new index is in place.
+     *
+     * @return The number of books indexed
+     */
+    public synchronized long load() {
+        InvertedIndex loaded = newIndex();
+        long start = System.nanoTime();
+        long count = new BookDAO().streamAll(book -> add(loaded, book));
+        index = loaded;
+        LOGGER.fine(() -> String.format("Indexed %d books (%d terms) in %.1f ms",
+                count, loaded.termCount(), (System.nanoTime() - start) / 1_000_000.0));
+        return count;
+    }
+
+    /**
+     * @return True once the index has been built
+     */
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    /**
+     * Find the books matching every word of a query. The last word may be
+     * incomplete: a word matches any indexed word it is a prefix of. If no
+     * book matches, words with a typing mistake are accepted too.
+     *
+     * @param query The text typed by the user
+     * @param limit The maximum number of IDs to return
+     * @return Book IDs, best match first; empty if the index is not loaded
+     */
+    public List<Integer> search(String query, int limit) {
+        InvertedIndex current = index;
+        if (current == null) {
+            return List.of();
+        }
+        List<Integer> ids = current.search(query, limit);
+        return ids.isEmpty() ? current.searchFuzzy(query, limit, fuzzyBudgetNanos) : ids;
+    }
+
+    /**
+     * Add or replace a book just written to the database
+     *
+     * @param book The book as stored, with its ID
+     */
+    synchronized void put(Book book) {
+        if (index == null || book == null || book.getId() <= 0) {
+            return; // Not loaded yet; the first load reads the change from the database
+        }
+        add(index, book);
+    }
+
+    /**
+     * Remove a book just deleted from the database
+     *
+     * @param id The ID of the deleted book
+     */
+    synchronized void remove(int id) {
+        if (index != null) {
+            index.remove(id);
+        }
+    }
+
+    private static InvertedIndex newIndex() {
+        return new InvertedIndex(TITLE_WEIGHT, AUTHOR_WEIGHT, PUBLISHER_WEIGHT, ISBN_WEIGHT);
+    }
+
+    private static void add(InvertedIndex index, Book book) {
+        index.put(book.getId(), book.getTitle(), book.getAuthor(), book.getPublisher(), book.getIsbn());
+    }
+}
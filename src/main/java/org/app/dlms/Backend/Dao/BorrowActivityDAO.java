@@ -0,0 +1,291 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Model.ActivityBucket;
+import org.app.dlms.Backend.Model.Genre;
+import org.app.dlms.Middleware.Cache.EntityCache;
+import org.app.dlms.Middleware.Cache.EntityCaches;
+import org.app.dlms.Middleware.DatabaseConnection;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object for borrowing statistics over time and per genre.
+ *
+ * Borrows and returns are counted per day, week or month with one GROUP BY
+ * query. A period that has ended can only change when a borrow record with a
+ * date in it is written, so closed periods are cached until such a write
+ * invalidates them; only the current period is queried every time.
+ */
+public class BorrowActivityDAO {
+
+    /**
+     * The length of the periods activity is counted in
+     */
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        /**
+         * @return The first day of the period containing the date
+         */
+        public LocalDate startOf(LocalDate date) {
+            switch (this) {
+                case DAY:
+                    return date;
+                case WEEK:
+                    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                default:
+                    return date.withDayOfMonth(1);
+            }
+        }
+
+        /**
+         * @return The first day of the period the given number of periods after start
+         */
+        public LocalDate plus(LocalDate start, int periods) {
+            switch (this) {
+                case DAY:
+                    return start.plusDays(periods);
+                case WEEK:
+                    return start.plusWeeks(periods);
+                default:
+                    return start.plusMonths(periods);
+            }
+        }
+
+        // SQL expression giving the first day of the period containing the column's date
+        private String startOfSql(String column) {
+            switch (this) {
+                case DAY:
+                    return column;
+                case WEEK:
+                    return "DATE_SUB(" + column + ", INTERVAL WEEKDAY(" + column + ") DAY)";
+                default:
+                    return "CAST(DATE_FORMAT(" + column + ", '%Y-%m-01') AS DATE)";
+            }
+        }
+    }
+
+    private final DatabaseConnection dbConnection;
+    private final EntityCache<String, ActivityBucket> closedBuckets;
+    private final GenreDictionary genres;
+
+    public BorrowActivityDAO() {
+        dbConnection = DatabaseConnection.getInstance();
+        closedBuckets = EntityCaches.getInstance().activityBuckets();
+        genres = GenreDictionary.getInstance();
+    }
+
+    /**
+     * Get the number of books borrowed and returned in the library per period
+     *
+     * @param granularity The length of a period
+     * @param periods How many periods to return, ending with the current one
+     * @return One bucket per period, oldest first; periods without activity have zero counts
+     */
+    public List<ActivityBucket> getActivity(Granularity granularity, int periods) {
+        return getActivity(null, granularity, periods);
+    }
+
+    /**
+     * Get the number of books a member borrowed and returned per period
+     *
+     * @param memberId The ID of the member
+     * @param granularity The length of a period
+     * @param periods How many periods to return, ending with the current one
+     * @return One bucket per period, oldest first; periods without activity have zero counts
+     */
+    public List<ActivityBucket> getActivityByMember(int memberId, Granularity granularity, int periods) {
+        return getActivity(memberId, granularity, periods);
+    }
+
+    private List<ActivityBucket> getActivity(Integer memberId, Granularity granularity, int periods) {
+        LocalDate current = granularity.startOf(LocalDate.now());
+        LocalDate end = granularity.plus(current, 1);
+
+        Map<String, LocalDate> closedStarts = new LinkedHashMap<>();
+        for (int i = periods - 1; i > 0; i--) {
+            LocalDate start = granularity.plus(current, -i);
+            closedStarts.put(cacheKey(memberId, granularity, start), start);
+        }
+
+        // On a miss the closed periods are loaded together with the current one
+        Map<LocalDate, ActivityBucket> currentHolder = new HashMap<>();
+        Map<String, ActivityBucket> closed = closedBuckets.getAll(closedStarts.keySet(), missing -> {
+            LocalDate from = current;
+            for (String key : missing) {
+                LocalDate start = closedStarts.get(key);
+                if (start.isBefore(from)) {
+                    from = start;
+                }
+            }
+            Map<LocalDate, ActivityBucket> loaded = loadBuckets(memberId, granularity, from, end);
+            currentHolder.put(current, loaded.get(current));
+
+            Map<String, ActivityBucket> byKey = new HashMap<>();
+            for (String key : missing) {
+                byKey.put(key, loaded.get(closedStarts.get(key)));
+            }
+            return byKey;
+        });
+
+        ActivityBucket currentBucket = currentHolder.containsKey(current)
+                ? currentHolder.get(current)
+                : loadBuckets(memberId, granularity, current, end).get(current);
+
+        List<ActivityBucket> buckets = new ArrayList<>();
+        for (Map.Entry<String, LocalDate> entry : closedStarts.entrySet()) {
+            ActivityBucket bucket = closed.get(entry.getKey());
+            buckets.add(bucket != null ? bucket : emptyBucket(granularity, entry.getValue()));
+        }
+        if (periods > 0) {
+            buckets.add(currentBucket != null ? currentBucket : emptyBucket(granularity, current));
+        }
+        return buckets;
+    }
+
+    /**
+     * Count borrows and returns per period between two dates
+     *
+     * @return Bucket per period start for every period in the range, or an empty map if the query failed
+     */
+    private Map<LocalDate, ActivityBucket> loadBuckets(Integer memberId, Granularity granularity,
+                                                       LocalDate from, LocalDate to) {
+        String memberFilter = memberId != null ? " AND member_id = ?" : "";
+        String sql = "SELECT 'B' AS kind, " + granularity.startOfSql("borrow_date") + " AS bucket, COUNT(*) AS total " +
+                "FROM borrow_records WHERE borrow_date >= ? AND borrow_date < ?" + memberFilter + " GROUP BY bucket " +
+                "UNION ALL " +
+                "SELECT 'R' AS kind, " + granularity.startOfSql("return_date") + " AS bucket, COUNT(*) AS total " +
+                "FROM borrow_records WHERE return_date >= ? AND return_date < ?" + memberFilter + " GROUP BY bucket";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        Map<LocalDate, int[]> counts = new HashMap<>();
+
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+            for (int i = 0; i < 2; i++) {
+                stmt.setDate(index++, Date.valueOf(from));
+                stmt.setDate(index++, Date.valueOf(to));
+                if (memberId != null) {
+                    stmt.setInt(index++, memberId);
+                }
+            }
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                int[] bucket = counts.computeIfAbsent(rs.getDate("bucket").toLocalDate(), start -> new int[2]);
+                bucket["B".equals(rs.getString("kind")) ? 0 : 1] = rs.getInt("total");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting borrowing activity: " + e.getMessage());
+            return new HashMap<>();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+
+        Map<LocalDate, ActivityBucket> buckets = new HashMap<>();
+        for (LocalDate start = from; start.isBefore(to); start = granularity.plus(start, 1)) {
+            int[] bucket = counts.getOrDefault(start, new int[2]);
+            buckets.put(start, new ActivityBucket(start, granularity.plus(start, 1), bucket[0], bucket[1]));
+        }
+        return buckets;
+    }
+
+    /**
+     * Get the number of loans per genre across the library
+     *
+     * @return Map from genre name to number of loans, largest first
+     */
+    public Map<String, Integer> getLoansByGenre() {
+        return getLoansByGenre(null);
+    }
+
+    /**
+     * Get the number of books a member borrowed per genre
+     *
+     * @param memberId The ID of the member
+     * @return Map from genre name to number of loans, largest first
+     */
+    public Map<String, Integer> getLoansByGenreForMember(int memberId) {
+        return getLoansByGenre(memberId);
+    }
+
+    private Map<String, Integer> getLoansByGenre(Integer memberId) {
+        String sql = "SELECT b.genre_id, COUNT(*) AS total FROM borrow_records r " +
+                "JOIN books b ON b.id = r.book_id" +
+                (memberId != null ? " WHERE r.member_id = ?" : "") +
+                " GROUP BY b.genre_id ORDER BY total DESC";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        Map<String, Integer> loans = new LinkedHashMap<>();
+
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement(sql);
+            if (memberId != null) {
+                stmt.setInt(1, memberId);
+            }
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Genre genre = genres.get(rs.getInt("genre_id"));
+                String name = genre != null ? genre.getName() : "Unknown";
+                loans.merge(name, rs.getInt("total"), Integer::sum);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting loans by genre: " + e.getMessage());
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+
+        return loans;
+    }
+
+    /**
+     * Drop the cached periods containing any of the dates, after a borrow
+     * record with those borrow or return dates was written
+     *
+     * @param dates The dates written; nulls are ignored
+     */
+    static void invalidate(java.util.Date... dates) {
+        List<LocalDate> written = new ArrayList<>();
+        for (java.util.Date date : dates) {
+            if (date != null) {
+                written.add(toLocalDate(date));
+            }
+        }
+        if (written.isEmpty()) {
+            return;
+        }
+        EntityCaches.getInstance().activityBuckets()
+                .invalidateIf(bucket -> written.stream().anyMatch(bucket::contains));
+    }
+
+    private static LocalDate toLocalDate(java.util.Date date) {
+        if (date instanceof Date) {
+            return ((Date) date).toLocalDate();
+        }
+        return new Date(date.getTime()).toLocalDate();
+    }
+
+    private static ActivityBucket emptyBucket(Granularity granularity, LocalDate start) {
+        return new ActivityBucket(start, granularity.plus(start, 1), 0, 0);
+    }
+
+    private static String cacheKey(Integer memberId, Granularity granularity, LocalDate start) {
+        return granularity + ":" + (memberId != null ? memberId : "all") + ":" + start;
+    }
+}
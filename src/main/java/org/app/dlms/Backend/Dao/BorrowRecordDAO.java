@@ -1,11 +1,19 @@
 package org.app.dlms.Backend.Dao;
 
 import org.app.dlms.Backend.Model.BorrowRecord;
+import org.app.dlms.Backend.Model.BorrowRecordView;
+import org.app.dlms.Backend.Model.MemberLoanSummary;
+import org.app.dlms.Backend.Model.Page;
+import org.app.dlms.Backend.Model.PageCursor;
+import org.app.dlms.Middleware.Cache.EntityCaches;
 import org.app.dlms.Middleware.DatabaseConnection;
+import org.app.dlms.Middleware.Enums.BorrowStatus;
+import org.app.dlms.Middleware.Enums.MembershipType;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object for BorrowRecord entities
@@ -23,24 +31,70 @@ public class BorrowRecordDAO {
     }
 
     /**
-     * Add a new borrow record to the database
+     * Add a new borrow record to the database.
+     * The book row is locked and checked, the record inserted, the book marked
+     * unavailable and the active loan counter updated in one transaction, so two
+     * concurrent issues of the same book can not both succeed.
      * 
      * @param borrowRecord The borrow record to add
-     * @return true if successful, false otherwise
+     * @return true if successful, false if the book is not available or on error
      */
     public boolean addBorrowRecord(BorrowRecord borrowRecord) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        boolean success = false;
-        
         try {
-            conn = dbConnection.getConnection();
-            String sql = "INSERT INTO " + TABLE_NAME + 
-                     " (member_id, book_id, borrow_date, due_date, return_date) " +
-                     "VALUES (?, ?, ?, ?, ?)";
-            stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            
+            return dbConnection.inTransaction(conn -> {
+                if (!lockAvailableBook(conn, borrowRecord.getBookId())) {
+                    System.err.println("Book " + borrowRecord.getBookId() + " is not available for borrowing");
+                    return false;
+                }
+                if (!insertBorrowRecord(conn, borrowRecord)) {
+                    return false;
+                }
+                updateBookAvailability(conn, borrowRecord.getBookId(), false);
+                if (borrowRecord.getReturnDate() == null) {
+                    LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.ACTIVE_LOANS, 1);
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error adding borrow record: " + e.getMessage());
+            return false;
+        } finally {
+            invalidateCachedBook(borrowRecord.getBookId());
+            invalidateLoanSummary(borrowRecord.getMemberId());
+            BorrowActivityDAO.invalidate(borrowRecord.getBorrowDate(), borrowRecord.getReturnDate());
+        }
+    }
+
+    /**
+     * Lock a book row until the surrounding transaction ends and check that it can be borrowed
+     * 
+     * @param conn The connection of the surrounding transaction
+     * @param bookId The ID of the book
+     * @return true if the book exists and is available
+     * @throws SQLException If the query fails
+     */
+    private boolean lockAvailableBook(Connection conn, int bookId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT available FROM books WHERE id = ? FOR UPDATE")) {
+            stmt.setInt(1, bookId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean("available");
+            }
+        }
+    }
+
+    /**
+     * Insert a borrow record and set its generated ID
+     * 
+     * @param conn The connection of the surrounding transaction
+     * @param borrowRecord The borrow record to insert
+     * @return true if a row was inserted
+     * @throws SQLException If the insert fails
+     */
+    private boolean insertBorrowRecord(Connection conn, BorrowRecord borrowRecord) throws SQLException {
+        String sql = "INSERT INTO " + TABLE_NAME + 
+                 " (member_id, book_id, borrow_date, due_date, return_date) " +
+                 "VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, borrowRecord.getMemberId());
             stmt.setInt(2, borrowRecord.getBookId());
             stmt.setDate(3, new java.sql.Date(borrowRecord.getBorrowDate().getTime()));
@@ -52,26 +106,18 @@ public class BorrowRecordDAO {
                 stmt.setNull(5, Types.DATE);
             }
             
-            int rowsAffected = stmt.executeUpdate();
+            if (stmt.executeUpdate() == 0) {
+                return false;
+            }
             
-            if (rowsAffected > 0) {
-                // Get the generated ID and set it in the borrowRecord object
-                rs = stmt.getGeneratedKeys();
+            // Get the generated ID and set it in the borrowRecord object
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
                     borrowRecord.setId(rs.getInt(1));
                 }
-                
-                // Update book availability
-                updateBookAvailability(borrowRecord.getBookId(), false);
-                success = true;
             }
-        } catch (SQLException e) {
-            System.err.println("Error adding borrow record: " + e.getMessage());
-        } finally {
-            dbConnection.closeResources(conn, stmt, rs);
+            return true;
         }
-        
-        return success;
     }
 
     /**
@@ -105,6 +151,25 @@ public class BorrowRecordDAO {
         return borrowRecord;
     }
 
+    /**
+     * Read a borrow record on an existing connection, locking the row until
+     * the surrounding transaction ends
+     * 
+     * @param conn The connection of the surrounding transaction
+     * @param id The ID of the borrow record
+     * @return The borrow record if found, null otherwise
+     * @throws SQLException If the query fails
+     */
+    private BorrowRecord getBorrowRecordForUpdate(Connection conn, int id) throws SQLException {
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE id = ? FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? extractBorrowRecordFromResultSet(rs) : null;
+            }
+        }
+    }
+
     /**
      * Get all borrow records from the database
      * 
@@ -134,6 +199,116 @@ public class BorrowRecordDAO {
         return borrowRecords;
     }
 
+    /**
+     * Get one page of borrow records, most recently borrowed first, using keyset pagination
+     * 
+     * @param after Cursor of the previous page, or null for the first page
+     * @param pageSize Maximum number of records on the page
+     * @return The page of borrow records
+     */
+    public Page<BorrowRecord> getBorrowRecordsPage(PageCursor after, int pageSize) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<BorrowRecord> borrowRecords = new ArrayList<>();
+        
+        try {
+            conn = dbConnection.getConnection();
+            String sql = "SELECT * FROM " + TABLE_NAME +
+                         (after == null ? "" : " WHERE borrow_date < ? OR (borrow_date = ? AND id < ?)") +
+                         " ORDER BY borrow_date DESC, id DESC LIMIT ?";
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (after != null) {
+                java.sql.Date borrowDate = new java.sql.Date(after.getSortDate().getTime());
+                stmt.setDate(index++, borrowDate);
+                stmt.setDate(index++, borrowDate);
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, KeysetPages.limitFor(pageSize));
+            rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                borrowRecords.add(extractBorrowRecordFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting page of borrow records: " + e.getMessage());
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return KeysetPages.toPage(borrowRecords, pageSize,
+                record -> PageCursor.after(record.getBorrowDate(), record.getId()));
+    }
+
+    /**
+     * Get the total number of borrow records
+     * 
+     * @return The number of borrow records
+     */
+    public int getBorrowRecordCount() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        int count = 0;
+        
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement("SELECT COUNT(*) AS total FROM " + TABLE_NAME);
+            rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                count = rs.getInt("total");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting borrow records: " + e.getMessage());
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return count;
+    }
+
+    /**
+     * Pass every borrow record to the consumer, in ID order, without loading the
+     * whole table into memory. Rows are streamed from the server one at a time.
+     * 
+     * @param consumer Receives each borrow record
+     * @return The number of records passed to the consumer
+     */
+    public long streamAll(Consumer<BorrowRecord> consumer) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        long count = 0;
+        
+        try {
+            conn = dbConnection.getConnection();
+            // Fixed column order so rows are read by index, not by name
+            String sql = "SELECT id, member_id, book_id, borrow_date, due_date, return_date FROM " + TABLE_NAME +
+                         " ORDER BY id";
+            stmt = StreamingQueries.prepare(conn, sql);
+            rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                consumer.accept(new BorrowRecord(
+                        rs.getInt(1),
+                        rs.getInt(2),
+                        rs.getInt(3),
+                        rs.getDate(4),
+                        rs.getDate(5),
+                        rs.getDate(6)));
+                count++;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error streaming borrow records after " + count + " rows: " + e.getMessage());
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return count;
+    }
+
     /**
      * Get all active borrow records (not returned yet)
      * 
@@ -225,6 +400,134 @@ public class BorrowRecordDAO {
         return borrowRecords;
     }
 
+    /**
+     * Get borrow records joined with their member and book details, filtered in the database.
+     * Records whose member or book no longer exists are left out.
+     * 
+     * @param memberId Only records of this member, or null for all members
+     * @param status Which records to include; Active and Overdue only include unreturned books
+     * @param searchText Text to match against member name or book title (case-insensitive), or null/empty for no text filter
+     * @return Matching records, most recently borrowed first
+     */
+    public List<BorrowRecordView> getBorrowRecordViews(Integer memberId, BorrowStatus status, String searchText) {
+        return getBorrowRecordViews(memberId, status, searchText, 0);
+    }
+
+    /**
+     * Get at most limit borrow records joined with their member and book details
+     * 
+     * @param memberId Only records of this member, or null for all members
+     * @param status Which records to include
+     * @param searchText Text to match against member name or book title, or null/empty for no text filter
+     * @param limit Maximum number of records to return, 0 for no limit
+     * @return Matching records, most recently borrowed first
+     */
+    public List<BorrowRecordView> getBorrowRecordViews(Integer memberId, BorrowStatus status, String searchText, int limit) {
+        return queryBorrowRecordViews(memberId, status, searchText, null, limit);
+    }
+
+    /**
+     * Get one page of borrow records joined with their member and book details,
+     * most recently borrowed first, using keyset pagination
+     * 
+     * @param memberId Only records of this member, or null for all members
+     * @param status Which records to include
+     * @param searchText Text to match against member name or book title, or null/empty for no text filter
+     * @param after Cursor of the previous page, or null for the first page
+     * @param pageSize Maximum number of records on the page
+     * @return The page of records
+     */
+    public Page<BorrowRecordView> getBorrowRecordViewsPage(Integer memberId, BorrowStatus status, String searchText,
+                                                           PageCursor after, int pageSize) {
+        List<BorrowRecordView> views = queryBorrowRecordViews(memberId, status, searchText, after,
+                KeysetPages.limitFor(pageSize));
+        return KeysetPages.toPage(views, pageSize,
+                view -> PageCursor.after(view.getBorrowDate(), view.getId()));
+    }
+
+    /**
+     * Run the joined borrow record query with the given filters, starting after a cursor
+     */
+    private List<BorrowRecordView> queryBorrowRecordViews(Integer memberId, BorrowStatus status, String searchText,
+                                                          PageCursor after, int limit) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<BorrowRecordView> views = new ArrayList<>();
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT br.id, br.member_id, br.book_id, br.borrow_date, br.due_date, br.return_date, " +
+                "u.name AS member_name, b.title AS book_title, b.author AS book_author " +
+                "FROM " + TABLE_NAME + " br " +
+                "JOIN users u ON u.id = br.member_id " +
+                "JOIN books b ON b.id = br.book_id " +
+                "WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+
+        if (memberId != null) {
+            sql.append(" AND br.member_id = ?");
+            params.add(memberId);
+        }
+        if (status == BorrowStatus.Active) {
+            sql.append(" AND br.return_date IS NULL");
+        } else if (status == BorrowStatus.Overdue) {
+            sql.append(" AND br.return_date IS NULL AND br.due_date < CURRENT_DATE");
+        }
+        if (searchText != null && !searchText.trim().isEmpty()) {
+            sql.append(" AND (u.name LIKE ? ESCAPE '!' OR b.title LIKE ? ESCAPE '!')");
+            String pattern = "%" + escapeLike(searchText.trim()) + "%";
+            params.add(pattern);
+            params.add(pattern);
+        }
+        if (after != null) {
+            java.sql.Date borrowDate = new java.sql.Date(after.getSortDate().getTime());
+            sql.append(" AND (br.borrow_date < ? OR (br.borrow_date = ? AND br.id < ?))");
+            params.add(borrowDate);
+            params.add(borrowDate);
+            params.add(after.getId());
+        }
+        sql.append(" ORDER BY br.borrow_date DESC, br.id DESC");
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(limit);
+        }
+
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                views.add(new BorrowRecordView(
+                        rs.getInt("id"),
+                        rs.getInt("member_id"),
+                        rs.getInt("book_id"),
+                        rs.getDate("borrow_date"),
+                        rs.getDate("due_date"),
+                        rs.getDate("return_date"),
+                        rs.getString("member_name"),
+                        rs.getString("book_title"),
+                        rs.getString("book_author")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting borrow record views: " + e.getMessage());
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+
+        return views;
+    }
+
+    /**
+     * Escape LIKE wildcards so the search text is matched literally
+     */
+    private String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
     /**
      * Get all borrow records for a specific book
      * 
@@ -257,97 +560,118 @@ public class BorrowRecordDAO {
     }
 
     /**
-     * Update a borrow record in the database
+     * Update a borrow record in the database.
+     * Reading the previous state, updating the record, releasing the book
+     * on return and updating the active loan counter all happen in one transaction.
      * 
      * @param borrowRecord The borrow record to update
      * @return true if successful, false otherwise
      */
     public boolean updateBorrowRecord(BorrowRecord borrowRecord) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        boolean success = false;
-        
+        BorrowRecord[] previous = {null};
         try {
-            conn = dbConnection.getConnection();
-            String sql = "UPDATE " + TABLE_NAME + 
-                       " SET member_id = ?, book_id = ?, borrow_date = ?, due_date = ?, return_date = ? " +
-                       "WHERE id = ?";
-            stmt = conn.prepareStatement(sql);
-            
-            stmt.setInt(1, borrowRecord.getMemberId());
-            stmt.setInt(2, borrowRecord.getBookId());
-            stmt.setDate(3, new java.sql.Date(borrowRecord.getBorrowDate().getTime()));
-            stmt.setDate(4, new java.sql.Date(borrowRecord.getDueDate().getTime()));
-            
-            // Check if a book is being returned
-            BorrowRecord oldRecord = getBorrowRecordById(borrowRecord.getId());
-            boolean bookBeingReturned = oldRecord != null && 
-                                      oldRecord.getReturnDate() == null && 
-                                      borrowRecord.getReturnDate() != null;
-            
-            if (borrowRecord.getReturnDate() != null) {
-                stmt.setDate(5, new java.sql.Date(borrowRecord.getReturnDate().getTime()));
-            } else {
-                stmt.setNull(5, Types.DATE);
-            }
-            
-            stmt.setInt(6, borrowRecord.getId());
-            
-            int rowsAffected = stmt.executeUpdate();
-            
-            if (rowsAffected > 0 && bookBeingReturned) {
-                // Update book availability when returned
-                updateBookAvailability(borrowRecord.getBookId(), true);
-            }
-            
-            success = (rowsAffected > 0);
+            return dbConnection.inTransaction(conn -> {
+                // Check if a book is being returned
+                BorrowRecord oldRecord = getBorrowRecordForUpdate(conn, borrowRecord.getId());
+                previous[0] = oldRecord;
+                boolean bookBeingReturned = oldRecord != null && 
+                                          oldRecord.getReturnDate() == null && 
+                                          borrowRecord.getReturnDate() != null;
+                
+                String sql = "UPDATE " + TABLE_NAME + 
+                           " SET member_id = ?, book_id = ?, borrow_date = ?, due_date = ?, return_date = ? " +
+                           "WHERE id = ?";
+                int rowsAffected;
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, borrowRecord.getMemberId());
+                    stmt.setInt(2, borrowRecord.getBookId());
+                    stmt.setDate(3, new java.sql.Date(borrowRecord.getBorrowDate().getTime()));
+                    stmt.setDate(4, new java.sql.Date(borrowRecord.getDueDate().getTime()));
+                    
+                    if (borrowRecord.getReturnDate() != null) {
+                        stmt.setDate(5, new java.sql.Date(borrowRecord.getReturnDate().getTime()));
+                    } else {
+                        stmt.setNull(5, Types.DATE);
+                    }
+                    
+                    stmt.setInt(6, borrowRecord.getId());
+                    rowsAffected = stmt.executeUpdate();
+                }
+                
+                if (rowsAffected > 0 && bookBeingReturned) {
+                    // Update book availability when returned
+                    updateBookAvailability(conn, borrowRecord.getBookId(), true);
+                }
+                if (rowsAffected > 0 && oldRecord != null) {
+                    int wasActive = oldRecord.getReturnDate() == null ? 1 : 0;
+                    int isActive = borrowRecord.getReturnDate() == null ? 1 : 0;
+                    LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.ACTIVE_LOANS, isActive - wasActive);
+                }
+                
+                return rowsAffected > 0;
+            });
         } catch (SQLException e) {
             System.err.println("Error updating borrow record: " + e.getMessage());
+            return false;
         } finally {
-            dbConnection.closeResources(conn, stmt, null);
+            invalidateCachedBook(borrowRecord.getBookId());
+            invalidateLoanSummary(borrowRecord.getMemberId());
+            if (previous[0] != null) {
+                invalidateLoanSummary(previous[0].getMemberId());
+            }
+            BorrowActivityDAO.invalidate(borrowRecord.getBorrowDate(), borrowRecord.getReturnDate(),
+                    previous[0] != null ? previous[0].getBorrowDate() : null,
+                    previous[0] != null ? previous[0].getReturnDate() : null);
         }
-        
-        return success;
     }
 
     /**
-     * Delete a borrow record from the database
+     * Delete a borrow record from the database.
+     * If the record was still active, the book is released and the active loan
+     * counter updated in the same transaction.
      * 
      * @param id The ID of the borrow record to delete
      * @return true if successful, false otherwise
      */
     public boolean deleteBorrowRecord(int id) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        boolean success = false;
-        
-        // First, get the record to know if we need to update book availability
-        BorrowRecord record = getBorrowRecordById(id);
-        if (record == null) {
-            return false;
-        }
-        
+        int[] releasedBookId = {-1};
+        BorrowRecord[] deleted = {null};
         try {
-            conn = dbConnection.getConnection();
-            String sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
-            stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, id);
-            
-            int rowsAffected = stmt.executeUpdate();
-            
-            if (rowsAffected > 0 && record.getReturnDate() == null) {
-                // If the record is active (not returned), update book availability
-                updateBookAvailability(record.getBookId(), true);
-            }
-            
-            success = (rowsAffected > 0);
+            return dbConnection.inTransaction(conn -> {
+                // First, get the record to know if we need to update book availability
+                BorrowRecord record = getBorrowRecordForUpdate(conn, id);
+                if (record == null) {
+                    return false;
+                }
+                deleted[0] = record;
+                
+                int rowsAffected;
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + TABLE_NAME + " WHERE id = ?")) {
+                    stmt.setInt(1, id);
+                    rowsAffected = stmt.executeUpdate();
+                }
+                
+                if (rowsAffected > 0 && record.getReturnDate() == null) {
+                    // If the record is active (not returned), update book availability
+                    updateBookAvailability(conn, record.getBookId(), true);
+                    LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.ACTIVE_LOANS, -1);
+                    releasedBookId[0] = record.getBookId();
+                }
+                
+                return rowsAffected > 0;
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting borrow record: " + e.getMessage());
+            return false;
         } finally {
-            dbConnection.closeResources(conn, stmt, null);
+            if (releasedBookId[0] != -1) {
+                invalidateCachedBook(releasedBookId[0]);
+            }
+            if (deleted[0] != null) {
+                invalidateLoanSummary(deleted[0].getMemberId());
+                BorrowActivityDAO.invalidate(deleted[0].getBorrowDate(), deleted[0].getReturnDate());
+            }
         }
-        
-        return success;
     }
 
     /**
@@ -393,6 +717,59 @@ public class BorrowRecordDAO {
         return getCurrentBorrowForBook(bookId) != null;
     }
 
+    /**
+     * Get a member's active, returned and overdue loan counts and borrow limit
+     * with one aggregate query. The result is cached until the member borrows
+     * or returns a book.
+     * 
+     * @param memberId The ID of the member
+     * @return The summary, or null if the member does not exist or the query failed
+     */
+    public MemberLoanSummary getMemberLoanSummary(int memberId) {
+        return EntityCaches.getInstance().loanSummaries().get(memberId, this::loadMemberLoanSummary);
+    }
+
+    private MemberLoanSummary loadMemberLoanSummary(int memberId) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        MemberLoanSummary summary = null;
+        
+        try {
+            conn = dbConnection.getConnection();
+            String sql = "SELECT u.membership_type, " +
+                       "COALESCE(SUM(r.id IS NOT NULL AND r.return_date IS NULL), 0) AS active_loans, " +
+                       "COALESCE(SUM(r.return_date IS NOT NULL), 0) AS returned_loans, " +
+                       "COALESCE(SUM(r.id IS NOT NULL AND r.return_date IS NULL AND r.due_date < CURRENT_DATE), 0) AS overdue_loans " +
+                       "FROM users u LEFT JOIN " + TABLE_NAME + " r ON r.member_id = u.id " +
+                       "WHERE u.id = ? GROUP BY u.id, u.membership_type";
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, memberId);
+            rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                // Members without a valid membership type get the Bronze limit, as in UserDAO
+                MembershipType membershipType = MembershipType.Bronze;
+                String storedType = rs.getString("membership_type");
+                if (storedType != null && !storedType.isEmpty()) {
+                    try {
+                        membershipType = MembershipType.valueOf(storedType);
+                    } catch (IllegalArgumentException e) {
+                        // Keep the default
+                    }
+                }
+                summary = new MemberLoanSummary(memberId, rs.getInt("active_loans"),
+                        rs.getInt("returned_loans"), rs.getInt("overdue_loans"), membershipType.getBorrowLimit());
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting loan summary for member: " + e.getMessage());
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return summary;
+    }
+
     /**
      * Get the borrowing history for a member
      * 
@@ -416,27 +793,35 @@ public class BorrowRecordDAO {
     /**
      * Update the availability status of a book
      * 
+     * @param conn The connection of the surrounding transaction
      * @param bookId The ID of the book
      * @param available true if available, false if borrowed
+     * @throws SQLException If the update fails
      */
-    private void updateBookAvailability(int bookId, boolean available) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        
-        try {
-            conn = dbConnection.getConnection();
-            String sql = "UPDATE books SET available = ? WHERE id = ?";
-            stmt = conn.prepareStatement(sql);
+    private void updateBookAvailability(Connection conn, int bookId, boolean available) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE books SET available = ? WHERE id = ?")) {
             stmt.setBoolean(1, available);
             stmt.setInt(2, bookId);
             stmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error updating book availability: " + e.getMessage());
-        } finally {
-            dbConnection.closeResources(conn, stmt, null);
         }
     }
 
+    /**
+     * Drop a book from the shared entity cache once its availability changed,
+     * and read it again into the catalog facets. Called after the transaction
+     * ended so a concurrent reader can not cache the uncommitted state again.
+     * 
+     * @param bookId The ID of the book
+     */
+    private void invalidateCachedBook(int bookId) {
+        EntityCaches.getInstance().books().invalidate(bookId);
+        BookFacets.getInstance().refresh(bookId);
+    }
+
+    private void invalidateLoanSummary(int memberId) {
+        EntityCaches.getInstance().loanSummaries().invalidate(memberId);
+    }
+
     /**
      * Extract a BorrowRecord object from a ResultSet
      * 
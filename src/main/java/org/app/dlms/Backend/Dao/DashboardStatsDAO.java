@@ -0,0 +1,139 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Dao.LibraryStatsDAO.Counter;
+import org.app.dlms.Backend.Model.DashboardStats;
+import org.app.dlms.Middleware.Cache.EntityCache;
+import org.app.dlms.Middleware.Cache.EntityCaches;
+import org.app.dlms.Middleware.DatabaseConnection;
+
+import java.sql.*;
+import java.util.Map;
+
+/**
+ * Data Access Object for the dashboard statistics.
+ *
+ * The figures come from the library_stats counters, plus a count of overdue
+ * loans, which changes with the date and so can not be kept as a counter.
+ * Until the counters have been created the figures are aggregated from the
+ * tables in one query instead: each table is aggregated once in its own
+ * derived table and the single-row results are joined together. The result
+ * is kept for dashboard.stats.ttl milliseconds so reopening the dashboard
+ * does not hit the database again.
+ */
+public class DashboardStatsDAO {
+    private static final String CACHE_KEY = "all";
+
+    private static final String STATS_SQL =
+            "SELECT u.admin_count, u.librarian_count, u.member_count, b.book_count, " +
+            "l.active_loans, l.overdue_loans, p.subscription_revenue, f.fine_revenue, f.unpaid_fines " +
+            "FROM (SELECT COALESCE(SUM(role = 'Admin'), 0) AS admin_count, " +
+            "             COALESCE(SUM(role = 'Librarian'), 0) AS librarian_count, " +
+            "             COALESCE(SUM(role = 'Member'), 0) AS member_count FROM users) u " +
+            "CROSS JOIN (SELECT COUNT(*) AS book_count FROM books) b " +
+            "CROSS JOIN (SELECT COALESCE(SUM(return_date IS NULL), 0) AS active_loans, " +
+            "                   COALESCE(SUM(return_date IS NULL AND due_date < CURRENT_DATE), 0) AS overdue_loans " +
+            "            FROM borrow_records) l " +
+            "CROSS JOIN (SELECT COALESCE(SUM(amount), 0) AS subscription_revenue FROM payments) p " +
+            "CROSS JOIN (SELECT COALESCE(SUM(amount), 0) AS fine_revenue, " +
+            "                   COALESCE(SUM(CASE WHEN paid THEN 0 ELSE amount END), 0) AS unpaid_fines " +
+            "            FROM fines) f";
+
+    private static final String OVERDUE_SQL = "SELECT COUNT(*) AS overdue_loans FROM borrow_records " +
+            "WHERE return_date IS NULL AND due_date < CURRENT_DATE";
+
+    private final DatabaseConnection dbConnection;
+    private final EntityCache<String, DashboardStats> cache;
+    private final LibraryStatsDAO libraryStatsDAO;
+
+    public DashboardStatsDAO() {
+        dbConnection = DatabaseConnection.getInstance();
+        cache = EntityCaches.getInstance().dashboardStats();
+        libraryStatsDAO = new LibraryStatsDAO();
+    }
+
+    /**
+     * Get the dashboard statistics, from memory if they were loaded recently
+     *
+     * @return The statistics; all zero if they could not be loaded
+     */
+    public DashboardStats getStats() {
+        DashboardStats stats = cache.get(CACHE_KEY, key -> loadStats());
+        return stats != null ? stats : new DashboardStats();
+    }
+
+    /**
+     * Drop the cached statistics so the next getStats() queries the database
+     */
+    public void invalidate() {
+        cache.invalidateAll();
+    }
+
+    private DashboardStats loadStats() {
+        Map<Counter, Double> counters = libraryStatsDAO.getCounters();
+        if (counters.size() < Counter.values().length) {
+            return aggregateStats();
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement(OVERDUE_SQL);
+            rs = stmt.executeQuery();
+
+            DashboardStats stats = new DashboardStats();
+            stats.setAdminCount(counters.get(Counter.ADMINS).intValue());
+            stats.setLibrarianCount(counters.get(Counter.LIBRARIANS).intValue());
+            stats.setMemberCount(counters.get(Counter.MEMBERS).intValue());
+            stats.setBookCount(counters.get(Counter.BOOKS).intValue());
+            stats.setActiveLoans(counters.get(Counter.ACTIVE_LOANS).intValue());
+            stats.setOverdueLoans(rs.next() ? rs.getInt("overdue_loans") : 0);
+            stats.setSubscriptionRevenue(counters.get(Counter.PAYMENTS_TOTAL));
+            stats.setFineRevenue(counters.get(Counter.FINES_TOTAL));
+            stats.setUnpaidFines(counters.get(Counter.UNPAID_FINES));
+            return stats;
+        } catch (SQLException e) {
+            System.err.println("Error loading dashboard statistics");
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+
+        return null;
+    }
+
+    private DashboardStats aggregateStats() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement(STATS_SQL);
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                DashboardStats stats = new DashboardStats();
+                stats.setAdminCount(rs.getInt("admin_count"));
+                stats.setLibrarianCount(rs.getInt("librarian_count"));
+                stats.setMemberCount(rs.getInt("member_count"));
+                stats.setBookCount(rs.getInt("book_count"));
+                stats.setActiveLoans(rs.getInt("active_loans"));
+                stats.setOverdueLoans(rs.getInt("overdue_loans"));
+                stats.setSubscriptionRevenue(rs.getDouble("subscription_revenue"));
+                stats.setFineRevenue(rs.getDouble("fine_revenue"));
+                stats.setUnpaidFines(rs.getDouble("unpaid_fines"));
+                return stats;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading dashboard statistics");
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+
+        return null;
+    }
+}
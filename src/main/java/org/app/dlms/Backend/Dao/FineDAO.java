@@ -1,6 +1,8 @@
 package org.app.dlms.Backend.Dao;
 
 import org.app.dlms.Backend.Model.Fine;
+import org.app.dlms.Backend.Model.Page;
+import org.app.dlms.Backend.Model.PageCursor;
 import org.app.dlms.Middleware.DatabaseConnection;
 
 import java.sql.*;
@@ -18,44 +20,43 @@ public class FineDAO {
     }
 
     /**
-     * Add a new fine record
+     * Add a new fine record. The fine counters are updated in the same transaction.
      * 
      * @param fine The fine to add
      * @return The ID of the newly added fine, or -1 if operation fails
      */
     public int addFine(Fine fine) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        int generatedId = -1;
-        
         try {
-            conn = dbConnection.getConnection();
-            String sql = "INSERT INTO fines (member_id, borrow_record_id, amount, paid) VALUES (?, ?, ?, ?)";
-            stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
-            
-            stmt.setInt(1, fine.getMemberId());
-            stmt.setInt(2, fine.getBorrowRecordId());
-            stmt.setDouble(3, fine.getAmount());
-            stmt.setBoolean(4, fine.isPaid());
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    generatedId = rs.getInt(1);
-                    fine.setId(generatedId);
+            return dbConnection.inTransaction(conn -> {
+                String sql = "INSERT INTO fines (member_id, borrow_record_id, amount, paid) VALUES (?, ?, ?, ?)";
+                int generatedId = -1;
+                try (PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    stmt.setInt(1, fine.getMemberId());
+                    stmt.setInt(2, fine.getBorrowRecordId());
+                    stmt.setDouble(3, fine.getAmount());
+                    stmt.setBoolean(4, fine.isPaid());
+                    
+                    if (stmt.executeUpdate() == 0) {
+                        return -1;
+                    }
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            generatedId = rs.getInt(1);
+                            fine.setId(generatedId);
+                        }
+                    }
                 }
-            }
+                LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.FINES_TOTAL, fine.getAmount());
+                if (!fine.isPaid()) {
+                    LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.UNPAID_FINES, fine.getAmount());
+                }
+                return generatedId;
+            });
         } catch (SQLException e) {
             System.err.println("Error adding fine for member ID: " + fine.getMemberId());
             e.printStackTrace();
-        } finally {
-            dbConnection.closeResources(conn, stmt, rs);
+            return -1;
         }
-        
-        return generatedId;
     }
     
     /**
@@ -139,35 +140,46 @@ public class FineDAO {
     }
     
     /**
-     * Update a fine's payment status
+     * Update a fine's payment status. The unpaid fines counter is updated in the same transaction.
      * 
      * @param fineId The ID of the fine
      * @param paid The new payment status
      * @return true if successful, false otherwise
      */
     public boolean updateFinePaymentStatus(int fineId, boolean paid) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        boolean success = false;
-        
         try {
-            conn = dbConnection.getConnection();
-            String sql = "UPDATE fines SET paid = ? WHERE id = ?";
-            stmt = conn.prepareStatement(sql);
-            
-            stmt.setBoolean(1, paid);
-            stmt.setInt(2, fineId);
-            
-            int affectedRows = stmt.executeUpdate();
-            success = (affectedRows > 0);
+            return dbConnection.inTransaction(conn -> {
+                double amount;
+                boolean wasPaid;
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT amount, paid FROM fines WHERE id = ? FOR UPDATE")) {
+                    stmt.setInt(1, fineId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        amount = rs.getDouble("amount");
+                        wasPaid = rs.getBoolean("paid");
+                    }
+                }
+                
+                try (PreparedStatement stmt = conn.prepareStatement("UPDATE fines SET paid = ? WHERE id = ?")) {
+                    stmt.setBoolean(1, paid);
+                    stmt.setInt(2, fineId);
+                    if (stmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                if (wasPaid != paid) {
+                    LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.UNPAID_FINES, paid ? -amount : amount);
+                }
+                return true;
+            });
         } catch (SQLException e) {
             System.err.println("Error updating fine payment status for fine ID: " + fineId);
             e.printStackTrace();
-        } finally {
-            dbConnection.closeResources(conn, stmt, null);
+            return false;
         }
-        
-        return success;
     }
     
     /**
@@ -323,15 +335,7 @@ public class FineDAO {
             rs = stmt.executeQuery();
             
             while (rs.next()) {
-                Fine fine = new Fine(
-                    rs.getInt("id"),
-                    rs.getInt("member_id"),
-                    rs.getInt("borrow_record_id"),
-                    rs.getDouble("amount"),
-                    rs.getBoolean("paid")
-                );
-                
-                fines.add(fine);
+                fines.add(extractFineFromResultSet(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving all fines");
@@ -342,4 +346,89 @@ public class FineDAO {
         
         return fines;
     }
+
+    /**
+     * Get one page of fines, newest first, using keyset pagination
+     * 
+     * @param after Cursor of the previous page, or null for the first page
+     * @param pageSize Maximum number of fines on the page
+     * @return The page of fines
+     */
+    public Page<Fine> getFinesPage(PageCursor after, int pageSize) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Fine> fines = new ArrayList<>();
+        
+        try {
+            conn = dbConnection.getConnection();
+            String sql = after == null
+                    ? "SELECT * FROM fines ORDER BY id DESC LIMIT ?"
+                    : "SELECT * FROM fines WHERE id < ? ORDER BY id DESC LIMIT ?";
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (after != null) {
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, KeysetPages.limitFor(pageSize));
+            rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                fines.add(extractFineFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving page of fines after " + after);
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return KeysetPages.toPage(fines, pageSize, fine -> PageCursor.afterId(fine.getId()));
+    }
+
+    /**
+     * Get the total number of fines
+     * 
+     * @return The number of fine records
+     */
+    public int getFineCount() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        int count = 0;
+        
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement("SELECT COUNT(*) AS total FROM fines");
+            rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                count = rs.getInt("total");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting fines");
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return count;
+    }
+
+    /**
+     * Create a Fine from the current row of a fines query
+     * 
+     * @param rs The result set positioned on a row
+     * @return The fine
+     * @throws SQLException If a column can not be read
+     */
+    private Fine extractFineFromResultSet(ResultSet rs) throws SQLException {
+        return new Fine(
+            rs.getInt("id"),
+            rs.getInt("member_id"),
+            rs.getInt("borrow_record_id"),
+            rs.getDouble("amount"),
+            rs.getBoolean("paid")
+        );
+    }
 } 
\ No newline at end of file
@@ -13,62 +13,36 @@ public class GenreDAO {
     
     private static final Logger LOGGER = Logger.getLogger(GenreDAO.class.getName());
     private final DatabaseConnection dbConnector;
+    private final GenreDictionary dictionary;
     
     public GenreDAO() {
         this.dbConnector = DatabaseConnection.getInstance();
+        this.dictionary = GenreDictionary.getInstance();
     }
     
     /**
-     * Retrieves all genres from the database
-     * @return List of all genres
+     * Retrieves all genres, served from the in-memory genre dictionary.
+     * The genres are copies, so callers may edit them before calling updateGenre.
+     * @return List of all genres ordered by name
      */
     public List<Genre> getAllGenres() {
         List<Genre> genres = new ArrayList<>();
-        String query = "SELECT id, name FROM genres ORDER BY name";
-        
-        try (Connection conn = dbConnector.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            
-            while (rs.next()) {
-                Genre genre = new Genre();
-                genre.setId(rs.getInt("id"));
-                genre.setName(rs.getString("name"));
-                genres.add(genre);
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error retrieving genres", e);
+        for (Genre shared : dictionary.getAll()) {
+            Genre genre = new Genre();
+            genre.setId(shared.getId());
+            genre.setName(shared.getName());
+            genres.add(genre);
         }
-        
         return genres;
     }
     
     /**
-     * Retrieves a genre by its ID
+     * Retrieves a genre by its ID, served from the in-memory genre dictionary
      * @param id The genre ID
      * @return The genre object if found, null otherwise
      */
     public Genre getGenreById(int id) {
-        String query = "SELECT id, name FROM genres WHERE id = ?";
-
-        try (Connection conn = dbConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-            
-            stmt.setInt(1, id);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Genre genre = new Genre();
-                    genre.setId(rs.getInt("id"));
-                    genre.setName(rs.getString("name"));
-                    return genre;
-                }
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error retrieving genre with ID: " + id, e);
-        }
-        
-        return null;
+        return dictionary.get(id);
     }
     
     /**
@@ -91,7 +65,12 @@ public class GenreDAO {
             
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
+                    int id = generatedKeys.getInt(1);
+                    Genre added = new Genre();
+                    added.setId(id);
+                    added.setName(genre.getName());
+                    dictionary.put(added);
+                    return id;
                 }
             }
         } catch (SQLException e) {
@@ -116,6 +95,9 @@ public class GenreDAO {
             stmt.setInt(2, genre.getId());
             
             int affectedRows = stmt.executeUpdate();
+            if (affectedRows > 0) {
+                dictionary.put(genre);
+            }
             return affectedRows > 0;
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error updating genre: " + genre.getId(), e);
@@ -148,6 +130,9 @@ public class GenreDAO {
             try (PreparedStatement stmt = conn.prepareStatement(query)) {
                 stmt.setInt(1, genreId);
                 int affectedRows = stmt.executeUpdate();
+                if (affectedRows > 0) {
+                    dictionary.remove(genreId);
+                }
                 return affectedRows > 0;
             }
         } catch (SQLException e) {
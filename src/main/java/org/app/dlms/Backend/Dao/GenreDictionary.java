@@ -0,0 +1,153 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Model.Genre;
+import org.app.dlms.Middleware.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory copy of the genres table, indexed by id.
+ *
+ * The whole table is read once and kept as an immutable snapshot. Readers
+ * never lock: they use whatever snapshot is current. GenreDAO writes go to
+ * the database first and then publish a new snapshot with the change
+ * applied, so the dictionary is never reloaded after startup.
+ *
+ * The Genre objects in a snapshot are shared with every Book that refers to
+ * them and must not be modified.
+ */
+public final class GenreDictionary {
+
+    private static final Logger LOGGER = Logger.getLogger(GenreDictionary.class.getName());
+    private static final GenreDictionary INSTANCE = new GenreDictionary();
+
+    private static final class Snapshot {
+        final Map<Integer, Genre> byId;
+        final List<Genre> byName;
+
+        Snapshot(Map<Integer, Genre> byId) {
+            List<Genre> sorted = new ArrayList<>(byId.values());
+            sorted.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.getName(), b.getName()));
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byName = Collections.unmodifiableList(sorted);
+        }
+    }
+
+    private volatile Snapshot snapshot;
+
+    private GenreDictionary() {
+    }
+
+    /**
+     * Get the singleton instance
+     *
+     * @return The genre dictionary
+     */
+    public static GenreDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Read the genres table into a new snapshot, e.g. at application startup
+     *
+     * @return True if the table was read, false if the query failed
+     */
+    public synchronized boolean load() {
+        Map<Integer, Genre> genres = new HashMap<>();
+        String query = "SELECT id, name FROM genres";
+
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+
+            while (rs.next()) {
+                Genre genre = new Genre();
+                genre.setId(rs.getInt("id"));
+                genre.setName(rs.getString("name"));
+                genres.put(genre.getId(), genre);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error loading genre dictionary", e);
+            return false;
+        }
+
+        snapshot = new Snapshot(genres);
+        return true;
+    }
+
+    /**
+     * Get a genre by its ID
+     *
+     * @param id The genre ID
+     * @return The genre, or null if there is none with that ID
+     */
+    public Genre get(int id) {
+        return current().byId.get(id);
+    }
+
+    /**
+     * Get all genres ordered by name
+     *
+     * @return Unmodifiable list of all genres
+     */
+    public List<Genre> getAll() {
+        return current().byName;
+    }
+
+    /**
+     * Publish a snapshot that contains a genre just inserted or updated in the database
+     *
+     * @param genre The genre as stored
+     */
+    synchronized void put(Genre genre) {
+        if (snapshot == null) {
+            return; // Not loaded yet; the first load reads the change from the database
+        }
+        Genre copy = new Genre();
+        copy.setId(genre.getId());
+        copy.setName(genre.getName());
+
+        Map<Integer, Genre> genres = new HashMap<>(snapshot.byId);
+        genres.put(copy.getId(), copy);
+        snapshot = new Snapshot(genres);
+    }
+
+    /**
+     * Publish a snapshot without a genre just deleted from the database
+     *
+     * @param id The ID of the deleted genre
+     */
+    synchronized void remove(int id) {
+        if (snapshot == null) {
+            return;
+        }
+        Map<Integer, Genre> genres = new HashMap<>(snapshot.byId);
+        if (genres.remove(id) != null) {
+            snapshot = new Snapshot(genres);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null && !load()) {
+                    // Leave the dictionary unloaded so the next call tries again
+                    return new Snapshot(new HashMap<>());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,71 @@
+package org.app.dlms.Backend.Dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Splits id collections into chunks for "WHERE id IN (...)" lookups.
+ *
+ * Chunks are padded to a power of two by repeating their last id, so the DAOs
+ * only ever build a handful of distinct IN statements and those stay in the
+ * connection's prepared statement cache.
+ */
+final class IdBatches {
+
+    /** Largest number of ids bound to a single IN query */
+    static final int MAX_CHUNK_SIZE = 256;
+
+    private static final int MIN_CHUNK_SIZE = 8;
+
+    private IdBatches() {
+    }
+
+    /**
+     * Split ids into padded chunks, dropping nulls and duplicates
+     *
+     * @param ids The ids to look up
+     * @return Chunks of at most MAX_CHUNK_SIZE ids, each padded to a power of two
+     */
+    static List<int[]> chunks(Collection<Integer> ids) {
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.remove(null);
+
+        List<int[]> chunks = new ArrayList<>();
+        for (int start = 0; start < distinct.size(); start += MAX_CHUNK_SIZE) {
+            int end = Math.min(distinct.size(), start + MAX_CHUNK_SIZE);
+            int[] chunk = new int[paddedSize(end - start)];
+            for (int i = 0; i < chunk.length; i++) {
+                chunk[i] = distinct.get(Math.min(start + i, end - 1));
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Build the "?, ?, ?" placeholder list for a chunk
+     *
+     * @param count Number of placeholders
+     * @return The placeholder list
+     */
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    private static int paddedSize(int size) {
+        int padded = MIN_CHUNK_SIZE;
+        while (padded < size) {
+            padded <<= 1;
+        }
+        return Math.min(padded, MAX_CHUNK_SIZE);
+    }
+}
@@ -0,0 +1,48 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Model.Page;
+import org.app.dlms.Backend.Model.PageCursor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers shared by the keyset-paginated DAO queries.
+ *
+ * Page queries fetch one row more than the page size; if that extra row
+ * arrives there is a following page, and the cursor is taken from the last
+ * row that is kept.
+ */
+final class KeysetPages {
+
+    private KeysetPages() {
+    }
+
+    /**
+     * @param pageSize The requested page size
+     * @return The LIMIT to bind, one more than the page size
+     */
+    static int limitFor(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        return pageSize + 1;
+    }
+
+    /**
+     * Turn the rows of a page query into a page
+     *
+     * @param rows Rows fetched with limitFor(pageSize)
+     * @param pageSize The requested page size
+     * @param cursorOf Builds the cursor from a row
+     * @return The page, with a cursor if more rows follow
+     */
+    static <T> Page<T> toPage(List<T> rows, int pageSize, Function<T, PageCursor> cursorOf) {
+        PageCursor next = null;
+        if (rows.size() > pageSize) {
+            rows.subList(pageSize, rows.size()).clear();
+            next = cursorOf.apply(rows.get(pageSize - 1));
+        }
+        return new Page<>(rows, next);
+    }
+}
@@ -0,0 +1,203 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Middleware.DatabaseConnection;
+import org.app.dlms.Middleware.Enums.UserRole;
+
+import java.sql.*;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Data Access Object for the library_stats counters.
+ *
+ * Each counter holds a figure that would otherwise need a COUNT or SUM over a
+ * whole table. The DAOs that change those tables adjust the counters with
+ * adjust() inside the same transaction, so reading a counter is a primary key
+ * lookup. reconcile() recomputes every counter from the tables and repairs any
+ * drift, e.g. from rows changed outside the application.
+ */
+public class LibraryStatsDAO {
+
+    /**
+     * The maintained counters, each with the query that computes its true value
+     */
+    public enum Counter {
+        BOOKS("SELECT COUNT(*) FROM books"),
+        ADMINS("SELECT COUNT(*) FROM users WHERE role = 'Admin'"),
+        LIBRARIANS("SELECT COUNT(*) FROM users WHERE role = 'Librarian'"),
+        MEMBERS("SELECT COUNT(*) FROM users WHERE role = 'Member'"),
+        ACTIVE_LOANS("SELECT COUNT(*) FROM borrow_records WHERE return_date IS NULL"),
+        PAYMENTS_TOTAL("SELECT COALESCE(SUM(amount), 0) FROM payments"),
+        FINES_TOTAL("SELECT COALESCE(SUM(amount), 0) FROM fines"),
+        UNPAID_FINES("SELECT COALESCE(SUM(amount), 0) FROM fines WHERE paid = FALSE");
+
+        private final String actualValueSql;
+
+        Counter(String actualValueSql) {
+            this.actualValueSql = actualValueSql;
+        }
+
+        /**
+         * @return The counter holding the number of users with this role
+         */
+        public static Counter forRole(UserRole role) {
+            switch (role) {
+                case Admin:
+                    return ADMINS;
+                case Librarian:
+                    return LIBRARIANS;
+                default:
+                    return MEMBERS;
+            }
+        }
+    }
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS library_stats (" +
+            "stat_key VARCHAR(50) PRIMARY KEY, " +
+            "value DECIMAL(14, 2) NOT NULL DEFAULT 0" +
+            ")";
+
+    // Differences below a cent are rounding, not drift
+    private static final double TOLERANCE = 0.005;
+
+    private final DatabaseConnection dbConnection;
+
+    public LibraryStatsDAO() {
+        dbConnection = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Add to a counter. Must be called on the connection of the transaction
+     * that made the change, so the counter commits or rolls back with it.
+     *
+     * @param conn The connection of the surrounding transaction
+     * @param counter The counter to change
+     * @param delta The amount to add, negative to subtract
+     * @throws SQLException If the update fails
+     */
+    static void adjust(Connection conn, Counter counter, double delta) throws SQLException {
+        if (delta == 0) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE library_stats SET value = value + ? WHERE stat_key = ?")) {
+            stmt.setDouble(1, delta);
+            stmt.setString(2, counter.name());
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Get the current value of every counter
+     *
+     * @return Map from counter to value; counters not yet created are left out
+     */
+    public Map<Counter, Double> getCounters() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        Map<Counter, Double> counters = new EnumMap<>(Counter.class);
+
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement("SELECT stat_key, value FROM library_stats");
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Counter counter = counterFor(rs.getString("stat_key"));
+                if (counter != null) {
+                    counters.put(counter, rs.getDouble("value"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading library statistics: " + e.getMessage());
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+
+        return counters;
+    }
+
+    /**
+     * Recompute every counter from its table and repair the ones that drifted.
+     * Creates the table and any missing counters first.
+     *
+     * The counter rows are locked before the tables are read, so writers wait
+     * for the reconciliation instead of adjusting a counter that is being
+     * replaced.
+     *
+     * @return The number of counters that were repaired, or -1 if reconciliation failed
+     */
+    public int reconcile() {
+        try {
+            createMissingCounters();
+            return dbConnection.inTransaction(conn -> {
+                Map<Counter, Double> stored = new EnumMap<>(Counter.class);
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT stat_key, value FROM library_stats FOR UPDATE");
+                     ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Counter counter = counterFor(rs.getString("stat_key"));
+                        if (counter != null) {
+                            stored.put(counter, rs.getDouble("value"));
+                        }
+                    }
+                }
+
+                int repaired = 0;
+                for (Counter counter : Counter.values()) {
+                    double actual = actualValue(conn, counter);
+                    double current = stored.getOrDefault(counter, 0.0);
+                    if (Math.abs(actual - current) >= TOLERANCE) {
+                        setValue(conn, counter, actual);
+                        System.err.println("Repaired drifted counter " + counter + ": stored " + current + ", actual " + actual);
+                        repaired++;
+                    }
+                }
+                return repaired;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error reconciling library statistics: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private void createMissingCounters() throws SQLException {
+        try (Connection conn = dbConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(CREATE_TABLE_SQL);
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT IGNORE INTO library_stats (stat_key, value) VALUES (?, 0)")) {
+                for (Counter counter : Counter.values()) {
+                    insert.setString(1, counter.name());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private static double actualValue(Connection conn, Counter counter) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(counter.actualValueSql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getDouble(1) : 0;
+        }
+    }
+
+    private static void setValue(Connection conn, Counter counter, double value) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE library_stats SET value = ? WHERE stat_key = ?")) {
+            stmt.setDouble(1, value);
+            stmt.setString(2, counter.name());
+            stmt.executeUpdate();
+        }
+    }
+
+    private static Counter counterFor(String key) {
+        try {
+            return Counter.valueOf(key);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
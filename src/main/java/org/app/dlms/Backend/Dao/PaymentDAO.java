@@ -1,6 +1,9 @@
 package org.app.dlms.Backend.Dao;
 
+import org.app.dlms.Backend.Model.Page;
+import org.app.dlms.Backend.Model.PageCursor;
 import org.app.dlms.Backend.Model.Payment;
+import org.app.dlms.Backend.Model.PaymentView;
 import org.app.dlms.Middleware.DatabaseConnection;
 import org.app.dlms.Middleware.Services.PasswordUtil;
 
@@ -8,6 +11,7 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object for payment-related operations
@@ -19,43 +23,39 @@ public class PaymentDAO {
         dbConnection = DatabaseConnection.getInstance();
     }
     /**
-     * Add a new payment record
+     * Add a new payment record. The payments counter is updated in the same transaction.
      * 
      * @param payment The payment to add
      * @return The ID of the newly added payment, or -1 if operation fails
      */
     public int addPayment(Payment payment) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        int generatedId = -1;
-        
         try {
-            conn = dbConnection.getConnection();
-            String sql = "INSERT INTO payments (member_id, payment_date, amount) VALUES (?, ?, ?)";
-            stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
-            
-            stmt.setInt(1, payment.getMemberId());
-            stmt.setDate(2, new java.sql.Date(payment.getPaymentDate().getTime()));
-            stmt.setDouble(3, payment.getAmount());
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                rs = stmt.getGeneratedKeys();
-                if (rs.next()) {
-                    generatedId = rs.getInt(1);
-                    payment.setId(generatedId);
+            return dbConnection.inTransaction(conn -> {
+                String sql = "INSERT INTO payments (member_id, payment_date, amount) VALUES (?, ?, ?)";
+                int generatedId = -1;
+                try (PreparedStatement stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    stmt.setInt(1, payment.getMemberId());
+                    stmt.setDate(2, new java.sql.Date(payment.getPaymentDate().getTime()));
+                    stmt.setDouble(3, payment.getAmount());
+                    
+                    if (stmt.executeUpdate() == 0) {
+                        return -1;
+                    }
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            generatedId = rs.getInt(1);
+                            payment.setId(generatedId);
+                        }
+                    }
                 }
-            }
+                LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.PAYMENTS_TOTAL, payment.getAmount());
+                return generatedId;
+            });
         } catch (SQLException e) {
             System.err.println("Error adding payment for member ID: " + payment.getMemberId());
             e.printStackTrace();
-        } finally {
-            dbConnection.closeResources(conn, stmt, rs);
+            return -1;
         }
-        
-        return generatedId;
     }
     
     /**
@@ -261,17 +261,7 @@ public class PaymentDAO {
             rs = stmt.executeQuery();
             
             while (rs.next()) {
-                Payment payment = new Payment(
-                    rs.getInt("id"),
-                    rs.getInt("member_id"),
-                    new Date(rs.getTimestamp("payment_date").getTime()),
-                    rs.getDouble("amount"),
-                    rs.getString("type") != null ? rs.getString("type") : "Subscription",
-                    rs.getString("description") != null ? rs.getString("description") : "",
-                    rs.getInt("related_record_id")
-                );
-                
-                payments.add(payment);
+                payments.add(extractPaymentFromResultSet(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving all payments");
@@ -282,4 +272,261 @@ public class PaymentDAO {
         
         return payments;
     }
+
+    /**
+     * Pass every payment to the consumer, in ID order, without loading the whole
+     * table into memory. Rows are streamed from the server one at a time.
+     * 
+     * @param consumer Receives each payment
+     * @return The number of payments passed to the consumer
+     */
+    public long streamAll(Consumer<Payment> consumer) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        long count = 0;
+        
+        try {
+            conn = dbConnection.getConnection();
+            // Fixed column order so rows are read by index, not by name
+            String sql = "SELECT id, member_id, payment_date, amount, type, description, related_record_id " +
+                         "FROM payments ORDER BY id";
+            stmt = StreamingQueries.prepare(conn, sql);
+            rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                String type = rs.getString(5);
+                String description = rs.getString(6);
+                consumer.accept(new Payment(
+                    rs.getInt(1),
+                    rs.getInt(2),
+                    new Date(rs.getTimestamp(3).getTime()),
+                    rs.getDouble(4),
+                    type != null ? type : "Subscription",
+                    description != null ? description : "",
+                    rs.getInt(7)
+                ));
+                count++;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error streaming payments after " + count + " rows");
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return count;
+    }
+
+    /**
+     * Get one page of payments, most recent first, using keyset pagination
+     * 
+     * @param after Cursor of the previous page, or null for the first page
+     * @param pageSize Maximum number of payments on the page
+     * @return The page of payments
+     */
+    public Page<Payment> getPaymentsPage(PageCursor after, int pageSize) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Payment> payments = new ArrayList<>();
+        
+        try {
+            conn = dbConnection.getConnection();
+            String sql = "SELECT * FROM payments" +
+                         (after == null ? "" : " WHERE payment_date < ? OR (payment_date = ? AND id < ?)") +
+                         " ORDER BY payment_date DESC, id DESC LIMIT ?";
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (after != null) {
+                java.sql.Date paymentDate = new java.sql.Date(after.getSortDate().getTime());
+                stmt.setDate(index++, paymentDate);
+                stmt.setDate(index++, paymentDate);
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, KeysetPages.limitFor(pageSize));
+            rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                payments.add(extractPaymentFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving page of payments after " + after);
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return KeysetPages.toPage(payments, pageSize,
+                payment -> PageCursor.after(payment.getPaymentDate(), payment.getId()));
+    }
+
+    /**
+     * Get one page of payments and fines together, most recent first, using keyset pagination.
+     * 
+     * Payment and fine ids overlap, so rows are ordered and paged by a row key that keeps
+     * them apart: twice the id for a payment, twice the id plus one for a fine. Each side
+     * of the union reads at most one page past the cursor before the two are merged.
+     * 
+     * @param memberId Only payments and fines of this member, or null for all members
+     * @param type "Subscription" or "Fine" to show only that type, or null for both
+     * @param searchText Text to match against the member name and description, or null
+     * @param after Cursor of the previous page, or null for the first page
+     * @param pageSize Maximum number of rows on the page
+     * @return The page of payments and fines
+     */
+    public Page<PaymentView> getPaymentsAndFinesPage(Integer memberId, String type, String searchText,
+                                                          PageCursor after, int pageSize) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<PaymentView> rows = new ArrayList<>();
+        int limit = KeysetPages.limitFor(pageSize);
+        String pattern = searchText == null || searchText.trim().isEmpty()
+                ? null : "%" + escapeLike(searchText.trim()) + "%";
+
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "(SELECT p.id, p.id * 2 AS row_key, p.member_id, COALESCE(u.name, 'Unknown User') AS user_name, " +
+                "p.amount, p.type, p.payment_date AS entry_date, 'Paid' AS status, p.description, " +
+                "p.related_record_id, FALSE AS fine " +
+                "FROM payments p LEFT JOIN users u ON u.id = p.member_id WHERE 1 = 1");
+        appendLedgerFilters(sql, params, "p.member_id", "p.description", "p.payment_date", "p.id * 2",
+                memberId, pattern, after);
+        if (type != null) {
+            sql.append(" AND p.type = ?");
+            params.add(type);
+        }
+        sql.append(" ORDER BY entry_date DESC, row_key DESC LIMIT ?)");
+        params.add(limit);
+
+        if (type == null || "Fine".equals(type)) {
+            String fineDate = "COALESCE(br.return_date, br.due_date)";
+            sql.insert(0, "SELECT * FROM (");
+            sql.append(" UNION ALL " +
+                       "(SELECT f.id, f.id * 2 + 1 AS row_key, f.member_id, COALESCE(u.name, 'Unknown User') AS user_name, " +
+                       "f.amount, 'Fine' AS type, " + fineDate + " AS entry_date, " +
+                       "CASE WHEN f.paid THEN 'Paid' ELSE 'Pending' END AS status, " +
+                       "'Fine for book return delay' AS description, f.borrow_record_id AS related_record_id, " +
+                       "TRUE AS fine " +
+                       "FROM fines f " +
+                       "JOIN borrow_records br ON br.id = f.borrow_record_id " +
+                       "LEFT JOIN users u ON u.id = f.member_id WHERE 1 = 1");
+            appendLedgerFilters(sql, params, "f.member_id", "'Fine for book return delay'", fineDate,
+                    "f.id * 2 + 1", memberId, pattern, after);
+            sql.append(" ORDER BY entry_date DESC, row_key DESC LIMIT ?)");
+            params.add(limit);
+            sql.append(") ledger ORDER BY entry_date DESC, row_key DESC LIMIT ?");
+            params.add(limit);
+        }
+
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                rows.add(new PaymentView(
+                        rs.getInt("id"),
+                        rs.getInt("member_id"),
+                        rs.getDate("entry_date"),
+                        rs.getDouble("amount"),
+                        rs.getString("type"),
+                        rs.getString("description"),
+                        rs.getInt("related_record_id"),
+                        rs.getString("user_name"),
+                        rs.getString("status"),
+                        rs.getBoolean("fine")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving page of payments and fines after " + after);
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return KeysetPages.toPage(rows, pageSize,
+                row -> PageCursor.after(row.getPaymentDate(), row.getId() * 2 + (row.isFine() ? 1 : 0)));
+    }
+
+    // Member, search and cursor conditions shared by both sides of the payments and fines union
+    private void appendLedgerFilters(StringBuilder sql, List<Object> params, String memberColumn,
+                                     String descriptionColumn, String dateColumn, String rowKey,
+                                     Integer memberId, String pattern, PageCursor after) {
+        if (memberId != null) {
+            sql.append(" AND ").append(memberColumn).append(" = ?");
+            params.add(memberId);
+        }
+        if (pattern != null) {
+            sql.append(" AND (u.name LIKE ? ESCAPE '!' OR ").append(descriptionColumn).append(" LIKE ? ESCAPE '!')");
+            params.add(pattern);
+            params.add(pattern);
+        }
+        if (after != null) {
+            java.sql.Date sortDate = new java.sql.Date(after.getSortDate().getTime());
+            sql.append(" AND (").append(dateColumn).append(" < ? OR (").append(dateColumn).append(" = ? AND ")
+               .append(rowKey).append(" < ?))");
+            params.add(sortDate);
+            params.add(sortDate);
+            params.add(after.getId());
+        }
+    }
+
+    /**
+     * Escape LIKE wildcards so the search text is matched literally
+     */
+    private String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    /**
+     * Get the total number of payments
+     * 
+     * @return The number of payment records
+     */
+    public int getPaymentCount() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        int count = 0;
+        
+        try {
+            conn = dbConnection.getConnection();
+            stmt = conn.prepareStatement("SELECT COUNT(*) AS total FROM payments");
+            rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                count = rs.getInt("total");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting payments");
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+        
+        return count;
+    }
+
+    /**
+     * Create a Payment from the current row of a payments query
+     * 
+     * @param rs The result set positioned on a row
+     * @return The payment
+     * @throws SQLException If a column can not be read
+     */
+    private Payment extractPaymentFromResultSet(ResultSet rs) throws SQLException {
+        return new Payment(
+            rs.getInt("id"),
+            rs.getInt("member_id"),
+            new Date(rs.getTimestamp("payment_date").getTime()),
+            rs.getDouble("amount"),
+            rs.getString("type") != null ? rs.getString("type") : "Subscription",
+            rs.getString("description") != null ? rs.getString("description") : "",
+            rs.getInt("related_record_id")
+        );
+    }
 }
\ No newline at end of file
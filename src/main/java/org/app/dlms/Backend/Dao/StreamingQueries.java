@@ -0,0 +1,38 @@
+package org.app.dlms.Backend.Dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Statements for full-table passes that must not hold the whole result in memory.
+ *
+ * With a forward-only, read-only statement and a fetch size of Integer.MIN_VALUE
+ * MySQL Connector/J streams rows one at a time instead of buffering the complete
+ * result set on the client. While such a result is open no other statement may
+ * run on the same connection, so streaming DAO methods use their own connection
+ * and the row consumer should not rely on reusing it.
+ */
+final class StreamingQueries {
+
+    /** Connector/J's marker for row-by-row streaming */
+    static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private StreamingQueries() {
+    }
+
+    /**
+     * Prepare a statement whose results are streamed from the server
+     *
+     * @param conn The connection to use exclusively for this query
+     * @param sql The query
+     * @return The prepared statement
+     * @throws SQLException If the statement can not be prepared
+     */
+    static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(STREAMING_FETCH_SIZE);
+        return stmt;
+    }
+}
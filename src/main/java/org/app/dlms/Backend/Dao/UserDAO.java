@@ -1,9 +1,12 @@
 package org.app.dlms.Backend.Dao;
 
 import org.app.dlms.Backend.Model.*;
+import org.app.dlms.Middleware.Cache.EntityCache;
+import org.app.dlms.Middleware.Cache.EntityCaches;
 import org.app.dlms.Middleware.DatabaseConnection;
 import org.app.dlms.Middleware.Enums.MembershipType;
 import org.app.dlms.Middleware.Enums.UserRole;
+import org.app.dlms.Middleware.Search.TextNormalizer;
 import org.app.dlms.Middleware.Services.PasswordUtil;
 
 import java.sql.Connection;
@@ -11,20 +14,34 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Data Access Object for Book entities
  */
 public class UserDAO {
 
+    // Most users a search returns
+    public static final int MAX_SEARCH_RESULTS = 1000;
+
+    // Shared so the dummy hash used for unknown usernames is made only once
+    private static final PasswordUtil PASSWORD_UTIL = new PasswordUtil();
+
     private  PasswordUtil passwordUtil;
     private DatabaseConnection dbConnection;
+    private final EntityCache<Integer, User> userCache;
+    private final EntityCache<String, Boolean> unknownUsernames;
 
     public UserDAO() {
-        this.passwordUtil = new PasswordUtil();
+        this.passwordUtil = PASSWORD_UTIL;
         dbConnection = DatabaseConnection.getInstance();
+        userCache = EntityCaches.getInstance().users();
+        unknownUsernames = EntityCaches.getInstance().unknownUsernames();
     }
     /**
      * Add a new user to the system
@@ -97,6 +114,15 @@ public class UserDAO {
         ResultSet rs = null;
         int generatedId = -1;
 
+        // Hash the password before storing it, and before taking a connection as hashing is slow
+        String hashedPassword;
+        try {
+            hashedPassword = passwordUtil.hashPassword(user.getPassword());
+        } catch (RejectedExecutionException e) {
+            System.err.println("Error adding user: " + user.getUsername() + ": " + e.getMessage());
+            return -1;
+        }
+
         try {
             conn = dbConnection.getConnection();
             conn.setAutoCommit(false); // Start transaction
@@ -105,9 +131,6 @@ public class UserDAO {
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
             stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
 
-            // Hash the password before storing it
-            String hashedPassword = passwordUtil.hashPassword(user.getPassword());
-
             stmt.setString(1, user.getUsername());
             stmt.setString(2, hashedPassword);
             stmt.setString(3, user.getName());
@@ -146,6 +169,7 @@ public class UserDAO {
                         paymentStmt.setDate(2, new java.sql.Date(System.currentTimeMillis())); // Current date
                         paymentStmt.setDouble(3, member.getMembershipFee());
                         paymentStmt.executeUpdate();
+                        LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.PAYMENTS_TOTAL, member.getMembershipFee());
 
                         // Create Payment object for record keeping
                         Payment payment = new Payment(
@@ -163,6 +187,7 @@ public class UserDAO {
                     }
                 }
 
+                LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.forRole(role), 1);
                 conn.commit(); // Commit transaction
             }
         } catch (SQLException e) {
@@ -200,70 +225,105 @@ public class UserDAO {
             }
             dbConnection.closeResources(conn, stmt, rs);
         }
+        unknownUsernames.invalidate(user.getUsername());
+        if (generatedId > 0) {
+            UserSearchIndex.getInstance().put(user);
+        }
 
         return generatedId;
     }
 
     /**
-     * Get a book by its ISBN
+     * Log a user in. Only the credential columns are read until the password
+     * has been verified; the profile then comes from getUserById. Usernames
+     * without an account are remembered for a short time so repeated attempts
+     * do not reach the database. They are still checked against a dummy hash,
+     * so an unknown username takes as long to reject as a wrong password.
      *
-     * @param username The ISBN of the book
-     * @return The book if found, null otherwise
+     * @param username The username entered
+     * @param password The plain text password entered
+     * @return The logged in user, or null if the credentials are wrong
+     * @throws RejectedExecutionException If the server is too busy to check the password; try again later
      */
     public User login(String username, String password) {
+        if (username == null || unknownUsernames.getIfPresent(username) != null) {
+            passwordUtil.verifyAgainstDummy(password);
+            return null;
+        }
+
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        User user = null;
+        int id = -1;
+        String storedHashedPassword = null;
 
         try {
             conn = dbConnection.getConnection();
-            String sql = "SELECT * FROM users WHERE username = ?";
+            String sql = "SELECT id, role, password FROM users WHERE username = ?";
             stmt = conn.prepareStatement(sql);
             stmt.setString(1, username);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                // Get the stored hashed password from the database
-                String storedHashedPassword = rs.getString("password");
-                String name = rs.getString("name");
-                String email = rs.getString("email");
-                String gender = rs.getString("gender");
-                String address = rs.getString("address");
-                String phone = rs.getString("phone");
-                UserRole role = UserRole.valueOf(rs.getString("role"));
-                int id = rs.getInt("id");
-//                String username = rs.getString("username");
-
-                // Verify the provided password against the stored hash
-                if (this.passwordUtil.verifyPassword(password, storedHashedPassword)) {
-                    System.out.println("User logged in");
-                    // Create the User object using retrieved data
-                    switch (role){
-                        case Admin:
-                            return new Admin( id, username, "***",  name, email,
-                                    gender,  address, phone);
-                        case Librarian:
-                            return new Librarian( id, username, "***",  name, email,
-                                    gender,  address, phone);
-                        case Member:
-                            return new Member( id, username, "***",  name, email,
-                                    gender,  address, phone);
-                    }
-                    return null;
-
-                } else {
-
-                    throw new SQLException("Wrong username or password");
-                }
+                id = rs.getInt("id");
+                UserRole.valueOf(rs.getString("role")); // Reject accounts with an unknown role
+                storedHashedPassword = rs.getString("password");
+            } else {
+                unknownUsernames.put(username, Boolean.TRUE);
             }
-        } catch (SQLException e) {
+        } catch (SQLException | IllegalArgumentException e) {
             System.err.println("Error logging in user: " + username);
             e.printStackTrace();
         } finally {
             dbConnection.closeResources(conn, stmt, rs);
         }
-        return null;
+
+        // Verify the provided password against the stored hash
+        if (storedHashedPassword == null) {
+            passwordUtil.verifyAgainstDummy(password);
+            System.err.println("Error logging in user: " + username + ": wrong username or password");
+            return null;
+        }
+        if (!passwordUtil.verifyPassword(password, storedHashedPassword)) {
+            System.err.println("Error logging in user: " + username + ": wrong username or password");
+            return null;
+        }
+        if (passwordUtil.needsRehash(storedHashedPassword)) {
+            rehashPassword(id, password, storedHashedPassword);
+        }
+        System.out.println("User logged in");
+        return getUserById(id);
+    }
+
+    /**
+     * Replace a legacy or outdated password hash after a successful login.
+     * The update only applies if the stored hash is still the one that was
+     * verified, so a concurrent password change is never overwritten.
+     *
+     * @param userId The ID of the user
+     * @param password The verified plain text password
+     * @param oldHash The hash the password was verified against
+     */
+    private void rehashPassword(int userId, String password, String oldHash) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            String newHash = passwordUtil.hashPassword(password);
+            conn = dbConnection.getConnection();
+            String sql = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+            stmt = conn.prepareStatement(sql);
+            stmt.setString(1, newHash);
+            stmt.setInt(2, userId);
+            stmt.setString(3, oldHash);
+            stmt.executeUpdate();
+        } catch (SQLException | RuntimeException e) {
+            // The old hash still works, so the upgrade is retried at the next login
+            System.err.println("Error rehashing password for user ID: " + userId);
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, null);
+        }
     }
     private   MembershipType membershipTypeFromString(String text) {
         if (text == null || text.isEmpty()) {
@@ -295,32 +355,10 @@ public class UserDAO {
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                int id = rs.getInt("id");
-                String username = rs.getString("username");
-                String name = rs.getString("name");
-                String email = rs.getString("email");
-                String gender = rs.getString("gender");
-                String address = rs.getString("address");
-                String phone = rs.getString("phone");
-                MembershipType membershipType = membershipTypeFromString(rs.getString("membership_type"));
-                UserRole role = UserRole.valueOf(rs.getString("role"));
-
-                // Create user object based on role
-                User user;
-                switch (role) {
-                    case Admin:
-                        user = new Admin(id, username, "***", name, email, gender, address, phone);
-                        break;
-                    case Librarian:
-                        user = new Librarian(id, username, "***", name, email, gender, address, phone);
-                        break;
-                    case Member:
-                        user = new Member(id, username, "***", name, email, gender, address, phone,membershipType);
-                        break;
-                    default:
-                        continue; // Skip unrecognized roles
+                User user = extractListedUserFromResultSet(rs);
+                if (user != null) {
+                    users.add(user);
                 }
-                users.add(user);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving all users");
@@ -333,12 +371,160 @@ public class UserDAO {
     }
 
     /**
-     * Search for users by name, email, or phone
+     * Get one page of users, newest first, using keyset pagination
+     *
+     * @param after Cursor of the previous page, or null for the first page
+     * @param pageSize Maximum number of users on the page
+     * @return The page of users
+     */
+    public Page<User> getUsersPage(PageCursor after, int pageSize) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<User> users = new ArrayList<>();
+
+        try {
+            conn = dbConnection.getConnection();
+            String sql = after == null
+                    ? "SELECT * FROM users ORDER BY id DESC LIMIT ?"
+                    : "SELECT * FROM users WHERE id < ? ORDER BY id DESC LIMIT ?";
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (after != null) {
+                stmt.setInt(index++, after.getId());
+            }
+            stmt.setInt(index, KeysetPages.limitFor(pageSize));
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                User user = extractListedUserFromResultSet(rs);
+                if (user != null) {
+                    users.add(user);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving page of users after " + after);
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+
+        return KeysetPages.toPage(users, pageSize, user -> PageCursor.afterId(user.getId()));
+    }
+
+    /**
+     * Search for users by ID, phone number, email, or name and username.
+     * The search text decides which index answers it (see UserSearchPlan):
+     * IDs, phone numbers and email addresses are looked up in their database
+     * indexes, other text in the token index, which ranks the best matches
+     * first and tolerates misspelled names. Until the schema migration has
+     * added those indexes, IDs, phone numbers and text the token index can
+     * not answer yet are matched anywhere in the searchable columns instead.
      *
      * @param searchTerm The search term
      * @return List of users matching the search term
      */
     public List<User> searchUsers(String searchTerm) {
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return getAllUsers();
+        }
+
+        UserSearchPlan plan = UserSearchPlan.of(searchTerm);
+        if (!dbConnection.isSchemaCurrent()
+                && (plan.getKind() == UserSearchPlan.Kind.ID || plan.getKind() == UserSearchPlan.Kind.PHONE)) {
+            // Both look up phone_digits, which the schema migration adds to an older database
+            return searchUsersByLike(searchTerm.trim());
+        }
+
+        List<User> users = null;
+        switch (plan.getKind()) {
+            case ID:
+                users = findUsers("SELECT *, 0 AS match_rank FROM users WHERE id = ? " +
+                        "UNION ALL SELECT *, 1 AS match_rank FROM users WHERE phone_digits LIKE ? AND id <> ? " +
+                        "ORDER BY match_rank, phone_digits LIMIT ?", plan,
+                        Integer.parseInt(plan.getValue()), plan.getPrefixPattern(), Integer.parseInt(plan.getValue()));
+                break;
+            case PHONE:
+                users = findUsers("SELECT * FROM users WHERE phone_digits LIKE ? ORDER BY phone_digits LIMIT ?", plan,
+                        plan.getPrefixPattern());
+                break;
+            case EMAIL:
+                users = findUsers("SELECT * FROM users WHERE email LIKE ? ORDER BY email LIMIT ?", plan,
+                        plan.getPrefixPattern());
+                break;
+            default:
+                break;
+        }
+        // Free text, or a database without the lookup indexes yet
+        return users != null ? users : searchUsersByText(plan.getValue());
+    }
+
+    /**
+     * Whether the results of one search text still hold every match of a
+     * longer one, so they can be filtered in memory instead of searching
+     * again. Only true when both are free text: an ID is matched exactly,
+     * and phone numbers and email addresses by other rules than the word
+     * prefixes used for filtering, e.g. "1" finds user 1 but "12" does not.
+     *
+     * @param previous The earlier search text
+     * @param next The longer search text, starting with the earlier one
+     * @return True if the earlier results may be narrowed down
+     */
+    public static boolean canNarrowSearch(String previous, String next) {
+        return UserSearchPlan.of(previous).getKind() == UserSearchPlan.Kind.TEXT
+                && UserSearchPlan.of(next).getKind() == UserSearchPlan.Kind.TEXT;
+    }
+
+    private List<User> searchUsersByText(String text) {
+        UserSearchIndex index = UserSearchIndex.getInstance();
+        if (!index.isLoaded()) {
+            return dbConnection.isSchemaCurrent() ? searchUsersByFullText(text) : searchUsersByLike(text);
+        }
+
+        List<Integer> ids = index.search(text, MAX_SEARCH_RESULTS);
+        Map<Integer, User> found = loadListedUsersByIds(ids);
+        List<User> users = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            User user = found.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    // Until the token index is loaded, the FULLTEXT index answers word prefixes
+    private List<User> searchUsersByFullText(String text) {
+        StringBuilder words = new StringBuilder();
+        for (String term : TextNormalizer.tokenize(text)) {
+            words.append('+').append(term).append("* ");
+        }
+        if (words.length() == 0) {
+            return new ArrayList<>();
+        }
+        List<User> users = findUsers("SELECT * FROM users WHERE MATCH (name, username, email) " +
+                "AGAINST (? IN BOOLEAN MODE) LIMIT ?", UserSearchPlan.of(text), words.toString().trim());
+        return users != null ? users : new ArrayList<>();
+    }
+
+    // Scan every searchable column, for a database the schema migration has not updated yet
+    private List<User> searchUsersByLike(String text) {
+        String pattern = UserSearchPlan.containsPattern(text);
+        List<User> users = findUsers("SELECT * FROM users WHERE name LIKE ? OR email LIKE ? OR phone LIKE ? " +
+                "OR username LIKE ? OR id LIKE ? LIMIT ?", UserSearchPlan.of(text),
+                pattern, pattern, pattern, pattern, pattern);
+        return users != null ? users : new ArrayList<>();
+    }
+
+    /**
+     * Run one of the planned user searches
+     *
+     * @param sql The query; its last parameter is the row limit
+     * @param plan The plan, for error messages
+     * @param params The parameters before the limit
+     * @return The users found, or null if the query failed
+     */
+    private List<User> findUsers(String sql, UserSearchPlan plan, Object... params) {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -346,49 +532,23 @@ public class UserDAO {
 
         try {
             conn = dbConnection.getConnection();
-            String sql = "SELECT * FROM users WHERE name LIKE ? OR email LIKE ? OR phone LIKE ? OR username LIKE ? OR id LIKE ?";
             stmt = conn.prepareStatement(sql);
-
-            String searchPattern = "%" + searchTerm + "%";
-            stmt.setString(1, searchPattern);
-            stmt.setString(2, searchPattern);
-            stmt.setString(3, searchPattern);
-            stmt.setString(4, searchPattern);
-            stmt.setString(5, searchPattern);
-
+            int index = 1;
+            for (Object param : params) {
+                stmt.setObject(index++, param);
+            }
+            stmt.setInt(index, MAX_SEARCH_RESULTS);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                int id = rs.getInt("id");
-                String username = rs.getString("username");
-                String name = rs.getString("name");
-                String email = rs.getString("email");
-                String gender = rs.getString("gender");
-                String address = rs.getString("address");
-                String phone = rs.getString("phone");
-                MembershipType membershipType = membershipTypeFromString(rs.getString("membership_type"));
-                UserRole role = UserRole.valueOf(rs.getString("role"));
-
-                // Create user object based on role
-                User user;
-                switch (role) {
-                    case Admin:
-                        user = new Admin(id, username, "***", name, email, gender, address, phone);
-                        break;
-                    case Librarian:
-                        user = new Librarian(id, username, "***", name, email, gender, address, phone);
-                        break;
-                    case Member:
-                        user = new Member(id, username, "***", name, email, gender, address, phone,membershipType);
-                        break;
-                    default:
-                        continue; // Skip unrecognized roles
+                User user = extractListedUserFromResultSet(rs);
+                if (user != null) {
+                    users.add(user);
                 }
-                users.add(user);
             }
         } catch (SQLException e) {
-            System.err.println("Error searching for users with term: " + searchTerm);
-            e.printStackTrace();
+            System.err.println("Error searching for users with plan " + plan + ": " + e.getMessage());
+            return null;
         } finally {
             dbConnection.closeResources(conn, stmt, rs);
         }
@@ -417,10 +577,23 @@ public class UserDAO {
             PreparedStatement checkRoleStmt = conn.prepareStatement(checkRoleSql);
             checkRoleStmt.setInt(1, userId);
             ResultSet rs = checkRoleStmt.executeQuery();
+            String role = null;
 
             if (rs.next()) {
-                String role = rs.getString("role");
+                role = rs.getString("role");
                 if (UserRole.Member.toString().equals(role)) {
+                    // Take the member's payments off the payments counter before deleting them
+                    String paymentsSumSql = "SELECT COALESCE(SUM(amount), 0) AS total FROM payments WHERE member_id = ?";
+                    PreparedStatement paymentsSumStmt = conn.prepareStatement(paymentsSumSql);
+                    paymentsSumStmt.setInt(1, userId);
+                    ResultSet paymentsSumRs = paymentsSumStmt.executeQuery();
+                    if (paymentsSumRs.next()) {
+                        LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.PAYMENTS_TOTAL,
+                                -paymentsSumRs.getDouble("total"));
+                    }
+                    paymentsSumRs.close();
+                    paymentsSumStmt.close();
+
                     // Delete payment records
                     String deletePaymentsSql = "DELETE FROM payments WHERE member_id = ?";
                     PreparedStatement deletePaymentsStmt = conn.prepareStatement(deletePaymentsSql);
@@ -448,6 +621,7 @@ public class UserDAO {
             success = (affectedRows > 0);
 
             if (success) {
+                LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.forRole(UserRole.valueOf(role)), -1);
                 conn.commit(); // Commit transaction
             } else {
                 conn.rollback(); // Rollback transaction
@@ -478,6 +652,10 @@ public class UserDAO {
 
             dbConnection.closeResources(conn, stmt, null);
         }
+        userCache.invalidate(userId);
+        if (success) {
+            UserSearchIndex.getInstance().remove(userId);
+        }
 
         return success;
     }
@@ -515,6 +693,11 @@ public class UserDAO {
         } finally {
             dbConnection.closeResources(conn, stmt, null);
         }
+        userCache.invalidate(user.getId());
+        unknownUsernames.invalidate(user.getUsername());
+        if (success) {
+            UserSearchIndex.getInstance().put(user);
+        }
 
         return success;
     }
@@ -526,6 +709,10 @@ public class UserDAO {
      * @return The user if found, null otherwise
      */
     public User getUserById(int userId) {
+        return userCache.get(userId, this::loadUserById);
+    }
+
+    private User loadUserById(int userId) {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -539,27 +726,7 @@ public class UserDAO {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                int id = rs.getInt("id");
-                String username = rs.getString("username");
-                String name = rs.getString("name");
-                String email = rs.getString("email");
-                String gender = rs.getString("gender");
-                String address = rs.getString("address");
-                String phone = rs.getString("phone");
-                UserRole role = UserRole.valueOf(rs.getString("role"));
-
-                // Create user object based on role
-                switch (role) {
-                    case Admin:
-                        user = new Admin(id, username, "***", name, email, gender, address, phone);
-                        break;
-                    case Librarian:
-                        user = new Librarian(id, username, "***", name, email, gender, address, phone);
-                        break;
-                    case Member:
-                        user = new Member(id, username, "***", name, email, gender, address, phone);
-                        break;
-                }
+                user = extractUserFromResultSet(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving user with ID: " + userId);
@@ -571,6 +738,158 @@ public class UserDAO {
         return user;
     }
 
+    /**
+     * Get several users by their IDs using chunked IN queries
+     *
+     * @param userIds The IDs of the users
+     * @return Map from user ID to user; IDs that do not exist are left out
+     */
+    public Map<Integer, User> getUsersByIds(Collection<Integer> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return userCache.getAll(userIds, this::loadUsersByIds);
+    }
+
+    private Map<Integer, User> loadUsersByIds(Collection<Integer> userIds) {
+        Map<Integer, User> users = new HashMap<>();
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            for (int[] chunk : IdBatches.chunks(userIds)) {
+                String sql = "SELECT * FROM users WHERE id IN (" + IdBatches.placeholders(chunk.length) + ")";
+                stmt = conn.prepareStatement(sql);
+                for (int i = 0; i < chunk.length; i++) {
+                    stmt.setInt(i + 1, chunk[i]);
+                }
+                rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    User user = extractUserFromResultSet(rs);
+                    if (user != null) {
+                        users.put(user.getId(), user);
+                    }
+                }
+                rs.close();
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving users by IDs");
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+
+        return users;
+    }
+
+    // Like loadUsersByIds, but with the membership type the user lists show; not cached
+    private Map<Integer, User> loadListedUsersByIds(Collection<Integer> userIds) {
+        Map<Integer, User> users = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return users;
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbConnection.getConnection();
+            for (int[] chunk : IdBatches.chunks(userIds)) {
+                String sql = "SELECT * FROM users WHERE id IN (" + IdBatches.placeholders(chunk.length) + ")";
+                stmt = conn.prepareStatement(sql);
+                for (int i = 0; i < chunk.length; i++) {
+                    stmt.setInt(i + 1, chunk[i]);
+                }
+                rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    User user = extractListedUserFromResultSet(rs);
+                    if (user != null) {
+                        users.put(user.getId(), user);
+                    }
+                }
+                rs.close();
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving listed users by IDs");
+            e.printStackTrace();
+        } finally {
+            dbConnection.closeResources(conn, stmt, rs);
+        }
+
+        return users;
+    }
+
+    /**
+     * Create a user for the user lists: like extractUserFromResultSet, but members
+     * also get their membership type. The password is masked.
+     *
+     * @param rs The result set positioned on a row
+     * @return The user, or null if the role is unknown
+     * @throws SQLException If a column can not be read
+     */
+    private User extractListedUserFromResultSet(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        String username = rs.getString("username");
+        String name = rs.getString("name");
+        String email = rs.getString("email");
+        String gender = rs.getString("gender");
+        String address = rs.getString("address");
+        String phone = rs.getString("phone");
+        MembershipType membershipType = membershipTypeFromString(rs.getString("membership_type"));
+        UserRole role = UserRole.valueOf(rs.getString("role"));
+
+        // Create user object based on role
+        switch (role) {
+            case Admin:
+                return new Admin(id, username, "***", name, email, gender, address, phone);
+            case Librarian:
+                return new Librarian(id, username, "***", name, email, gender, address, phone);
+            case Member:
+                return new Member(id, username, "***", name, email, gender, address, phone, membershipType);
+            default:
+                return null; // Skip unrecognized roles
+        }
+    }
+
+    /**
+     * Create a user of the matching role from the current row of a users query.
+     * The password is masked.
+     *
+     * @param rs The result set positioned on a row
+     * @return The user, or null if the role is unknown
+     * @throws SQLException If a column can not be read
+     */
+    private User extractUserFromResultSet(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        String username = rs.getString("username");
+        String name = rs.getString("name");
+        String email = rs.getString("email");
+        String gender = rs.getString("gender");
+        String address = rs.getString("address");
+        String phone = rs.getString("phone");
+        UserRole role = UserRole.valueOf(rs.getString("role"));
+
+        // Create user object based on role
+        switch (role) {
+            case Admin:
+                return new Admin(id, username, "***", name, email, gender, address, phone);
+            case Librarian:
+                return new Librarian(id, username, "***", name, email, gender, address, phone);
+            case Member:
+                return new Member(id, username, "***", name, email, gender, address, phone);
+            default:
+                return null;
+        }
+    }
+
     /**
      * Get membership details for a member
      *
@@ -666,6 +985,7 @@ public class UserDAO {
 
             // Commit transaction if both operations were successful
             if (paymentResult > 0 && memberResult > 0) {
+                LibraryStatsDAO.adjust(conn, LibraryStatsDAO.Counter.PAYMENTS_TOTAL, amount);
                 conn.commit();
                 success = true;
             } else {
@@ -694,6 +1014,9 @@ public class UserDAO {
             dbConnection.closeResources(conn, paymentStmt, null);
             dbConnection.closeResources(null, memberStmt, null);
         }
+        userCache.invalidate(memberId);
+        // The borrow limit depends on the membership type
+        EntityCaches.getInstance().loanSummaries().invalidate(memberId);
 
         return success;
     }
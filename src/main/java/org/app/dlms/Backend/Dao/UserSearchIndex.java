@@ -0,0 +1,119 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Model.User;
+import org.app.dlms.Middleware.DatabaseConnection;
+import org.app.dlms.Middleware.Search.InvertedIndex;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory full-text index over the ID, name, username, email and phone
+ * number of every user, used by the user search boxes.
+ *
+ * Works like BookSearchIndex: built once at startup, kept up to date by
+ * UserDAO after each write, and a query that matches nothing is retried
+ * allowing a typing mistake or two per word within search.fuzzy.budget
+ * milliseconds, so a misspelled surname still finds the member.
+ */
+public final class UserSearchIndex {
+
+    private static final UserSearchIndex INSTANCE = new UserSearchIndex();
+
+    // Field weights, in the order the fields are passed to the index
+    private static final float ID_WEIGHT = 4;
+    private static final float NAME_WEIGHT = 4;
+    private static final float USERNAME_WEIGHT = 3;
+    private static final float EMAIL_WEIGHT = 2;
+    private static final float PHONE_WEIGHT = 2;
+
+    private static final long DEFAULT_FUZZY_BUDGET = 20;
+
+    private final long fuzzyBudgetNanos;
+    private volatile InvertedIndex index;
+
+    private UserSearchIndex() {
+        fuzzyBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, DatabaseConnection.getInstance()
+                .getLongProperty("search.fuzzy.budget", DEFAULT_FUZZY_BUDGET)));
+    }
+
+    /**
+     * Get the singleton instance
+     *
+     * @return The user search index
+     */
+    public static UserSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Build the index from the users table, e.g. at application startup
+     *
+     * @return The number of users indexed
+     */
+    public synchronized long load() {
+        InvertedIndex loaded = newIndex();
+        List<User> users = new UserDAO().getAllUsers();
+        for (User user : users) {
+            add(loaded, user);
+        }
+        index = loaded;
+        return users.size();
+    }
+
+    /**
+     * @return True once the index has been built
+     */
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    /**
+     * Find the users matching every word of a query, allowing typing
+     * mistakes if nothing matches exactly
+     *
+     * @param query The text typed by the user
+     * @param limit The maximum number of IDs to return
+     * @return User IDs, best match first; empty if the index is not loaded
+     */
+    public List<Integer> search(String query, int limit) {
+        InvertedIndex current = index;
+        if (current == null) {
+            return List.of();
+        }
+        List<Integer> ids = current.search(query, limit);
+        return ids.isEmpty() ? current.searchFuzzy(query, limit, fuzzyBudgetNanos) : ids;
+    }
+
+    /**
+     * Add or replace a user just written to the database
+     *
+     * @param user The user as stored, with its ID
+     */
+    synchronized void put(User user) {
+        if (index == null || user == null || user.getId() <= 0) {
+            return; // Not loaded yet; the first load reads the change from the database
+        }
+        add(index, user);
+    }
+
+    /**
+     * Remove a user just deleted from the database
+     *
+     * @param id The ID of the deleted user
+     */
+    synchronized void remove(int id) {
+        if (index != null) {
+            index.remove(id);
+        }
+    }
+
+    private static InvertedIndex newIndex() {
+        return new InvertedIndex(ID_WEIGHT, NAME_WEIGHT, USERNAME_WEIGHT, EMAIL_WEIGHT, PHONE_WEIGHT);
+    }
+
+    private static void add(InvertedIndex index, User user) {
+        index.put(user.getId(), String.valueOf(user.getId()), user.getName(), user.getUsername(),
+                user.getEmail(), user.getPhone());
+    }
+}
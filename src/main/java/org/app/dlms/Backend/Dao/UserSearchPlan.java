@@ -0,0 +1,111 @@
+package org.app.dlms.Backend.Dao;
+
+/**
+ * Decides how a user search is answered, from what the search text looks like.
+ *
+ * Instead of one LIKE '%term%' over every column, which can not use an index,
+ * each kind of input goes to the one lookup that can answer it:
+ * <ul>
+ *   <li>ID: digits only; exact match on the primary key, plus phone numbers
+ *       starting with those digits, as a short number may be either</li>
+ *   <li>PHONE: digits with phone punctuation such as +, -, spaces or
+ *       parentheses; prefix range on the phone digits index</li>
+ *   <li>EMAIL: contains @; prefix range on the email index</li>
+ *   <li>TEXT: anything else; the token index over names, usernames and emails</li>
+ * </ul>
+ */
+final class UserSearchPlan {
+
+    enum Kind {
+        ID, PHONE, EMAIL, TEXT
+    }
+
+    // A phone prefix shorter than this matches too many numbers to be useful on its own
+    private static final int MIN_PHONE_DIGITS = 3;
+
+    private final Kind kind;
+    private final String value;
+
+    private UserSearchPlan(Kind kind, String value) {
+        this.kind = kind;
+        this.value = value;
+    }
+
+    /**
+     * Plan the search for a search text
+     *
+     * @param searchTerm The text typed by the user, not blank
+     * @return The plan
+     */
+    static UserSearchPlan of(String searchTerm) {
+        String term = searchTerm.trim();
+        if (term.indexOf('@') >= 0) {
+            return new UserSearchPlan(Kind.EMAIL, term.toLowerCase());
+        }
+
+        String digits = digitsOf(term);
+        if (digits != null) {
+            if (digits.length() == term.length() && fitsInId(digits)) {
+                return new UserSearchPlan(Kind.ID, digits);
+            }
+            if (digits.length() >= MIN_PHONE_DIGITS) {
+                return new UserSearchPlan(Kind.PHONE, digits);
+            }
+        }
+        return new UserSearchPlan(Kind.TEXT, term);
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The value to look up: the digits for ID and PHONE, the
+     *         lower-cased address for EMAIL, the trimmed text for TEXT
+     */
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * @return The value as a LIKE pattern matching everything that starts with it
+     */
+    String getPrefixPattern() {
+        return escapeLike(value) + "%";
+    }
+
+    /**
+     * @param text Any text
+     * @return A LIKE pattern matching everything that contains the text
+     */
+    static String containsPattern(String text) {
+        return "%" + escapeLike(text) + "%";
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // The digits of a phone-like text, or null if it has anything but digits and phone punctuation
+    private static String digitsOf(String term) {
+        StringBuilder digits = new StringBuilder();
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if ("+-() .".indexOf(c) < 0) {
+                return null;
+            }
+        }
+        return digits.length() > 0 ? digits.toString() : null;
+    }
+
+    private static boolean fitsInId(String digits) {
+        return digits.length() < 10 || (digits.length() == 10 && digits.compareTo("2147483647") <= 0);
+    }
+
+    @Override
+    public String toString() {
+        return kind + ":" + value;
+    }
+}
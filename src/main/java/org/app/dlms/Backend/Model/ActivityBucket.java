@@ -0,0 +1,48 @@
+package org.app.dlms.Backend.Model;
+
+import java.time.LocalDate;
+
+/**
+ * Number of books borrowed and returned in one period (a day, week or month)
+ */
+public class ActivityBucket {
+    private final LocalDate start;  // First day of the period
+    private final LocalDate end;    // First day after the period
+    private final int borrows;
+    private final int returns;
+
+    public ActivityBucket(LocalDate start, LocalDate end, int borrows, int returns) {
+        this.start = start;
+        this.end = end;
+        this.borrows = borrows;
+        this.returns = returns;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEnd() {
+        return end;
+    }
+
+    public int getBorrows() {
+        return borrows;
+    }
+
+    public int getReturns() {
+        return returns;
+    }
+
+    /**
+     * @return true if the date falls in this period
+     */
+    public boolean contains(LocalDate date) {
+        return date != null && !date.isBefore(start) && date.isBefore(end);
+    }
+
+    @Override
+    public String toString() {
+        return "ActivityBucket{" + start + ", borrows=" + borrows + ", returns=" + returns + "}";
+    }
+}
@@ -35,4 +35,10 @@ public class Admin extends User {
     public UserRole getRole() {
         return UserRole.Admin;
     }
+
+    @Override
+    public Admin copy() {
+        return new Admin(getId(), getUsername(), getPassword(), getName(), getEmail(),
+                getGender(), getAddress(), getPhone());
+    }
 }
\ No newline at end of file
@@ -177,7 +177,12 @@ public class Book {
     }
 
     public Genre getGenre() { return genre; }
-    public void setGenre(Genre genre) { this.genre = genre; }
+    public void setGenre(Genre genre) {
+        this.genre = genre;
+        if (genre != null) {
+            this.genreId = genre.getId();
+        }
+    }
 
     public int getGenreId() { return genreId; }
     public void setGenreId(int genreId) { this.genreId = genreId; }
@@ -235,6 +240,19 @@ public class Book {
         return true;
     }
 
+    /**
+     * Copy the book, so a cached instance can be handed out without being shared.
+     * The genre is shared; it belongs to the genre dictionary.
+     *
+     * @return A new book with the same fields
+     */
+    public Book copy() {
+        Book copy = new Book(title, author, isbn, publisher, year, genreId, available, stock);
+        copy.id = id;
+        copy.genre = genre;
+        return copy;
+    }
+
     /**
      * String representation of the Book object
      *
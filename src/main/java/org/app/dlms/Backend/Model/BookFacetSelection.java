@@ -0,0 +1,87 @@
+package org.app.dlms.Backend.Model;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The facet values chosen while browsing the catalog. Empty sets and null
+ * years leave that facet unfiltered.
+ */
+public class BookFacetSelection {
+    private final Set<Integer> genreIds = new HashSet<>();
+    private final Set<String> publishers = new HashSet<>();
+    private final Set<String> authors = new HashSet<>();
+    private Integer yearFrom;       // First publication year included, null for no lower bound
+    private Integer yearTo;         // Last publication year included, null for no upper bound
+    private boolean availableOnly;
+
+    public Set<Integer> getGenreIds() {
+        return genreIds;
+    }
+
+    public Set<String> getPublishers() {
+        return publishers;
+    }
+
+    public Set<String> getAuthors() {
+        return authors;
+    }
+
+    public Integer getYearFrom() {
+        return yearFrom;
+    }
+
+    public void setYearFrom(Integer yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+
+    public Integer getYearTo() {
+        return yearTo;
+    }
+
+    public void setYearTo(Integer yearTo) {
+        this.yearTo = yearTo;
+    }
+
+    public boolean isAvailableOnly() {
+        return availableOnly;
+    }
+
+    public void setAvailableOnly(boolean availableOnly) {
+        this.availableOnly = availableOnly;
+    }
+
+    /**
+     * @return true if no facet is filtered
+     */
+    public boolean isEmpty() {
+        return genreIds.isEmpty() && publishers.isEmpty() && authors.isEmpty()
+                && yearFrom == null && yearTo == null && !availableOnly;
+    }
+
+    /**
+     * @return An independent copy, e.g. to hand to a background query
+     */
+    public BookFacetSelection copy() {
+        BookFacetSelection copy = new BookFacetSelection();
+        copy.genreIds.addAll(genreIds);
+        copy.publishers.addAll(publishers);
+        copy.authors.addAll(authors);
+        copy.yearFrom = yearFrom;
+        copy.yearTo = yearTo;
+        copy.availableOnly = availableOnly;
+        return copy;
+    }
+
+    /**
+     * Unselect every facet value
+     */
+    public void clear() {
+        genreIds.clear();
+        publishers.clear();
+        authors.clear();
+        yearFrom = null;
+        yearTo = null;
+        availableOnly = false;
+    }
+}
@@ -0,0 +1,47 @@
+package org.app.dlms.Backend.Model;
+
+import java.util.Date;
+
+/**
+ * Read model for borrow record lists: a borrow record together with the
+ * member and book details the tables display, loaded in one joined query.
+ */
+public class BorrowRecordView extends BorrowRecord {
+    private String memberName;  // Name of the member who borrowed the book
+    private String bookTitle;   // Title of the borrowed book
+    private String bookAuthor;  // Author of the borrowed book
+
+    // Constructor
+    public BorrowRecordView(int id, int memberId, int bookId, Date borrowDate, Date dueDate, Date returnDate,
+                            String memberName, String bookTitle, String bookAuthor) {
+        super(id, memberId, bookId, borrowDate, dueDate, returnDate);
+        this.memberName = memberName;
+        this.bookTitle = bookTitle;
+        this.bookAuthor = bookAuthor;
+    }
+
+    // Getters and Setters
+    public String getMemberName() {
+        return memberName;
+    }
+
+    public void setMemberName(String memberName) {
+        this.memberName = memberName;
+    }
+
+    public String getBookTitle() {
+        return bookTitle;
+    }
+
+    public void setBookTitle(String bookTitle) {
+        this.bookTitle = bookTitle;
+    }
+
+    public String getBookAuthor() {
+        return bookAuthor;
+    }
+
+    public void setBookAuthor(String bookAuthor) {
+        this.bookAuthor = bookAuthor;
+    }
+}
@@ -0,0 +1,103 @@
+package org.app.dlms.Backend.Model;
+
+/**
+ * Library-wide figures shown on the admin and librarian dashboards
+ */
+public class DashboardStats {
+    private int adminCount;
+    private int librarianCount;
+    private int memberCount;
+    private int bookCount;
+    private int activeLoans;        // Borrow records not yet returned
+    private int overdueLoans;       // Active loans past their due date
+    private double subscriptionRevenue; // Sum of all payments
+    private double fineRevenue;     // Sum of all fines, paid or not
+    private double unpaidFines;     // Sum of the fines not yet paid
+
+    // Getters and Setters
+    public int getAdminCount() {
+        return adminCount;
+    }
+
+    public void setAdminCount(int adminCount) {
+        this.adminCount = adminCount;
+    }
+
+    public int getLibrarianCount() {
+        return librarianCount;
+    }
+
+    public void setLibrarianCount(int librarianCount) {
+        this.librarianCount = librarianCount;
+    }
+
+    public int getMemberCount() {
+        return memberCount;
+    }
+
+    public void setMemberCount(int memberCount) {
+        this.memberCount = memberCount;
+    }
+
+    public int getUserCount() {
+        return adminCount + librarianCount + memberCount;
+    }
+
+    public int getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(int bookCount) {
+        this.bookCount = bookCount;
+    }
+
+    public int getActiveLoans() {
+        return activeLoans;
+    }
+
+    public void setActiveLoans(int activeLoans) {
+        this.activeLoans = activeLoans;
+    }
+
+    public int getOverdueLoans() {
+        return overdueLoans;
+    }
+
+    public void setOverdueLoans(int overdueLoans) {
+        this.overdueLoans = overdueLoans;
+    }
+
+    public double getSubscriptionRevenue() {
+        return subscriptionRevenue;
+    }
+
+    public void setSubscriptionRevenue(double subscriptionRevenue) {
+        this.subscriptionRevenue = subscriptionRevenue;
+    }
+
+    public double getFineRevenue() {
+        return fineRevenue;
+    }
+
+    public void setFineRevenue(double fineRevenue) {
+        this.fineRevenue = fineRevenue;
+    }
+
+    public double getTotalRevenue() {
+        return subscriptionRevenue + fineRevenue;
+    }
+
+    public double getUnpaidFines() {
+        return unpaidFines;
+    }
+
+    public void setUnpaidFines(double unpaidFines) {
+        this.unpaidFines = unpaidFines;
+    }
+
+    @Override
+    public String toString() {
+        return "DashboardStats{users=" + getUserCount() + ", books=" + bookCount + ", activeLoans=" + activeLoans
+                + ", overdueLoans=" + overdueLoans + ", revenue=" + getTotalRevenue() + ", unpaidFines=" + unpaidFines + "}";
+    }
+}
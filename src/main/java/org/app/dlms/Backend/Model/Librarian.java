@@ -35,4 +35,10 @@ public class Librarian extends User {
     public UserRole getRole() {
         return UserRole.Librarian;
     }
+
+    @Override
+    public Librarian copy() {
+        return new Librarian(getId(), getUsername(), getPassword(), getName(), getEmail(),
+                getGender(), getAddress(), getPhone());
+    }
 }
\ No newline at end of file
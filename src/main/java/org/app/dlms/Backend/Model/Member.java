@@ -5,6 +5,7 @@ import org.app.dlms.Middleware.Enums.UserRole;
 import org.app.dlms.Middleware.Factory.MembershipFeeStrategyFactory;
 import org.app.dlms.Middleware.Strategy.MembershipFeeStrategy;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -119,4 +120,14 @@ public class Member extends User {
     public void updateMembershipFee() {
         this.membershipFee = feeStrategy.calculateFee();
     }
+
+    @Override
+    public Member copy() {
+        Member copy = new Member(getId(), getUsername(), getPassword(), getName(), getEmail(),
+                getGender(), getAddress(), getPhone(), membershipType);
+        copy.membershipStatus = membershipStatus;
+        copy.payments = payments == null ? null : new ArrayList<>(payments);
+        copy.membershipFee = membershipFee;
+        return copy;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package org.app.dlms.Backend.Model;
+
+/**
+ * A member's loan counts and how many more books they may borrow
+ */
+public class MemberLoanSummary {
+    private final int memberId;
+    private final int activeLoans;      // Books not yet returned
+    private final int returnedLoans;
+    private final int overdueLoans;     // Active loans past their due date
+    private final int borrowLimit;      // From the member's membership type
+
+    public MemberLoanSummary(int memberId, int activeLoans, int returnedLoans, int overdueLoans, int borrowLimit) {
+        this.memberId = memberId;
+        this.activeLoans = activeLoans;
+        this.returnedLoans = returnedLoans;
+        this.overdueLoans = overdueLoans;
+        this.borrowLimit = borrowLimit;
+    }
+
+    public int getMemberId() {
+        return memberId;
+    }
+
+    public int getActiveLoans() {
+        return activeLoans;
+    }
+
+    public int getReturnedLoans() {
+        return returnedLoans;
+    }
+
+    public int getOverdueLoans() {
+        return overdueLoans;
+    }
+
+    public int getBorrowLimit() {
+        return borrowLimit;
+    }
+
+    /**
+     * @return How many more books the member may borrow right now
+     */
+    public int getRemainingBorrows() {
+        return Math.max(0, borrowLimit - activeLoans);
+    }
+
+    public boolean hasReachedLimit() {
+        return activeLoans >= borrowLimit;
+    }
+
+    @Override
+    public String toString() {
+        return "MemberLoanSummary{member=" + memberId + ", active=" + activeLoans + ", returned=" + returnedLoans
+                + ", overdue=" + overdueLoans + ", limit=" + borrowLimit + "}";
+    }
+}
@@ -0,0 +1,34 @@
+package org.app.dlms.Backend.Model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list
+ *
+ * @param <T> The type of the rows
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final PageCursor nextCursor; // Cursor for the following page, null on the last page
+
+    public Page(List<T> items, PageCursor nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public PageCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return true if there are more rows after this page
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,52 @@
+package org.app.dlms.Backend.Model;
+
+import java.util.Date;
+
+/**
+ * Continuation point for keyset pagination: the sort key of the last row of
+ * the previous page. The next page starts right after this row, so fetching
+ * a page costs the same no matter how deep into the list it is.
+ */
+public final class PageCursor {
+    private final Date sortDate; // Date sort key of the last row, null for lists sorted by id only
+    private final int id;        // ID of the last row, the tie-breaker of every sort
+
+    private PageCursor(Date sortDate, int id) {
+        this.sortDate = sortDate;
+        this.id = id;
+    }
+
+    /**
+     * Cursor for lists sorted by id DESC
+     *
+     * @param id The ID of the last row already shown
+     * @return The cursor
+     */
+    public static PageCursor afterId(int id) {
+        return new PageCursor(null, id);
+    }
+
+    /**
+     * Cursor for lists sorted by a date DESC, then id DESC
+     *
+     * @param sortDate The date of the last row already shown
+     * @param id The ID of the last row already shown
+     * @return The cursor
+     */
+    public static PageCursor after(Date sortDate, int id) {
+        return new PageCursor(sortDate, id);
+    }
+
+    public Date getSortDate() {
+        return sortDate;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{sortDate=" + sortDate + ", id=" + id + "}";
+    }
+}
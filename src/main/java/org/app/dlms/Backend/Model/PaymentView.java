@@ -0,0 +1,49 @@
+package org.app.dlms.Backend.Model;
+
+import java.util.Date;
+
+/**
+ * Read model for the payments table: a payment or a fine together with the
+ * member name and status the table displays, loaded in one joined query.
+ * A fine is dated by the return of the late book, or by its due date while
+ * the book is still out.
+ */
+public class PaymentView extends Payment {
+    private String memberName;  // Name of the member who paid or was fined
+    private String status;      // "Paid", or "Pending" for an unpaid fine
+    private boolean fine;       // True for a row of the fines table, false for a payment
+
+    // Constructor
+    public PaymentView(int id, int memberId, Date paymentDate, double amount, String type, String description,
+                       int relatedRecordId, String memberName, String status, boolean fine) {
+        super(id, memberId, paymentDate, amount, type, description, relatedRecordId);
+        this.memberName = memberName;
+        this.status = status;
+        this.fine = fine;
+    }
+
+    // Getters and Setters
+    public String getMemberName() {
+        return memberName;
+    }
+
+    public void setMemberName(String memberName) {
+        this.memberName = memberName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public boolean isFine() {
+        return fine;
+    }
+
+    public void setFine(boolean fine) {
+        this.fine = fine;
+    }
+}
@@ -113,6 +113,16 @@ public  class User {
     public UserRole getRole() {
         return role;
     }
+
+    /**
+     * Copy the user, so a cached instance can be handed out without being shared.
+     * Subclasses return a copy of their own type.
+     *
+     * @return A new user with the same fields
+     */
+    public User copy() {
+        return new User(id, username, password, name, email, gender, address, phone, role);
+    }
 //
 //    public void setRole(String phone) {
 //        this.phone = phone;
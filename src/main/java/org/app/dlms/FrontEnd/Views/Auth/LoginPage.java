@@ -37,9 +37,11 @@ import org.app.dlms.FrontEnd.Views.Dashboard.AdminDashboard;
 import org.app.dlms.FrontEnd.Views.Dashboard.LibrarianDashboard;
 import org.app.dlms.FrontEnd.Views.Dashboard.MemberDashboard;
 import org.app.dlms.Middleware.Services.AlertService;
+import org.app.dlms.Middleware.Services.AsyncDAO;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class LoginPage extends Application {
 
@@ -205,30 +207,41 @@ public class LoginPage extends Application {
         AlertService alertService= new AlertService();
         // Set action for login button
         loginBtn.setOnAction(e -> {
-            User user= validateLogin(userTextField.getText(), pwField.getText());
-            if (user != null) {
-                alertService.showAlert(Alert.AlertType.INFORMATION, "Login Successful",
-                        "Welcome " + userTextField.getText() + "!");
-                Stage dashboardStage = new Stage();
-                if (user instanceof Admin){
-                    AdminDashboard dashboard = new AdminDashboard();
-                    dashboard.start(dashboardStage, (Admin) user);
+            String username = userTextField.getText();
+            String password = pwField.getText();
+            loginBtn.setDisable(true);
+
+            // Password hashing is slow by design, so keep it off the JavaFX thread and out of the database permits
+            AsyncDAO.computeAsync(() -> validateLogin(username, password)).whenCompleteAsync((user, error) -> {
+                loginBtn.setDisable(false);
+                if (error != null) {
+                    // Only a full hashing queue gets here; other failures are reported as a failed login
+                    alertService.showAlert(Alert.AlertType.WARNING, "Server Busy",
+                            "The server is busy. Please try again in a moment.");
+                } else if (user != null) {
+                    alertService.showAlert(Alert.AlertType.INFORMATION, "Login Successful",
+                            "Welcome " + username + "!");
+                    Stage dashboardStage = new Stage();
+                    if (user instanceof Admin){
+                        AdminDashboard dashboard = new AdminDashboard();
+                        dashboard.start(dashboardStage, (Admin) user);
+                    }
+                    if (user instanceof Librarian){
+                        LibrarianDashboard dashboard = new LibrarianDashboard();
+                        dashboard.start(dashboardStage, (Librarian) user);
+                    }
+                    if (user instanceof Member){
+                        MemberDashboard dashboard = new MemberDashboard();
+                        dashboard.start(dashboardStage, (Member) user);
+                    }
+
+                    // Optionally hide the login window instead of closing it
+                    primaryStage.hide();
+                } else {
+                    alertService.showAlert(Alert.AlertType.ERROR, "Login Failed",
+                            "Invalid username or password.");
                 }
-                if (user instanceof Librarian){
-                    LibrarianDashboard dashboard = new LibrarianDashboard();
-                    dashboard.start(dashboardStage, (Librarian) user);
-                }
-                if (user instanceof Member){
-                    MemberDashboard dashboard = new MemberDashboard();
-                    dashboard.start(dashboardStage, (Member) user);
-                }
-
-                // Optionally hide the login window instead of closing it
-                primaryStage.hide();
-            } else {
-                alertService.showAlert(Alert.AlertType.ERROR, "Login Failed",
-                        "Invalid username or password.");
-            }
+            }, AsyncDAO.FX);
         });
 
         // Set action for create account link
@@ -264,6 +277,8 @@ public class LoginPage extends Application {
         try {
              User user = userDAO.login(username, password);
             return user;
+        } catch (RejectedExecutionException e) {
+            throw e;
         }catch (Exception e) {
             return null;
         }
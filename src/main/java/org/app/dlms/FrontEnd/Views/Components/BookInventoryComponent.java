@@ -20,31 +20,52 @@ import javafx.scene.text.Text;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import org.app.dlms.Backend.Dao.BookDAO;
+import org.app.dlms.Backend.Dao.BookFacets;
 import org.app.dlms.Backend.Dao.GenreDAO;
+import org.app.dlms.Backend.Dao.GenreDictionary;
 import org.app.dlms.Backend.Model.Admin;
 import org.app.dlms.Backend.Model.Book;
+import org.app.dlms.Backend.Model.BookFacetSelection;
 import org.app.dlms.Backend.Model.Genre;
 import org.app.dlms.Backend.Model.User;
 import org.app.dlms.Middleware.Enums.UserRole;
+import org.app.dlms.Middleware.Search.FacetIndex;
+import org.app.dlms.Middleware.Services.AsyncDAO;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class BookInventoryComponent {
 
     private final BookDAO bookDAO;
-    private final GenreDAO genreDAO;
-    private ObservableList<Book> booksList;
+    private PagedTableSource<Book> booksSource;
     private ObservableList<Genre> genresList;
     private TableView<Book> booksTable;
     private TextField searchField;
+    private SearchAsYouType<Book> bookSearch;
     private User currentUser;
 
+    // Facet browsing: the values chosen, the result of the last facet query and the panel showing the counts
+    private static final int FACET_VALUES_SHOWN = 10;
+    private final BookFacetSelection facetSelection = new BookFacetSelection();
+    private FacetIndex.Result facetResult;    // null while no facet is selected or the facets are not loaded
+    private int facetGeneration;              // Bumped for every facet query so superseded ones are dropped
+    private VBox genreFacet;
+    private VBox publisherFacet;
+    private VBox authorFacet;
+    private TextField yearFromField;
+    private TextField yearToField;
+    private CheckBox availableOnlyBox;
+
 
     public BookInventoryComponent(User user) {
         this.bookDAO = new BookDAO();
-        this.genreDAO = new GenreDAO();
-        this.booksList = FXCollections.observableArrayList();
         this.genresList = FXCollections.observableArrayList();
         currentUser = user;
     }
@@ -66,14 +87,10 @@ public class BookInventoryComponent {
         searchField.setPromptText("Search books...");
         searchField.setPrefWidth(300);
 
-        // Add search functionality
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue.trim().isEmpty()) {
-                loadAllBooks();
-            } else {
-                searchBooks(newValue);
-            }
-        });
+        // Search as the user types, within the selected facets; an empty field shows all books again
+        bookSearch = new SearchAsYouType<>(searchField, bookDAO::searchBooks,
+                book -> new String[]{book.getTitle(), book.getAuthor(), book.getPublisher(), book.getIsbn()},
+                BookDAO.MAX_SEARCH_RESULTS, rows -> booksSource.showAll(filterByFacets(rows)), this::loadAllBooks);
         System.out.println(currentUser.getRole()+"334");
         if (currentUser.getRole()== UserRole.Admin){
             Button addBookBtn = new Button("Add New Book");
@@ -95,12 +112,16 @@ public class BookInventoryComponent {
         // Books table setup
         setupBooksTable();
 
-        // Load initial data
-        loadAllBooks();
+        // Facet panel beside the table
+        HBox body = new HBox(15, createFacetPanel(), booksTable);
+        HBox.setHgrow(booksTable, Priority.ALWAYS);
+
+        // Load initial data; the facet query also loads the books
+        applyFacets();
         loadAllGenres();
 
-        container.getChildren().addAll(header, actionsBar, booksTable);
-        VBox.setVgrow(booksTable, Priority.ALWAYS);
+        container.getChildren().addAll(header, actionsBar, body);
+        VBox.setVgrow(body, Priority.ALWAYS);
 
         return container;
     }
@@ -108,7 +129,7 @@ public class BookInventoryComponent {
     private void setupBooksTable() {
         booksTable = new TableView<>();
         booksTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
-        booksTable.setItems(booksList);
+        booksSource = new PagedTableSource<>(booksTable);
 
         // Define columns with appropriate property value factories
         TableColumn<Book, String> isbnCol = new TableColumn<>("ISBN");
@@ -212,36 +233,216 @@ public class BookInventoryComponent {
     }
 
     private void loadAllBooks() {
-        // Run database query in background thread
-        new Thread(() -> {
-            List<Book> books = bookDAO.getAllBooks();
-            Platform.runLater(() -> {
-                booksList.clear();
-                booksList.addAll(books);
-            });
-        }).start();
+        // Pages are fetched in the background as the table scrolls
+        FacetIndex.Result result = facetResult;
+        if (result == null) {
+            booksSource.load(bookDAO::getBooksPage);
+        } else {
+            booksSource.load((after, pageSize) -> bookDAO.getBooksPage(result.getIds(), after, pageSize));
+        }
     }
 
-    private void loadAllGenres() {
-        // Run database query in background thread
-        new Thread(() -> {
-            List<Genre> genres = genreDAO.getAllGenres();
-            Platform.runLater(() -> {
-                genresList.clear();
-                genresList.addAll(genres);
+    /**
+     * Refresh the table and facet counts after a book was added or deleted,
+     * keeping an active search
+     */
+    private void reloadBooks() {
+        applyFacets();
+    }
+
+    private Node createFacetPanel() {
+        VBox panel = new VBox(12);
+        panel.setPadding(new Insets(0, 10, 0, 0));
+
+        genreFacet = new VBox(4);
+        publisherFacet = new VBox(4);
+        authorFacet = new VBox(4);
+
+        yearFromField = new TextField();
+        yearFromField.setPromptText("From");
+        yearFromField.setPrefWidth(70);
+        yearFromField.setOnAction(e -> applyYearRange());
+        yearToField = new TextField();
+        yearToField.setPromptText("To");
+        yearToField.setPrefWidth(70);
+        yearToField.setOnAction(e -> applyYearRange());
+        HBox yearRange = new HBox(5, yearFromField, new Label("-"), yearToField);
+        yearRange.setAlignment(Pos.CENTER_LEFT);
+
+        availableOnlyBox = new CheckBox("Available only");
+        availableOnlyBox.setOnAction(e -> {
+            facetSelection.setAvailableOnly(availableOnlyBox.isSelected());
+            applyFacets();
+        });
+
+        Button clearBtn = new Button("Clear filters");
+        clearBtn.setOnAction(e -> {
+            facetSelection.clear();
+            yearFromField.clear();
+            yearToField.clear();
+            applyFacets();
+        });
+
+        panel.getChildren().addAll(
+                facetHeader("Genre"), genreFacet,
+                facetHeader("Publication year"), yearRange,
+                facetHeader("Publisher"), publisherFacet,
+                facetHeader("Author"), authorFacet,
+                facetHeader("Availability"), availableOnlyBox,
+                clearBtn);
+
+        ScrollPane scrollPane = new ScrollPane(panel);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setPrefWidth(230);
+        scrollPane.setMinWidth(180);
+        scrollPane.setStyle("-fx-background-color: transparent;");
+        return scrollPane;
+    }
+
+    private Label facetHeader(String title) {
+        Label label = new Label(title);
+        label.setFont(Font.font("Montserrat", FontWeight.BOLD, 13));
+        label.setTextFill(Color.web("#303f9f"));
+        return label;
+    }
+
+    private void applyYearRange() {
+        facetSelection.setYearFrom(parseYear(yearFromField));
+        facetSelection.setYearTo(parseYear(yearToField));
+        applyFacets();
+    }
+
+    // The year typed in a field, or null if it is empty or not a number
+    private Integer parseYear(TextField field) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            field.clear();
+            return null;
+        }
+    }
+
+    /**
+     * Query the facets for the current selection in the background, then show
+     * the new counts and the matching books
+     */
+    private void applyFacets() {
+        int requestGeneration = ++facetGeneration;
+        BookFacetSelection selection = facetSelection.copy();
+        AsyncDAO.onFx(AsyncDAO.supplyAsync(() -> BookFacets.getInstance().query(selection)), result -> {
+            if (requestGeneration != facetGeneration) {
+                return;
+            }
+            // Without a selection every book matches, so the table pages over all books as before
+            facetResult = selection.isEmpty() ? null : result;
+            showFacetCounts(result);
+            bookSearch.refresh(searchField.getText());
+        });
+    }
+
+    private List<Book> filterByFacets(List<Book> rows) {
+        FacetIndex.Result result = facetResult;
+        if (result == null) {
+            return rows;
+        }
+        List<Book> matching = new ArrayList<>();
+        for (Book book : rows) {
+            if (result.contains(book.getId())) {
+                matching.add(book);
+            }
+        }
+        return matching;
+    }
+
+    private void showFacetCounts(FacetIndex.Result result) {
+        if (result == null) {
+            // Facets not loaded: leave the panel empty, the table shows all books
+            genreFacet.getChildren().setAll(new Label("Not available"));
+            publisherFacet.getChildren().clear();
+            authorFacet.getChildren().clear();
+            return;
+        }
+
+        Set<String> selectedGenres = new HashSet<>();
+        for (Integer genreId : facetSelection.getGenreIds()) {
+            selectedGenres.add(String.valueOf(genreId));
+        }
+        fillFacet(genreFacet, BookFacets.counts(result, BookFacets.Facet.GENRE), selectedGenres,
+                value -> {
+                    Genre genre = GenreDictionary.getInstance().get(Integer.parseInt(value));
+                    return genre != null ? genre.getName() : "Genre " + value;
+                },
+                (value, selected) -> {
+                    if (selected) {
+                        facetSelection.getGenreIds().add(Integer.parseInt(value));
+                    } else {
+                        facetSelection.getGenreIds().remove(Integer.parseInt(value));
+                    }
+                });
+        fillFacet(publisherFacet, BookFacets.counts(result, BookFacets.Facet.PUBLISHER),
+                facetSelection.getPublishers(), value -> value, toggler(facetSelection.getPublishers()));
+        fillFacet(authorFacet, BookFacets.counts(result, BookFacets.Facet.AUTHOR),
+                facetSelection.getAuthors(), value -> value, toggler(facetSelection.getAuthors()));
+
+        Integer available = BookFacets.counts(result, BookFacets.Facet.AVAILABILITY).get(String.valueOf(true));
+        availableOnlyBox.setText("Available only (" + (available != null ? available : 0) + ")");
+        availableOnlyBox.setSelected(facetSelection.isAvailableOnly());
+    }
+
+    private BiConsumer<String, Boolean> toggler(Set<String> values) {
+        return (value, selected) -> {
+            if (selected) {
+                values.add(value);
+            } else {
+                values.remove(value);
+            }
+        };
+    }
+
+    /**
+     * Show the values of one facet with the most books, plus any selected ones,
+     * as check boxes labelled with their book counts
+     */
+    private void fillFacet(VBox box, Map<String, Integer> counts, Set<String> selected,
+                           Function<String, String> label, BiConsumer<String, Boolean> onToggle) {
+        List<String> values = new ArrayList<>(counts.keySet());
+        values.sort((a, b) -> {
+            int byCount = Integer.compare(counts.get(b), counts.get(a));
+            return byCount != 0 ? byCount : label.apply(a).compareToIgnoreCase(label.apply(b));
+        });
+        List<String> shown = new ArrayList<>(values.subList(0, Math.min(FACET_VALUES_SHOWN, values.size())));
+        for (String value : selected) {
+            if (!shown.contains(value)) {
+                shown.add(value);
+            }
+        }
+
+        List<Node> boxes = new ArrayList<>();
+        for (String value : shown) {
+            CheckBox checkBox = new CheckBox(label.apply(value) + " (" + counts.getOrDefault(value, 0) + ")");
+            checkBox.setSelected(selected.contains(value));
+            checkBox.setOnAction(e -> {
+                onToggle.accept(value, checkBox.isSelected());
+                applyFacets();
             });
-        }).start();
+            boxes.add(checkBox);
+        }
+        if (boxes.isEmpty()) {
+            boxes.add(new Label("No books"));
+        }
+        box.getChildren().setAll(boxes);
     }
 
-    private void searchBooks(String searchTerm) {
+    private void loadAllGenres() {
         // Run database query in background thread
-        new Thread(() -> {
-            List<Book> books = bookDAO.searchBooks(searchTerm);
-            Platform.runLater(() -> {
-                booksList.clear();
-                booksList.addAll(books);
-            });
-        }).start();
+        AsyncDAO.genres().call(GenreDAO::getAllGenres, genres -> {
+            genresList.clear();
+            genresList.addAll(genres);
+        });
     }
 
     private void showAddBookDialog() {
@@ -341,19 +542,15 @@ public class BookInventoryComponent {
                     newBook.setGenre(genre);
 
                     // Save to database in background thread
-                    new Thread(() -> {
-                        int id = bookDAO.addBook(newBook);
+                    AsyncDAO.books().call(dao -> dao.addBook(newBook), id -> {
                         if (id > 0) {
                             newBook.setId(id);
-                            Platform.runLater(() -> {
-                                booksList.add(newBook);
-                                showAlert("Success", "Book added successfully!");
-                            });
+                            reloadBooks();
+                            showAlert("Success", "Book added successfully!");
                         } else {
-                            Platform.runLater(() ->
-                                    showAlert("Error", "Failed to add book. Please try again."));
+                            showAlert("Error", "Failed to add book. Please try again.");
                         }
-                    }).start();
+                    });
 
                     return newBook;
                 } catch (NumberFormatException e) {
@@ -453,18 +650,15 @@ public class BookInventoryComponent {
                     book.setAvailable(book.getStock() > 0);
 
                     // Update in database in background thread
-                    new Thread(() -> {
-                        boolean success = bookDAO.updateBook(book);
-                        Platform.runLater(() -> {
-                            if (success) {
-                                // Refresh table to show updated data
-                                booksTable.refresh();
-                                showAlert("Success", "Book updated successfully!");
-                            } else {
-                                showAlert("Error", "Failed to update book. Please try again.");
-                            }
-                        });
-                    }).start();
+                    AsyncDAO.books().call(dao -> dao.updateBook(book), success -> {
+                        if (success) {
+                            // Refresh table to show updated data
+                            booksTable.refresh();
+                            showAlert("Success", "Book updated successfully!");
+                        } else {
+                            showAlert("Error", "Failed to update book. Please try again.");
+                        }
+                    });
 
                     return book;
                 } catch (NumberFormatException e) {
@@ -487,17 +681,14 @@ public class BookInventoryComponent {
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
                 // Delete book in background thread
-                new Thread(() -> {
-                    boolean success = bookDAO.deleteBook(book.getIsbn());
-                    Platform.runLater(() -> {
-                        if (success) {
-                            booksList.remove(book);
-                            showAlert("Success", "Book deleted successfully!");
-                        } else {
-                            showAlert("Error", "Failed to delete book. Please try again.");
-                        }
-                    });
-                }).start();
+                AsyncDAO.books().call(dao -> dao.deleteBook(book.getIsbn()), success -> {
+                    if (success) {
+                        reloadBooks();
+                        showAlert("Success", "Book deleted successfully!");
+                    } else {
+                        showAlert("Error", "Failed to delete book. Please try again.");
+                    }
+                });
             }
         });
     }
@@ -582,20 +773,16 @@ public class BookInventoryComponent {
                 Genre newGenre = new Genre();
                 newGenre.setName(genreName);
 
-                new Thread(() -> {
-                    int id = genreDAO.addGenre(newGenre);
+                AsyncDAO.genres().call(dao -> dao.addGenre(newGenre), id -> {
                     if (id > 0) {
                         newGenre.setId(id);
-                        Platform.runLater(() -> {
-                            genresList.add(newGenre);
-                            genreNameField.clear();
-                            showAlert("Success", "Genre added successfully!");
-                        });
+                        genresList.add(newGenre);
+                        genreNameField.clear();
+                        showAlert("Success", "Genre added successfully!");
                     } else {
-                        Platform.runLater(() ->
-                                showAlert("Error", "Failed to add genre. Please try again."));
+                        showAlert("Error", "Failed to add genre. Please try again.");
                     }
-                }).start();
+                });
             } else {
                 showAlert("Validation Error", "Genre name cannot be empty.");
             }
@@ -646,17 +833,14 @@ public class BookInventoryComponent {
                 if (!newName.isEmpty()) {
                     genre.setName(newName);
 
-                    new Thread(() -> {
-                        boolean success = genreDAO.updateGenre(genre);
-                        Platform.runLater(() -> {
-                            if (success) {
-                                genresList.set(genresList.indexOf(genre), genre);
-                                showAlert("Success", "Genre updated successfully!");
-                            } else {
-                                showAlert("Error", "Failed to update genre. Please try again.");
-                            }
-                        });
-                    }).start();
+                    AsyncDAO.genres().call(dao -> dao.updateGenre(genre), success -> {
+                        if (success) {
+                            genresList.set(genresList.indexOf(genre), genre);
+                            showAlert("Success", "Genre updated successfully!");
+                        } else {
+                            showAlert("Error", "Failed to update genre. Please try again.");
+                        }
+                    });
 
                     return genre;
                 } else {
@@ -679,17 +863,14 @@ public class BookInventoryComponent {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                new Thread(() -> {
-                    boolean success = genreDAO.deleteGenre(genre.getId());
-                    Platform.runLater(() -> {
-                        if (success) {
-                            genresList.remove(genre);
-                            showAlert("Success", "Genre deleted successfully!");
-                        } else {
-                            showAlert("Error", "Failed to delete genre. This genre may be in use by some books.");
-                        }
-                    });
-                }).start();
+                AsyncDAO.genres().call(dao -> dao.deleteGenre(genre.getId()), success -> {
+                    if (success) {
+                        genresList.remove(genre);
+                        showAlert("Success", "Genre deleted successfully!");
+                    } else {
+                        showAlert("Error", "Failed to delete genre. This genre may be in use by some books.");
+                    }
+                });
             }
         });
     }
@@ -19,16 +19,20 @@ import org.app.dlms.Backend.Dao.BorrowRecordDAO;
 import org.app.dlms.Backend.Dao.UserDAO;
 import org.app.dlms.Backend.Model.Book;
 import org.app.dlms.Backend.Model.BorrowRecord;
+import org.app.dlms.Backend.Model.BorrowRecordView;
 import org.app.dlms.Backend.Model.User;
 import org.app.dlms.Backend.Model.Member;
+import org.app.dlms.Backend.Model.MemberLoanSummary;
+import org.app.dlms.Middleware.Enums.BorrowStatus;
 import org.app.dlms.Middleware.Enums.UserRole;
-import org.app.dlms.Middleware.Enums.MembershipType;
+import org.app.dlms.Middleware.Services.AsyncDAO;
 
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -36,9 +40,8 @@ import java.util.stream.Collectors;
  */
 public class BorrowedBooksComponent {
     private final BorrowRecordDAO borrowRecordDAO;
-    private final UserDAO userDAO;
-    private final BookDAO bookDAO;
-    private TableView<BorrowRecord> borrowingTable;
+    private TableView<BorrowRecordView> borrowingTable;
+    private PagedTableSource<BorrowRecordView> borrowingSource;
     
     // For the add/edit form
     private ComboBox<User> memberComboBox;
@@ -49,32 +52,10 @@ public class BorrowedBooksComponent {
     private User currentUser;
     private static final long OVERDUE_DAYS = 30;
     private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-    // Class-level variable
-    private Map<Integer, User> userCache = new HashMap<>();
-    private Map<Integer, Book> bookCache = new HashMap<>();
 
-    // Load data once when component is initialized
-    private void preloadData() {
-        try {
-            List<User> allUsers = userDAO.getAllUsers();
-            for (User user : allUsers) {
-                userCache.put(user.getId(), user);
-            }
-
-            List<Book> allBooks = bookDAO.getAllBooks();
-            for (Book book : allBooks) {
-                bookCache.put(book.getId(), book);
-            }
-        } catch (Exception e) {
-            System.err.println("Error preloading data: " + e.getMessage());
-        }
-    }
     public BorrowedBooksComponent(User user) {
         this.borrowRecordDAO = new BorrowRecordDAO();
-        this.userDAO = new UserDAO();
-        this.bookDAO = new BookDAO();
         currentUser=user;
-        preloadData();
     }
 
     public Node createBorrowedBooksComponent() {
@@ -118,51 +99,49 @@ public class BorrowedBooksComponent {
         // Create the borrowing records table
         borrowingTable = new TableView<>();
         borrowingTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        borrowingSource = new PagedTableSource<>(borrowingTable);
         
         // ID column
-        TableColumn<BorrowRecord, Integer> idCol = new TableColumn<>("ID");
+        TableColumn<BorrowRecordView, Integer> idCol = new TableColumn<>("ID");
 // If idCol is of type TableColumn<YourClass, Integer>
         idCol.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().getId()));        idCol.setPrefWidth(50);
         
         // Member column - show member name
-        TableColumn<BorrowRecord, String> userCol = new TableColumn<>("Member");
+        TableColumn<BorrowRecordView, String> userCol = new TableColumn<>("Member");
         userCol.setCellValueFactory(cellData -> {
-            int memberId = cellData.getValue().getMemberId();
-            User member = userCache.get(memberId);
-            return new SimpleStringProperty(member != null ? member.getName() : "Unknown");
+            String memberName = cellData.getValue().getMemberName();
+            return new SimpleStringProperty(memberName != null ? memberName : "Unknown");
         });
         userCol.setPrefWidth(150);
         
         // Book column - show book title
-        TableColumn<BorrowRecord, String> bookCol = new TableColumn<>("Book");
-        // Book column using cache
+        TableColumn<BorrowRecordView, String> bookCol = new TableColumn<>("Book");
         bookCol.setCellValueFactory(cellData -> {
-            int bookId = cellData.getValue().getBookId();
-            Book book = bookCache.get(bookId);
-            return new SimpleStringProperty(book != null ? book.getTitle() : "Unknown");
+            String bookTitle = cellData.getValue().getBookTitle();
+            return new SimpleStringProperty(bookTitle != null ? bookTitle : "Unknown");
         });
         bookCol.setPrefWidth(200);
         
         // Borrow date column
-        TableColumn<BorrowRecord, String> borrowDateCol = new TableColumn<>("Borrow Date");
+        TableColumn<BorrowRecordView, String> borrowDateCol = new TableColumn<>("Borrow Date");
         borrowDateCol.setCellValueFactory(cellData -> 
             new SimpleStringProperty(formatDate(cellData.getValue().getBorrowDate())));
         borrowDateCol.setPrefWidth(120);
         
         // Due date column
-        TableColumn<BorrowRecord, String> dueDateCol = new TableColumn<>("Due Date");
+        TableColumn<BorrowRecordView, String> dueDateCol = new TableColumn<>("Due Date");
         dueDateCol.setCellValueFactory(cellData -> 
             new SimpleStringProperty(formatDate(cellData.getValue().getDueDate())));
         dueDateCol.setPrefWidth(120);
         
         // Return date column
-        TableColumn<BorrowRecord, String> returnDateCol = new TableColumn<>("Return Date");
+        TableColumn<BorrowRecordView, String> returnDateCol = new TableColumn<>("Return Date");
         returnDateCol.setCellValueFactory(cellData -> 
             new SimpleStringProperty(formatDate(cellData.getValue().getReturnDate())));
         returnDateCol.setPrefWidth(120);
         
         // Status column
-        TableColumn<BorrowRecord, String> statusCol = new TableColumn<>("Status");
+        TableColumn<BorrowRecordView, String> statusCol = new TableColumn<>("Status");
         statusCol.setCellValueFactory(cellData -> {
             BorrowRecord record = cellData.getValue();
             String status;
@@ -199,7 +178,7 @@ public class BorrowedBooksComponent {
         statusCol.setPrefWidth(150);
         
         // Style the status cells
-        statusCol.setCellFactory(column -> new TableCell<BorrowRecord, String>() {
+        statusCol.setCellFactory(column -> new TableCell<BorrowRecordView, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
@@ -225,7 +204,7 @@ public class BorrowedBooksComponent {
         });
         
         // Actions column with return, edit and delete buttons
-        TableColumn<BorrowRecord, Void> actionCol = new TableColumn<>("Actions");
+        TableColumn<BorrowRecordView, Void> actionCol = new TableColumn<>("Actions");
         actionCol.setCellFactory(param -> new TableCell<>() {
             private final Button returnBtn = new Button("Return");
             private final Button editBtn = new Button("Edit");
@@ -242,12 +221,13 @@ public class BorrowedBooksComponent {
                     if (record.getReturnDate() == null) {
                         // Mark as returned today
                         record.setReturnDate(new Date());
-                        boolean updated = borrowRecordDAO.updateBorrowRecord(record);
-                        if (updated) {
-                            refreshTable();
-                        } else {
-                            showErrorAlert("Failed to update return status.");
-                        }
+                        AsyncDAO.borrowRecords().call(dao -> dao.updateBorrowRecord(record), updated -> {
+                            if (updated) {
+                                refreshTable();
+                            } else {
+                                showErrorAlert("Failed to update return status.");
+                            }
+                        });
                     }
                 });
                 
@@ -266,12 +246,13 @@ public class BorrowedBooksComponent {
                     
                     Optional<ButtonType> result = alert.showAndWait();
                     if (result.isPresent() && result.get() == ButtonType.OK) {
-                        boolean deleted = borrowRecordDAO.deleteBorrowRecord(record.getId());
-                        if (deleted) {
-                            refreshTable();
-                        } else {
-                            showErrorAlert("Failed to delete borrowing record.");
-                        }
+                        AsyncDAO.borrowRecords().call(dao -> dao.deleteBorrowRecord(record.getId()), deleted -> {
+                            if (deleted) {
+                                refreshTable();
+                            } else {
+                                showErrorAlert("Failed to delete borrowing record.");
+                            }
+                        });
                     }
                 });
             }
@@ -346,13 +327,7 @@ public class BorrowedBooksComponent {
     }
 
     private void refreshTable() {
-        List<BorrowRecord> records = new ArrayList<>();
-        if (currentUser.getRole() == UserRole.Member) {
-            records = borrowRecordDAO.getBorrowRecordsByMember(currentUser.getId());
-        } else {
-            records = borrowRecordDAO.getAllBorrowRecords();
-        }
-        borrowingTable.setItems(FXCollections.observableArrayList(records));
+        showRecords(BorrowStatus.All, null);
     }
     
     private void filterRecords(String searchText) {
@@ -360,60 +335,25 @@ public class BorrowedBooksComponent {
             refreshTable();
             return;
         }
-
-        List<BorrowRecord> allRecords = new ArrayList<>();
-        if (currentUser.getRole() == UserRole.Member) {
-            allRecords = borrowRecordDAO.getBorrowRecordsByMember(currentUser.getId());
-        } else {
-            allRecords = borrowRecordDAO.getAllBorrowRecords();
-        }
-        List<BorrowRecord> filteredRecords = new ArrayList<>();
-        
-        for (BorrowRecord record : allRecords) {
-            User member = userDAO.getUserById(record.getMemberId());
-            Book book = bookDAO.getBookById(record.getBookId());
-            
-            String memberName = member != null ? member.getName().toLowerCase() : "";
-            String bookTitle = book != null ? book.getTitle().toLowerCase() : "";
-            
-            if (memberName.contains(searchText.toLowerCase()) || 
-                bookTitle.contains(searchText.toLowerCase())) {
-                filteredRecords.add(record);
-            }
-        }
-        
-        borrowingTable.setItems(FXCollections.observableArrayList(filteredRecords));
+        showRecords(BorrowStatus.All, searchText);
     }
     
     private void filterActiveRecords() {
-        List<BorrowRecord> allRecords = new ArrayList<>();
-        if (currentUser.getRole() == UserRole.Member) {
-            allRecords = borrowRecordDAO.getBorrowRecordsByMember(currentUser.getId());
-        } else {
-            allRecords = borrowRecordDAO.getAllBorrowRecords();
-        }
-        
-        List<BorrowRecord> activeRecords = allRecords.stream()
-            .filter(record -> record.getReturnDate() == null)
-            .collect(Collectors.toList());
-        
-        borrowingTable.setItems(FXCollections.observableArrayList(activeRecords));
+        showRecords(BorrowStatus.Active, null);
     }
     
     private void filterOverdueRecords() {
-        List<BorrowRecord> allRecords = new ArrayList<>();
-        if (currentUser.getRole() == UserRole.Member) {
-            allRecords = borrowRecordDAO.getBorrowRecordsByMember(currentUser.getId());
-        } else {
-            allRecords = borrowRecordDAO.getAllBorrowRecords();
-        }
-        Date currentDate = new Date();
-        
-        List<BorrowRecord> overdueRecords = allRecords.stream()
-            .filter(record -> record.getReturnDate() == null && currentDate.after(record.getDueDate()))
-            .collect(Collectors.toList());
-        
-        borrowingTable.setItems(FXCollections.observableArrayList(overdueRecords));
+        showRecords(BorrowStatus.Overdue, null);
+    }
+
+    /**
+     * Show the records matching the filter, with member and book details, one page per query
+     * as the user scrolls. Members only see their own records.
+     */
+    private void showRecords(BorrowStatus status, String searchText) {
+        Integer memberId = currentUser.getRole() == UserRole.Member ? currentUser.getId() : null;
+        borrowingSource.load((after, pageSize) ->
+            borrowRecordDAO.getBorrowRecordViewsPage(memberId, status, searchText, after, pageSize));
     }
     
     private void showAddForm(BorderPane mainContainer, Node mainView) {
@@ -474,15 +414,6 @@ public class BorrowedBooksComponent {
             if (validateForm()) {
                 User selectedMember = memberComboBox.getValue();
                 
-                // Check if member has reached their borrow limit
-                if (hasReachedBorrowLimit(selectedMember)) {
-                    Member member = (Member) selectedMember;
-                    showErrorAlert("This member has reached their borrowing limit of " + 
-                        getMemberBorrowLimit(member.getMembershipType()) + 
-                        " books based on their " + member.getMembershipType() + " membership.");
-                    return;
-                }
-                
                 // Create new borrow record
                 BorrowRecord newRecord = new BorrowRecord(
                     0, // ID will be assigned by database
@@ -493,14 +424,23 @@ public class BorrowedBooksComponent {
                     null // Not returned yet
                 );
                 
-                boolean saved = borrowRecordDAO.addBorrowRecord(newRecord);
-                if (saved) {
-                    mainContainer.setCenter(mainView);
-                    mainContainer.setTop(null);
-                    refreshTable();
-                } else {
-                    showErrorAlert("Failed to save borrowing record.");
-                }
+                // Check the borrow limit and save in the background; null means the limit was reached
+                AsyncDAO.onFx(AsyncDAO.supplyAsync(() ->
+                        hasReachedBorrowLimit(selectedMember) ? null : borrowRecordDAO.addBorrowRecord(newRecord)),
+                    saved -> {
+                        if (saved == null) {
+                            Member member = (Member) selectedMember;
+                            showErrorAlert("This member has reached their borrowing limit of " + 
+                                member.getMembershipType().getBorrowLimit() + 
+                                " books based on their " + member.getMembershipType() + " membership.");
+                        } else if (saved) {
+                            mainContainer.setCenter(mainView);
+                            mainContainer.setTop(null);
+                            refreshTable();
+                        } else {
+                            showErrorAlert("Failed to save borrowing record.");
+                        }
+                    });
             }
         });
         
@@ -542,25 +482,25 @@ public class BorrowedBooksComponent {
         // Create form fields
         Label memberLabel = new Label("Member:");
         memberComboBox = new ComboBox<>();
-        loadMembersIntoComboBox();
         memberComboBox.setMaxWidth(Double.MAX_VALUE);
         
-        // Set selected member
-        User selectedMember = userDAO.getUserById(record.getMemberId());
-        if (selectedMember != null) {
-            memberComboBox.getSelectionModel().select(selectedMember);
-        }
+        // Select the record's member once the list has loaded
+        loadMembersIntoComboBox().thenRun(() -> AsyncDAO.users().call(dao -> dao.getUserById(record.getMemberId()), selectedMember -> {
+            if (selectedMember != null) {
+                memberComboBox.getSelectionModel().select(selectedMember);
+            }
+        }));
         
         Label bookLabel = new Label("Book:");
         bookComboBox = new ComboBox<>();
-        loadBooksIntoComboBox();
         bookComboBox.setMaxWidth(Double.MAX_VALUE);
         
-        // Set selected book
-        Book selectedBook = bookDAO.getBookById(record.getBookId());
-        if (selectedBook != null) {
-            bookComboBox.getSelectionModel().select(selectedBook);
-        }
+        // Select the record's book once the list has loaded
+        loadBooksIntoComboBox().thenRun(() -> AsyncDAO.books().call(dao -> dao.getBookById(record.getBookId()), selectedBook -> {
+            if (selectedBook != null) {
+                bookComboBox.getSelectionModel().select(selectedBook);
+            }
+        }));
         
         Label borrowDateLabel = new Label("Borrow Date:");
         borrowDatePicker = new DatePicker();
@@ -640,14 +580,15 @@ public class BorrowedBooksComponent {
                         .atStartOfDay(ZoneId.systemDefault()).toInstant()));
                 }
                 
-                boolean updated = borrowRecordDAO.updateBorrowRecord(record);
-                if (updated) {
-                    mainContainer.setCenter(mainView);
-                    mainContainer.setTop(null);
-                    refreshTable();
-                } else {
-                    showErrorAlert("Failed to update borrowing record.");
-                }
+                AsyncDAO.borrowRecords().call(dao -> dao.updateBorrowRecord(record), updated -> {
+                    if (updated) {
+                        mainContainer.setCenter(mainView);
+                        mainContainer.setTop(null);
+                        refreshTable();
+                    } else {
+                        showErrorAlert("Failed to update borrowing record.");
+                    }
+                });
             }
         });
         
@@ -672,17 +613,21 @@ public class BorrowedBooksComponent {
         mainContainer.setCenter(formContainer);
     }
     
-    private void loadMembersIntoComboBox() {
-        // Get all users from DAO
-        List<User> allUsers = userDAO.getAllUsers();
-        
-        // Filter to only include members
-        List<User> memberUsers = allUsers.stream()
-            .filter(user -> user.getRole() == UserRole.Member)
-            .collect(Collectors.toList());
-        
-        // Set items
-        memberComboBox.setItems(FXCollections.observableArrayList(memberUsers));
+    /**
+     * Fill the member combo box in the background
+     *
+     * @return Future completed on the JavaFX thread once the items are set
+     */
+    private CompletableFuture<Void> loadMembersIntoComboBox() {
+        ComboBox<User> comboBox = memberComboBox;
+        
+        // Get all users from DAO and filter to only include members
+        CompletableFuture<Void> loaded = AsyncDAO.users().call(UserDAO::getAllUsers, allUsers -> {
+            List<User> memberUsers = allUsers.stream()
+                .filter(user -> user.getRole() == UserRole.Member)
+                .collect(Collectors.toList());
+            comboBox.setItems(FXCollections.observableArrayList(memberUsers));
+        });
         
         // Set cell factory to display user name
         memberComboBox.setCellFactory(new Callback<ListView<User>, ListCell<User>>() {
@@ -714,19 +659,25 @@ public class BorrowedBooksComponent {
                 }
             }
         });
+        
+        return loaded;
     }
     
-    private void loadBooksIntoComboBox() {
-        // Get all books from DAO
-        List<Book> allBooks = bookDAO.getAllBooks();
-        
-        // Filter to only include available books
-        List<Book> availableBooks = allBooks.stream()
-            .filter(Book::isAvailable)  // Assuming your Book class has an isAvailable method
-            .collect(Collectors.toList());
-        
-        // Set items
-        bookComboBox.setItems(FXCollections.observableArrayList(availableBooks));
+    /**
+     * Fill the book combo box in the background
+     *
+     * @return Future completed on the JavaFX thread once the items are set
+     */
+    private CompletableFuture<Void> loadBooksIntoComboBox() {
+        ComboBox<Book> comboBox = bookComboBox;
+        
+        // Get all books from DAO and filter to only include available books
+        CompletableFuture<Void> loaded = AsyncDAO.books().call(BookDAO::getAllBooks, allBooks -> {
+            List<Book> availableBooks = allBooks.stream()
+                .filter(Book::isAvailable)
+                .collect(Collectors.toList());
+            comboBox.setItems(FXCollections.observableArrayList(availableBooks));
+        });
         
         // Set cell factory to display book title
         bookComboBox.setCellFactory(new Callback<ListView<Book>, ListCell<Book>>() {
@@ -758,6 +709,8 @@ public class BorrowedBooksComponent {
                 }
             }
         });
+        
+        return loaded;
     }
     
     private boolean validateForm() {
@@ -820,32 +773,7 @@ public class BorrowedBooksComponent {
             return false; // Only apply limits to members
         }
         
-        Member member = (Member) user;
-        MembershipType membershipType = member.getMembershipType();
-        int borrowLimit = getMemberBorrowLimit(membershipType);
-        
-        // Get active borrows for this member
-        List<BorrowRecord> activeBorrows = borrowRecordDAO.getBorrowRecordsByMember(member.getId())
-            .stream()
-            .filter(record -> record.getReturnDate() == null)
-            .collect(Collectors.toList());
-        
-        return activeBorrows.size() >= borrowLimit;
-    }
-    
-    // Helper method to get the borrow limit based on membership type
-    private int getMemberBorrowLimit(MembershipType membershipType) {
-        switch (membershipType) {
-            case Bronze:
-                return 3;
-            case Silver:
-                return 5;
-            case Gold:
-                return 8;
-            case Platinum:
-                return 10;
-            default:
-                return 3; // Default limit
-        }
+        MemberLoanSummary summary = borrowRecordDAO.getMemberLoanSummary(user.getId());
+        return summary != null && summary.hasReachedLimit();
     }
 }
\ No newline at end of file
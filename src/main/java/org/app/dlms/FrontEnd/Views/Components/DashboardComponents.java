@@ -6,6 +6,7 @@ import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.chart.CategoryAxis;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.PieChart;
@@ -20,23 +21,35 @@ import javafx.scene.text.Text;
 import org.app.dlms.Backend.Dao.UserDAO;
 import org.app.dlms.Backend.Model.Member;
 import org.app.dlms.Backend.Model.User;
-import org.app.dlms.Middleware.Enums.MembershipType;
+import org.app.dlms.Middleware.Enums.BorrowStatus;
 import org.app.dlms.Middleware.Enums.UserRole;
+import org.app.dlms.Middleware.Services.AsyncDAO;
 import org.app.dlms.Middleware.Services.ComponentService;
 import org.app.dlms.Backend.Dao.PaymentDAO;
 import org.app.dlms.Backend.Dao.FineDAO;
 import org.app.dlms.Backend.Model.Payment;
 import org.app.dlms.Backend.Model.Fine;
+import org.app.dlms.Backend.Model.Page;
+import org.app.dlms.Backend.Model.PaymentView;
 import org.app.dlms.Backend.Model.PaymentViewModel;
 import org.app.dlms.Backend.Dao.BookDAO;
+import org.app.dlms.Backend.Dao.BorrowActivityDAO;
 import org.app.dlms.Backend.Dao.BorrowRecordDAO;
-import org.app.dlms.Backend.Model.BorrowRecord;
-import org.app.dlms.Backend.Model.Book;
+import org.app.dlms.Backend.Dao.DashboardStatsDAO;
+import org.app.dlms.Backend.Model.ActivityBucket;
+import org.app.dlms.Backend.Model.DashboardStats;
+import org.app.dlms.Backend.Model.MemberLoanSummary;
+import org.app.dlms.Backend.Model.BorrowRecordView;
 
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import javafx.collections.FXCollections;
 import javafx.scene.control.ListCell;
@@ -59,6 +72,12 @@ import java.text.SimpleDateFormat;
  * Class containing all dashboard components
  */
 public class DashboardComponents {
+    private static final Logger LOGGER = Logger.getLogger(DashboardComponents.class.getName());
+
+    // Shown on stat cards until their value has loaded
+    private static final String LOADING = "...";
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yyyy");
+
     private ContentArea contentArea;
     private User currentUser;
 
@@ -96,12 +115,7 @@ public class DashboardComponents {
     }
 
     private Node createDashboardComponent() {
-        // Initialize DAOs
-        UserDAO userDAO = new UserDAO();
-        BookDAO bookDAO = new BookDAO();
-        BorrowRecordDAO borrowRecordDAO = new BorrowRecordDAO();
-        PaymentDAO paymentDAO = new PaymentDAO();
-        FineDAO fineDAO = new FineDAO();
+        long startTime = System.nanoTime();
         
         VBox container = new VBox(20);
         container.setPadding(new Insets(20));
@@ -115,41 +129,30 @@ public class DashboardComponents {
         HBox statsBox = new HBox(20);
         statsBox.setPrefHeight(120);
 
+        // Every tile shows a placeholder straight away and is filled by its own query;
+        // the queries run concurrently, so the dashboard takes as long as the slowest one
+        List<CompletableFuture<Void>> tiles = new ArrayList<>();
+        // Library-wide figures for the admin/librarian cards and the role chart, from one aggregate query
+        CompletableFuture<DashboardStats> stats = currentUser.getRole() == UserRole.Member ? null
+            : AsyncDAO.dashboardStats().call(DashboardStatsDAO::getStats);
+
         // Different stats for members vs admin/librarian
         if (currentUser.getRole() == UserRole.Member) {
             // Member-specific stats
             Member member = (Member) currentUser;
-            int borrowLimit = getMemberBorrowLimit(member.getMembershipType());
-            
-            // Get active borrow count for member
-            List<BorrowRecord> activeBorrows = borrowRecordDAO.getBorrowRecordsByMember(currentUser.getId())
-                .stream()
-                .filter(record -> record.getReturnDate() == null)
-                .collect(Collectors.toList());
-            int activeBorrowCount = activeBorrows.size();
-            
-            // Get all completed borrows
-            List<BorrowRecord> completedBorrows = borrowRecordDAO.getBorrowRecordsByMember(currentUser.getId())
-                .stream()
-                .filter(record -> record.getReturnDate() != null)
-                .collect(Collectors.toList());
-            int completedBorrowCount = completedBorrows.size();
-            
-            // Get overdue borrows
-            List<BorrowRecord> overdueBorrows = activeBorrows.stream()
-                .filter(record -> record.getDueDate().before(new Date()))
-                .collect(Collectors.toList());
-            int overdueBorrowCount = overdueBorrows.size();
-            
-            // Create stats cards for member
-            StackPane activeBorrowsCard = componentService.createStatCard("Active Borrows", 
-                String.valueOf(activeBorrowCount), "📚");
-            StackPane completedBorrowsCard = componentService.createStatCard("Returned Books", 
-                String.valueOf(completedBorrowCount), "✅");
-            StackPane overdueBorrowsCard = componentService.createStatCard("Overdue Books", 
-                String.valueOf(overdueBorrowCount), "⚠️");
-            StackPane borrowLimitCard = componentService.createStatCard("Borrow Limit", 
-                String.valueOf(borrowLimit), "🔢");
+            StackPane activeBorrowsCard = componentService.createStatCard("Active Borrows", LOADING, "📚");
+            StackPane completedBorrowsCard = componentService.createStatCard("Returned Books", LOADING, "✅");
+            StackPane overdueBorrowsCard = componentService.createStatCard("Overdue Books", LOADING, "⚠️");
+            StackPane borrowLimitCard = componentService.createStatCard("Borrow Limit", LOADING, "🔢");
+
+            // All four cards come from the member's loan summary, one cached aggregate query
+            CompletableFuture<MemberLoanSummary> loanSummary =
+                AsyncDAO.borrowRecords().call(dao -> dao.getMemberLoanSummary(member.getId()));
+            tiles.add(fillStatCard(activeBorrowsCard, loanSummary, MemberLoanSummary::getActiveLoans, String::valueOf));
+            tiles.add(fillStatCard(completedBorrowsCard, loanSummary, MemberLoanSummary::getReturnedLoans, String::valueOf));
+            tiles.add(fillStatCard(overdueBorrowsCard, loanSummary, MemberLoanSummary::getOverdueLoans, String::valueOf));
+            tiles.add(fillStatCard(borrowLimitCard, loanSummary, summary ->
+                summary.getRemainingBorrows() + " of " + summary.getBorrowLimit() + " left"));
 
             statsBox.getChildren().addAll(activeBorrowsCard, completedBorrowsCard, overdueBorrowsCard, borrowLimitCard);
             HBox.setHgrow(activeBorrowsCard, Priority.ALWAYS);
@@ -158,21 +161,16 @@ public class DashboardComponents {
             HBox.setHgrow(borrowLimitCard, Priority.ALWAYS);
         } else {
             // Admin/Librarian stats (original stats)
-            // Get dynamic data
-            int totalUsersCount = userDAO.getTotalUserCount();
-            int totalBooksCount = bookDAO.getTotalBookCount();
-            int activeLoansCount = borrowRecordDAO.getActiveLoansCount();
-            double monthlyRevenue = paymentDAO.getTotalPayments() + fineDAO.getTotalFines();
-
-            // Create stat cards with real data
-            StackPane totalUsers = componentService.createStatCard("Total Users", 
-                String.valueOf(totalUsersCount), "👥");
-            StackPane totalBooks = componentService.createStatCard("Total Books", 
-                String.valueOf(totalBooksCount), "📚");
-            StackPane activeLoans = componentService.createStatCard("Active Loans", 
-                String.valueOf(activeLoansCount), "📋");
-            StackPane monthlyRevenueCard = componentService.createStatCard("Total Revenue", 
-                "$" + String.format("%.2f", monthlyRevenue), "💰");
+            StackPane totalUsers = componentService.createStatCard("Total Users", LOADING, "👥");
+            StackPane totalBooks = componentService.createStatCard("Total Books", LOADING, "📚");
+            StackPane activeLoans = componentService.createStatCard("Active Loans", LOADING, "📋");
+            StackPane monthlyRevenueCard = componentService.createStatCard("Total Revenue", LOADING, "💰");
+
+            tiles.add(fillStatCard(totalUsers, stats, DashboardStats::getUserCount, String::valueOf));
+            tiles.add(fillStatCard(totalBooks, stats, DashboardStats::getBookCount, String::valueOf));
+            tiles.add(fillStatCard(activeLoans, stats, DashboardStats::getActiveLoans, String::valueOf));
+            tiles.add(fillStatCard(monthlyRevenueCard, stats, DashboardStats::getTotalRevenue,
+                revenue -> "$" + String.format("%.2f", revenue)));
 
             statsBox.getChildren().addAll(totalUsers, totalBooks, activeLoans, monthlyRevenueCard);
             HBox.setHgrow(totalUsers, Priority.ALWAYS);
@@ -190,50 +188,32 @@ public class DashboardComponents {
             Member member = (Member) currentUser;
             
             // Create borrow history chart
-            List<BorrowRecord> memberBorrows = borrowRecordDAO.getBorrowRecordsByMember(member.getId());
-            
             // Line chart for borrowing history
-            NumberAxis xAxis = new NumberAxis();
+            CategoryAxis xAxis = new CategoryAxis();
             NumberAxis yAxis = new NumberAxis();
             xAxis.setLabel("Last 6 Months");
             yAxis.setLabel("Number of Books");
             
-            LineChart<Number, Number> borrowingChart = new LineChart<>(xAxis, yAxis);
+            LineChart<String, Number> borrowingChart = new LineChart<>(xAxis, yAxis);
             borrowingChart.setTitle("Your Borrowing History");
             
             // Create data series for borrowed and returned
-            XYChart.Series<Number, Number> borrowedSeries = new XYChart.Series<>();
+            XYChart.Series<String, Number> borrowedSeries = new XYChart.Series<>();
             borrowedSeries.setName("Borrowed");
             
-            XYChart.Series<Number, Number> returnedSeries = new XYChart.Series<>();
+            XYChart.Series<String, Number> returnedSeries = new XYChart.Series<>();
             returnedSeries.setName("Returned");
             
-            // Add some dummy data for demonstration
-            // In a real app, you'd calculate this from the actual borrow records
-            borrowedSeries.getData().add(new XYChart.Data<>(1, 3));
-            borrowedSeries.getData().add(new XYChart.Data<>(2, 2));
-            borrowedSeries.getData().add(new XYChart.Data<>(3, 5));
-            borrowedSeries.getData().add(new XYChart.Data<>(4, 4));
-            borrowedSeries.getData().add(new XYChart.Data<>(5, 3));
-            borrowedSeries.getData().add(new XYChart.Data<>(6, 4));
-            
-            returnedSeries.getData().add(new XYChart.Data<>(1, 2));
-            returnedSeries.getData().add(new XYChart.Data<>(2, 1));
-            returnedSeries.getData().add(new XYChart.Data<>(3, 4));
-            returnedSeries.getData().add(new XYChart.Data<>(4, 3));
-            returnedSeries.getData().add(new XYChart.Data<>(5, 4));
-            returnedSeries.getData().add(new XYChart.Data<>(6, 2));
-            
             borrowingChart.getData().addAll(borrowedSeries, returnedSeries);
+            tiles.add(AsyncDAO.borrowActivity().call(
+                dao -> dao.getActivityByMember(member.getId(), BorrowActivityDAO.Granularity.MONTH, 6),
+                buckets -> fillActivityChart(borrowedSeries, returnedSeries, buckets, MONTH_LABEL)));
             
-            // Create a pie chart for current borrows by genre
+            // Create a pie chart for borrows by genre
             PieChart genreChart = new PieChart();
             genreChart.setTitle("Borrowed Books by Genre");
-            
-            // Dummy data for now - in a real app you'd need to join with book genres
-            genreChart.getData().add(new PieChart.Data("Fiction", 2));
-            genreChart.getData().add(new PieChart.Data("Science", 1));
-            genreChart.getData().add(new PieChart.Data("History", 1));
+            tiles.add(AsyncDAO.borrowActivity().call(dao -> dao.getLoansByGenreForMember(member.getId()),
+                loans -> fillGenreChart(genreChart, loans)));
             
             VBox chartContainer1 = new VBox(borrowingChart);
             VBox chartContainer2 = new VBox(genreChart);
@@ -243,29 +223,22 @@ public class DashboardComponents {
             HBox.setHgrow(chartContainer2, Priority.ALWAYS);
         } else {
             // Original charts for admin/librarian
-            // Pie chart for book categories
+            // Pie chart for loans per genre
             PieChart bookCategories = new PieChart();
-            bookCategories.setTitle("Book Categories");
-
-            bookCategories.getData().add(new PieChart.Data("Fiction", 35));
-            bookCategories.getData().add(new PieChart.Data("Science", 25));
-            bookCategories.getData().add(new PieChart.Data("History", 15));
-            bookCategories.getData().add(new PieChart.Data("Technology", 20));
-            bookCategories.getData().add(new PieChart.Data("Other", 5));
+            bookCategories.setTitle("Loans by Genre");
+            tiles.add(AsyncDAO.borrowActivity().call(BorrowActivityDAO::getLoansByGenre,
+                loans -> fillGenreChart(bookCategories, loans)));
             
             // Pie chart for user roles
             PieChart userRoles = new PieChart();
             userRoles.setTitle("User Roles");
             
-            // Calculate counts for different user roles
-            List<User> allUsers = userDAO.getAllUsers();
-            long memberCount = allUsers.stream().filter(u -> u.getRole() == UserRole.Member).count();
-            long librarianCount = allUsers.stream().filter(u -> u.getRole() == UserRole.Librarian).count();
-            long adminCount = allUsers.stream().filter(u -> u.getRole() == UserRole.Admin).count();
-            
-            userRoles.getData().add(new PieChart.Data("Members", memberCount));
-            userRoles.getData().add(new PieChart.Data("Librarians", librarianCount));
-            userRoles.getData().add(new PieChart.Data("Admins", adminCount));
+            // Role counts come with the dashboard statistics
+            tiles.add(AsyncDAO.onFx(stats, loaded -> {
+                userRoles.getData().add(new PieChart.Data("Members", loaded.getMemberCount()));
+                userRoles.getData().add(new PieChart.Data("Librarians", loaded.getLibrarianCount()));
+                userRoles.getData().add(new PieChart.Data("Admins", loaded.getAdminCount()));
+            }));
 
             VBox chartContainer1 = new VBox(userRoles);
             VBox chartContainer2 = new VBox(bookCategories);
@@ -282,55 +255,51 @@ public class DashboardComponents {
 
         VBox activitiesList = new VBox(5);
         
-        // Get recent borrow records - filtered by member ID if the user is a member
-        List<BorrowRecord> recentBorrows = new ArrayList<>();
-        try {
-            if (currentUser.getRole() == UserRole.Member) {
-                // For members, only show their own records
-                recentBorrows = borrowRecordDAO.getBorrowRecordsByMember(currentUser.getId());
-            } else {
-                // For admins/librarians, show all records
-                recentBorrows = borrowRecordDAO.getAllBorrowRecords();
-            }
-            
-            // Sort by most recent first
-            recentBorrows.sort((a, b) -> b.getBorrowDate().compareTo(a.getBorrowDate()));
-            
-            // Limit to 4 records
-            if (recentBorrows.size() > 4) {
-                recentBorrows = recentBorrows.subList(0, 4);
-            }
-        } catch (Exception e) {
-            System.err.println("Error fetching borrow records: " + e.getMessage());
-            e.printStackTrace();
-        }
+        activitiesList.getChildren().add(createActivityItem("Loading recent activities...", ""));
+        
+        // Get the 4 most recent borrow records with member and book details in one query,
+        // filtered by member ID if the user is a member
+        Integer memberId = currentUser.getRole() == UserRole.Member ? currentUser.getId() : null;
+        tiles.add(AsyncDAO.borrowRecords().call(dao -> dao.getBorrowRecordViews(memberId, BorrowStatus.All, null, 4),
+            recentBorrows -> showRecentActivities(activitiesList, recentBorrows)));
+        
+        activitiesBox.getChildren().addAll(activitiesHeader, activitiesList);
+
+        // Add all components to container
+        container.getChildren().addAll(header, statsBox, chartsBox, activitiesBox);
+
+        ScrollPane scrollPane = new ScrollPane(container);
+        scrollPane.setFitToWidth(true);
+        scrollPane.setStyle("-fx-background-color: transparent;");
+
+        // Time to first paint and to the last tile; logged at FINE
+        LOGGER.fine(() -> String.format("Dashboard placeholders ready in %.1f ms", (System.nanoTime() - startTime) / 1e6));
+        CompletableFuture.allOf(tiles.toArray(new CompletableFuture[0])).whenComplete((ignored, error) ->
+            LOGGER.fine(() -> String.format("Dashboard tiles loaded in %.1f ms", (System.nanoTime() - startTime) / 1e6)));
+
+        return scrollPane;
+    }
+
+    private void showRecentActivities(VBox activitiesList, List<BorrowRecordView> recentBorrows) {
+        activitiesList.getChildren().clear();
 
         // Create activity items
-        for (BorrowRecord record : recentBorrows) {
+        for (BorrowRecordView record : recentBorrows) {
             try {
-                User member = userDAO.getUserById(record.getMemberId());
-                Book book = bookDAO.getBookById(record.getBookId());
-                
-                // Skip this record if either member or book is null
-                if (member == null || book == null) {
-                    System.out.println("Skipping borrow record: member or book is null");
-                    continue;
-                }
-                
                 String activity = "";
                 String timeAgo = formatTimeAgo(record.getBorrowDate());
                 
                 if (record.getReturnDate() != null) {
                     if (currentUser.getRole() == UserRole.Member) {
-                        activity = "You returned '" + book.getTitle() + "'";
+                        activity = "You returned '" + record.getBookTitle() + "'";
                     } else {
-                        activity = member.getName() + " returned '" + book.getTitle() + "'";
+                        activity = record.getMemberName() + " returned '" + record.getBookTitle() + "'";
                     }
                 } else {
                     if (currentUser.getRole() == UserRole.Member) {
-                        activity = "You borrowed '" + book.getTitle() + "'";
+                        activity = "You borrowed '" + record.getBookTitle() + "'";
                     } else {
-                        activity = member.getName() + " borrowed '" + book.getTitle() + "'";
+                        activity = record.getMemberName() + " borrowed '" + record.getBookTitle() + "'";
                     }
                 }
                 
@@ -346,17 +315,40 @@ public class DashboardComponents {
         if (activitiesList.getChildren().isEmpty()) {
             activitiesList.getChildren().add(createActivityItem("No recent activities", ""));
         }
-        
-        activitiesBox.getChildren().addAll(activitiesHeader, activitiesList);
+    }
 
-        // Add all components to container
-        container.getChildren().addAll(header, statsBox, chartsBox, activitiesBox);
+    /**
+     * Show a stat card's value once its query has finished, or "N/A" if it failed or found nothing
+     */
+    private <T> CompletableFuture<Void> fillStatCard(StackPane card, CompletableFuture<T> value, Function<T, String> format) {
+        return AsyncDAO.onFx(value.handle((result, error) -> error == null && result != null ? format.apply(result) : "N/A"),
+            text -> componentService.setStatCardValue(card, text));
+    }
 
-        ScrollPane scrollPane = new ScrollPane(container);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setStyle("-fx-background-color: transparent;");
+    /**
+     * Plot borrows and returns per period, labelling each period by its start
+     */
+    private void fillActivityChart(XYChart.Series<String, Number> borrowedSeries, XYChart.Series<String, Number> returnedSeries,
+                                   List<ActivityBucket> buckets, DateTimeFormatter label) {
+        for (ActivityBucket bucket : buckets) {
+            String period = bucket.getStart().format(label);
+            borrowedSeries.getData().add(new XYChart.Data<>(period, bucket.getBorrows()));
+            returnedSeries.getData().add(new XYChart.Data<>(period, bucket.getReturns()));
+        }
+    }
 
-        return scrollPane;
+    private void fillGenreChart(PieChart chart, Map<String, Integer> loans) {
+        for (Map.Entry<String, Integer> entry : loans.entrySet()) {
+            chart.getData().add(new PieChart.Data(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Show one figure of a shared query on a stat card
+     */
+    private <S, T> CompletableFuture<Void> fillStatCard(StackPane card, CompletableFuture<S> source,
+                                                       Function<S, T> field, Function<T, String> format) {
+        return fillStatCard(card, source.thenApply(field), format);
     }
 
     private HBox createActivityItem(String activity, String time) {
@@ -408,6 +400,7 @@ public class DashboardComponents {
         // Create a typed TableView for User objects
         TableView<User> usersTable = new TableView<>();
         usersTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        PagedTableSource<User> usersSource = new PagedTableSource<>(usersTable);
 
         // Create properly typed columns
         TableColumn<User, Integer> idCol = new TableColumn<>("ID");
@@ -472,7 +465,7 @@ public class DashboardComponents {
                         boolean deleted = userDAO.deleteUser(user.getId());
                         if (deleted) {
                             // Refresh the table
-                            loadUsers(usersTable);
+                            loadUsers(usersSource);
                         } else {
                             showErrorAlert("Failed to delete user.");
                         }
@@ -494,13 +487,15 @@ public class DashboardComponents {
         usersTable.getColumns().addAll(idCol, nameCol, emailCol, phoneCol, roleCol, membershipCol, actionCol);
         VBox.setVgrow(usersTable, Priority.ALWAYS);
 
-        // Add search functionality
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filterUsers(usersTable, newValue);
-        });
+        // Search as the user types; an empty field shows all users again
+        new SearchAsYouType<>(searchField, new UserDAO()::searchUsers,
+                user -> new String[]{String.valueOf(user.getId()), user.getName(), user.getUsername(),
+                        user.getEmail(), user.getPhone()},
+                UserDAO::canNarrowSearch, UserDAO.MAX_SEARCH_RESULTS,
+                rows -> usersSource.showAll(rows), () -> loadUsers(usersSource));
         System.out.println(usersTable);
         // Populate the table with users
-        loadUsers(usersTable);
+        loadUsers(usersSource);
 
         usersView.getChildren().addAll(header, actionsBar, usersTable);
 
@@ -523,7 +518,7 @@ public class DashboardComponents {
                     isAddUserFormVisible = false;
                     mainContainer.setTop(null);
                     // Refresh the table after returning to it
-                    loadUsers(usersTable);
+                    loadUsers(usersSource);
                 });
 
                 HBox backButtonContainer = new HBox(backButton);
@@ -535,39 +530,13 @@ public class DashboardComponents {
         return mainContainer;
     }
 
-    // Method to load users from UserDAO
-    private void loadUsers(TableView<User> usersTable) {
-        // Clear existing items
-        usersTable.getItems().clear();
-
-        // Create UserDAO instance
-        UserDAO userDAO = new UserDAO();
-
-        // Fetch users from database through DAO
-        List<User> users = userDAO.getAllUsers();
-
-        // Add users to the table
-        usersTable.getItems().addAll(users);
-    }
-
-    // Method to filter users based on search text
-    private void filterUsers(TableView<User> usersTable, String searchText) {
-        if (searchText == null || searchText.isEmpty()) {
-            // If search text is empty, reload all users
-            loadUsers(usersTable);
-            return;
-        }
-
+    // Method to load users from UserDAO, one page at a time as the table scrolls
+    private void loadUsers(PagedTableSource<User> usersSource) {
         // Create UserDAO instance
         UserDAO userDAO = new UserDAO();
 
-        // Use UserDAO to search for users
-        // This assumes you have a searchUsers method in your UserDAO
-        List<User> filteredUsers = userDAO.searchUsers(searchText);
-
-        // Update table with filtered users
-        usersTable.getItems().clear();
-        usersTable.getItems().addAll(filteredUsers);
+        // Pages are fetched from the database in the background
+        usersSource.load(userDAO::getUsersPage);
     }
 
     // Helper method to show error alerts
@@ -666,48 +635,28 @@ public class DashboardComponents {
         HBox statsBox = new HBox(20);
         statsBox.setPrefHeight(100);
 
-        // Fetch actual data based on user role
-        double subscriptionTotal = 0.0;
-        double fineTotal = 0.0;
-        double pendingFines = 0.0;
+        // Stat cards show a placeholder until their queries, which run concurrently, have finished
+        StackPane subscriptionTotalCard = componentService.createStatCard("Subscription Total", LOADING, "💳");
+        StackPane finesTotalCard = componentService.createStatCard("Fines Total", LOADING, "💰");
+        StackPane pendingFinesCard = componentService.createStatCard("Pending Fines", LOADING, "⚠️");
         
+        Function<Double, String> money = amount -> "$" + String.format("%.2f", amount);
         if (currentUser.getRole() == UserRole.Member) {
             // For a member, only show their own payment stats
-            subscriptionTotal = paymentDAO.getTotalPaymentsByMemberId(currentUser.getId());
-            pendingFines = fineDAO.getTotalUnpaidFinesByMemberId(currentUser.getId());
-            // Calculate total fines for this member
-            List<Fine> memberFines = fineDAO.getFinesByMemberId(currentUser.getId());
-            for (Fine fine : memberFines) {
-                if (fine.isPaid()) {
-                    fineTotal += fine.getAmount();
-                }
-            }
+            int memberId = currentUser.getId();
+            fillStatCard(subscriptionTotalCard, AsyncDAO.payments().call(dao -> dao.getTotalPaymentsByMemberId(memberId)), money);
+            fillStatCard(pendingFinesCard, AsyncDAO.fines().call(dao -> dao.getTotalUnpaidFinesByMemberId(memberId)), money);
+            // Calculate total paid fines for this member
+            fillStatCard(finesTotalCard, AsyncDAO.fines().call(dao -> dao.getFinesByMemberId(memberId)), memberFines -> 
+                money.apply(memberFines.stream().filter(Fine::isPaid).mapToDouble(Fine::getAmount).sum()));
         } else {
             // For admin/librarian, show all payment stats
-            subscriptionTotal = paymentDAO.getTotalPayments();
-            fineTotal = fineDAO.getTotalFines();
-            pendingFines = fineDAO.getTotalUnpaidFines();
+            CompletableFuture<DashboardStats> stats = AsyncDAO.dashboardStats().call(DashboardStatsDAO::getStats);
+            fillStatCard(subscriptionTotalCard, stats, DashboardStats::getSubscriptionRevenue, money);
+            fillStatCard(finesTotalCard, stats, DashboardStats::getFineRevenue, money);
+            fillStatCard(pendingFinesCard, stats, DashboardStats::getUnpaidFines, money);
         }
 
-        // Create stat cards with actual data
-        StackPane subscriptionTotalCard = componentService.createStatCard(
-            "Subscription Total", 
-            "$" + String.format("%.2f", subscriptionTotal), 
-            "💳"
-        );
-        
-        StackPane finesTotalCard = componentService.createStatCard(
-            "Fines Total", 
-            "$" + String.format("%.2f", fineTotal), 
-            "💰"
-        );
-        
-        StackPane pendingFinesCard = componentService.createStatCard(
-            "Pending Fines", 
-            "$" + String.format("%.2f", pendingFines), 
-            "⚠️"
-        );
-
         statsBox.getChildren().addAll(subscriptionTotalCard, finesTotalCard, pendingFinesCard);
         HBox.setHgrow(subscriptionTotalCard, Priority.ALWAYS);
         HBox.setHgrow(finesTotalCard, Priority.ALWAYS);
@@ -852,21 +801,16 @@ public class DashboardComponents {
         paymentsTable.getColumns().addAll(idCol, userCol, amountCol, typeCol, dateCol, statusCol, descriptionCol, actionCol);
         VBox.setVgrow(paymentsTable, Priority.ALWAYS);
         
-        // Load initial data
-        loadPaymentsData(paymentsTable, userDAO, paymentDAO, fineDAO);
+        // Filtering and paging happen in the database, one page per query as the user scrolls
+        PagedTableSource<PaymentViewModel> paymentsSource = new PagedTableSource<>(paymentsTable);
+        showPayments(paymentsSource, paymentDAO, null, typeFilter.getValue());
         
         // Add event handlers
         searchField.textProperty().addListener((obs, oldVal, newVal) -> 
-            filterPayments(paymentsTable, newVal, typeFilter.getValue()));
+            showPayments(paymentsSource, paymentDAO, newVal, typeFilter.getValue()));
             
-        typeFilter.setOnAction(e -> {
-            String selectedType = typeFilter.getValue();
-            System.out.println("Type filter changed to: " + selectedType);
-            // Reload data to ensure we have the complete set of payments
-            loadPaymentsData(paymentsTable, userDAO, paymentDAO, fineDAO);
-            // Then apply the filter
-            filterPayments(paymentsTable, searchField.getText(), selectedType);
-        });
+        typeFilter.setOnAction(e -> 
+            showPayments(paymentsSource, paymentDAO, searchField.getText(), typeFilter.getValue()));
             
         recordPaymentBtn.setOnAction(e -> 
             showRecordPaymentDialog(paymentsTable, userDAO, paymentDAO, fineDAO));
@@ -876,122 +820,32 @@ public class DashboardComponents {
         return container;
     }
     
-    private void loadPaymentsData(TableView<PaymentViewModel> paymentsTable, UserDAO userDAO, 
-                                 PaymentDAO paymentDAO, FineDAO fineDAO) {
-        List<PaymentViewModel> paymentViewModels = new ArrayList<>();
-        
-        // Load payment data based on user role
-        if (currentUser.getRole() == UserRole.Member) {
-            // For members, only show their own payments
-            int memberId = currentUser.getId();
-            
-            // Load subscription payments
-            List<Payment> payments = paymentDAO.getPaymentsByMemberId(memberId);
-            for (Payment payment : payments) {
-                User user = userDAO.getUserById(memberId);
-                paymentViewModels.add(new PaymentViewModel(
+    /**
+     * Show the payments and fines matching the filter, newest first, one page per query
+     * as the user scrolls. Members only see their own payments and fines.
+     */
+    private void showPayments(PagedTableSource<PaymentViewModel> paymentsSource, PaymentDAO paymentDAO,
+                              String searchText, String filterType) {
+        Integer memberId = currentUser.getRole() == UserRole.Member ? currentUser.getId() : null;
+        String type = "Subscriptions".equals(filterType) ? "Subscription"
+                : "Fines".equals(filterType) ? "Fine" : null;
+        paymentsSource.load((after, pageSize) -> {
+            Page<PaymentView> page = paymentDAO.getPaymentsAndFinesPage(memberId, type, searchText, after, pageSize);
+            List<PaymentViewModel> rows = new ArrayList<>();
+            for (PaymentView payment : page.getItems()) {
+                rows.add(new PaymentViewModel(
                     payment.getId(),
-                    user.getName(),
-                    payment.getAmount(),
-                    "Subscription",
-                    payment.getPaymentDate(),
-                    "Paid",
-                    "Membership payment",
-                    0
-                ));
-            }
-            
-            // Load fines
-            List<Fine> fines = fineDAO.getFinesByMemberId(memberId);
-            for (Fine fine : fines) {
-                User user = userDAO.getUserById(memberId);
-                paymentViewModels.add(new PaymentViewModel(
-                    fine.getId(),
-                    user.getName(),
-                    fine.getAmount(),
-                    "Fine",
-                    new Date(), // We don't have a date in the Fine model, so use current date
-                    fine.isPaid() ? "Paid" : "Pending",
-                    "Fine for book return delay",
-                    fine.getBorrowRecordId()
-                ));
-            }
-        } else {
-            // For admin/librarian, show all payments
-            // Load all subscription payments from database
-            List<Payment> allPayments = paymentDAO.getAllPayments();
-            for (Payment payment : allPayments) {
-                User user = userDAO.getUserById(payment.getMemberId());
-                String userName = user != null ? user.getName() : "Unknown User";
-                
-                paymentViewModels.add(new PaymentViewModel(
-                    payment.getId(),
-                    userName,
+                    payment.getMemberName(),
                     payment.getAmount(),
                     payment.getType(),
                     payment.getPaymentDate(),
-                    "Paid",
+                    payment.getStatus(),
                     payment.getDescription(),
                     payment.getRelatedRecordId()
                 ));
             }
-
-            // Load all fines
-            List<Fine> allFines = fineDAO.getAllFines();
-            for (Fine fine : allFines) {
-                User user = userDAO.getUserById(fine.getMemberId());
-                String userName = user != null ? user.getName() : "Unknown User";
-                
-                paymentViewModels.add(new PaymentViewModel(
-                    fine.getId(),
-                    userName,
-                    fine.getAmount(),
-                    "Fine",
-                    new Date(), // We don't have a date in the Fine model
-                    fine.isPaid() ? "Paid" : "Pending",
-                    "Fine for book return delay",
-                    fine.getBorrowRecordId()
-                ));
-            }
-        }
-        
-        paymentsTable.setItems(FXCollections.observableArrayList(paymentViewModels));
-    }
-    
-    private void filterPayments(TableView<PaymentViewModel> paymentsTable, String searchText, String filterType) {
-        // Get a reference to the original, unfiltered data
-        ObservableList<PaymentViewModel> allPayments = paymentsTable.getItems();
-        
-        System.out.println("Filtering payments. Filter type: " + filterType + ", Search text: " + searchText);
-        System.out.println("Total payments before filter: " + allPayments.size());
-        
-        // Create a filtered list
-        List<PaymentViewModel> filteredList = new ArrayList<>();
-        
-        for (PaymentViewModel payment : allPayments) {
-            // Apply type filter
-            boolean matchesType = "All".equals(filterType) 
-                || ("Subscriptions".equals(filterType) && "Subscription".equals(payment.getType()))
-                || ("Fines".equals(filterType) && "Fine".equals(payment.getType()));
-            
-            // Apply text search
-            boolean matchesSearch = searchText == null || searchText.isEmpty() ||
-                payment.getUserName().toLowerCase().contains(searchText.toLowerCase()) ||
-                payment.getDescription().toLowerCase().contains(searchText.toLowerCase());
-            
-            if (matchesType && matchesSearch) {
-                filteredList.add(payment);
-                System.out.println("Added payment to filtered list: ID=" + payment.getId() + 
-                    ", Type=" + payment.getType() + ", User=" + payment.getUserName());
-            } else {
-                System.out.println("Filtered out payment: ID=" + payment.getId() + 
-                    ", Type=" + payment.getType() + ", matchesType=" + matchesType + 
-                    ", matchesSearch=" + matchesSearch);
-            }
-        }
-        
-        System.out.println("Total payments after filter: " + filteredList.size());
-        paymentsTable.setItems(FXCollections.observableArrayList(filteredList));
+            return new Page<>(rows, page.getNextCursor());
+        });
     }
     
     private void showPaymentDetails(PaymentViewModel payment) {
@@ -1337,22 +1191,6 @@ public class DashboardComponents {
         return paymentsComponent;
     }
 
-    // Helper method to get the borrow limit based on membership type
-    private int getMemberBorrowLimit(MembershipType membershipType) {
-        switch (membershipType) {
-            case Bronze:
-                return 3;
-            case Silver:
-                return 5;
-            case Gold:
-                return 8;
-            case Platinum:
-                return 10;
-            default:
-                return 3; // Default limit
-        }
-    }
-
     // Helper method to format "time ago" text
     private String formatTimeAgo(Date date) {
         if (date == null) {
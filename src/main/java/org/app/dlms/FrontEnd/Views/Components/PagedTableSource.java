@@ -0,0 +1,274 @@
+package org.app.dlms.FrontEnd.Views.Components;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+import org.app.dlms.Backend.Model.Page;
+import org.app.dlms.Backend.Model.PageCursor;
+import org.app.dlms.Middleware.Services.AsyncDAO;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fills a TableView page by page from a keyset-paginated DAO query.
+ *
+ * Only the first page is loaded when the table is shown. Further pages are
+ * appended as the user scrolls towards the end, and the page after the last
+ * one shown is always fetched ahead through AsyncDAO so it is usually
+ * ready before it is needed. At most maxPages pages are kept in the table;
+ * when that limit is passed the pages furthest from the visible rows are
+ * dropped and loaded again from their cursors if the user scrolls back.
+ *
+ * All table updates happen on the JavaFX application thread.
+ *
+ * @param <T> The row type of the table
+ */
+public class PagedTableSource<T> {
+
+    /**
+     * Loads one page of rows, e.g. a DAO getXxxPage method
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        Page<T> fetch(PageCursor after, int pageSize);
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_PAGES = 5;
+
+    private final TableView<T> table;
+    private final int pageSize;
+    private final int maxPages;
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+
+    private PageFetcher<T> fetcher;
+    private final List<PageCursor> pageStarts = new ArrayList<>(); // Cursor that loads page i, null for page 0
+    private final Deque<Integer> loadedPageSizes = new ArrayDeque<>(); // Row counts of the pages in the table
+    private int firstPage;          // Index of the first page in the table
+    private boolean endReached;     // The last page in the table is the last page of the query
+    private boolean loading;
+    private int generation;         // Bumped on every reset so late results of an old query are ignored
+    private CompletableFuture<Page<T>> prefetch;
+    private int prefetchPage = -1;
+    private VirtualFlow<?> flow;
+
+    public PagedTableSource(TableView<T> table) {
+        this(table, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+    }
+
+    public PagedTableSource(TableView<T> table, int pageSize, int maxPages) {
+        this.table = table;
+        this.pageSize = pageSize;
+        this.maxPages = Math.max(2, maxPages);
+        table.setItems(items);
+
+        table.skinProperty().addListener((observable, oldSkin, newSkin) -> Platform.runLater(this::attachScrollListener));
+        if (table.getSkin() != null) {
+            attachScrollListener();
+        }
+    }
+
+    /**
+     * Show the rows of a paginated query, starting from its first page
+     *
+     * @param fetcher Loads a page of the query
+     */
+    public void load(PageFetcher<T> fetcher) {
+        reset();
+        this.fetcher = fetcher;
+        requestNextPage();
+    }
+
+    /**
+     * Load the current query again from its first page, e.g. after rows were added or deleted
+     */
+    public void reload() {
+        if (fetcher != null) {
+            load(fetcher);
+        }
+    }
+
+    /**
+     * Show a list that is not paginated, such as search results
+     *
+     * @param rows The rows to show
+     */
+    public void showAll(List<T> rows) {
+        reset();
+        fetcher = null;
+        endReached = true;
+        items.setAll(rows);
+    }
+
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    private void reset() {
+        generation++;
+        if (prefetch != null) {
+            prefetch.cancel(false);
+        }
+        prefetch = null;
+        prefetchPage = -1;
+        pageStarts.clear();
+        pageStarts.add(null);
+        loadedPageSizes.clear();
+        firstPage = 0;
+        endReached = false;
+        loading = false;
+        items.clear();
+    }
+
+    private CompletableFuture<Page<T>> fetchAsync(PageCursor after) {
+        PageFetcher<T> currentFetcher = fetcher;
+        return AsyncDAO.supplyAsync(() -> currentFetcher.fetch(after, pageSize));
+    }
+
+    /**
+     * Append the page after the last one in the table
+     */
+    private void requestNextPage() {
+        if (loading || endReached || fetcher == null) {
+            return;
+        }
+        int pageIndex = firstPage + loadedPageSizes.size();
+        CompletableFuture<Page<T>> future = prefetchPage == pageIndex && prefetch != null
+                ? prefetch
+                : fetchAsync(pageStarts.get(pageIndex));
+        prefetch = null;
+        prefetchPage = -1;
+
+        loading = true;
+        int requestGeneration = generation;
+        future.whenComplete((page, error) -> Platform.runLater(() -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (error != null) {
+                System.err.println("Error loading table page " + pageIndex + ": " + error.getMessage());
+                return;
+            }
+            appendPage(pageIndex, page);
+        }));
+    }
+
+    /**
+     * Prepend the page before the first one in the table
+     */
+    private void requestPreviousPage() {
+        if (loading || firstPage == 0 || fetcher == null) {
+            return;
+        }
+        int pageIndex = firstPage - 1;
+        loading = true;
+        int requestGeneration = generation;
+        fetchAsync(pageStarts.get(pageIndex)).whenComplete((page, error) -> Platform.runLater(() -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (error != null) {
+                System.err.println("Error loading table page " + pageIndex + ": " + error.getMessage());
+                return;
+            }
+            prependPage(page);
+        }));
+    }
+
+    private void appendPage(int pageIndex, Page<T> page) {
+        items.addAll(page.getItems());
+        loadedPageSizes.addLast(page.getItems().size());
+
+        if (page.hasNext()) {
+            int nextIndex = pageIndex + 1;
+            if (nextIndex == pageStarts.size()) {
+                pageStarts.add(page.getNextCursor());
+            }
+            prefetchPage = nextIndex;
+            prefetch = fetchAsync(page.getNextCursor());
+        } else {
+            endReached = true;
+        }
+
+        // Keep the window bounded by dropping pages from the top
+        while (loadedPageSizes.size() > maxPages) {
+            int firstVisible = firstVisibleIndex();
+            int removed = loadedPageSizes.removeFirst();
+            items.remove(0, removed);
+            firstPage++;
+            table.scrollTo(Math.max(0, firstVisible - removed));
+        }
+
+        // The new rows may still not fill the viewport
+        Platform.runLater(this::checkScrollPosition);
+    }
+
+    private void prependPage(Page<T> page) {
+        int firstVisible = firstVisibleIndex();
+        items.addAll(0, page.getItems());
+        loadedPageSizes.addFirst(page.getItems().size());
+        firstPage--;
+        table.scrollTo(firstVisible + page.getItems().size());
+
+        // Keep the window bounded by dropping pages from the bottom
+        while (loadedPageSizes.size() > maxPages) {
+            int removed = loadedPageSizes.removeLast();
+            items.remove(items.size() - removed, items.size());
+            endReached = false;
+            if (prefetch != null) {
+                prefetch.cancel(false);
+            }
+            prefetch = null;
+            prefetchPage = -1;
+        }
+    }
+
+    private void attachScrollListener() {
+        if (flow != null) {
+            return;
+        }
+        for (Node node : table.lookupAll(".virtual-flow")) {
+            if (node instanceof VirtualFlow) {
+                flow = (VirtualFlow<?>) node;
+            }
+        }
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                ((ScrollBar) node).valueProperty().addListener((observable, oldValue, newValue) -> checkScrollPosition());
+            }
+        }
+    }
+
+    /**
+     * Load the next or previous page when the visible rows come within half a page of either end
+     */
+    private void checkScrollPosition() {
+        if (flow == null || items.isEmpty()) {
+            return;
+        }
+        IndexedCell<?> first = flow.getFirstVisibleCell();
+        IndexedCell<?> last = flow.getLastVisibleCell();
+        if (last != null && last.getIndex() >= items.size() - pageSize / 2) {
+            requestNextPage();
+        } else if (first != null && first.getIndex() < pageSize / 2) {
+            requestPreviousPage();
+        }
+    }
+
+    private int firstVisibleIndex() {
+        IndexedCell<?> first = flow != null ? flow.getFirstVisibleCell() : null;
+        return first != null ? first.getIndex() : 0;
+    }
+}
@@ -114,18 +114,22 @@ public class ProfileComponent {
         // Handle save button action
         saveButton.setOnAction(e -> {
             if (validateForm(nameField, passwordField, confirmPasswordField, emailField, phoneField)) {
-                // Update user details
-                currentUser.setName(nameField.getText().trim());
-                currentUser.setEmail(emailField.getText().trim());
-                currentUser.setPhone(phoneField.getText().trim());
+                // Edit a copy, so the session user only changes once the update is saved
+                User edited = currentUser.copy();
+                edited.setName(nameField.getText().trim());
+                edited.setEmail(emailField.getText().trim());
+                edited.setPhone(phoneField.getText().trim());
                 
                 // Only update password if new one is provided
                 if (!passwordField.getText().isEmpty()) {
-                    currentUser.setPassword(passwordField.getText().trim());
+                    edited.setPassword(passwordField.getText().trim());
                 }
                 
-                boolean updated = userDAO.updateUser(currentUser);
+                boolean updated = userDAO.updateUser(edited);
                 if (updated) {
+                    currentUser.setName(edited.getName());
+                    currentUser.setEmail(edited.getEmail());
+                    currentUser.setPhone(edited.getPhone());
                     showAlert(Alert.AlertType.INFORMATION, "Success", "Your profile has been updated successfully.");
                     // Clear password fields after successful update
                     passwordField.clear();
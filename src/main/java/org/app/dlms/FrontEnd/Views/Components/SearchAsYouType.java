@@ -0,0 +1,187 @@
+package org.app.dlms.FrontEnd.Views.Components;
+
+import javafx.animation.PauseTransition;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import org.app.dlms.Middleware.Search.TextNormalizer;
+import org.app.dlms.Middleware.Services.AsyncDAO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a search while the user types in a text field.
+ *
+ * A query starts only once typing pauses for the debounce delay, so a word
+ * typed at normal speed costs one query instead of one per letter. Starting
+ * a query supersedes the one in flight: if it has not reached the database
+ * yet it is skipped, and its results are never shown, so a slow early query
+ * can not overwrite the results of a later one.
+ *
+ * When the new text only adds to the text of the last query, every match is
+ * already among that query's results, so they are filtered in memory with the
+ * same prefix rules as the search indexes instead of querying again. This
+ * only happens when the last query returned fewer rows than its limit (a
+ * full list may be cut off), found something, and the search allows it for
+ * the two texts; otherwise, e.g. when a misspelling needs the fuzzy search,
+ * the database is asked.
+ *
+ * All methods must be called on the JavaFX application thread.
+ *
+ * @param <T> The type of the rows searched
+ */
+public class SearchAsYouType<T> {
+
+    public static final Duration DEFAULT_DELAY = Duration.millis(250);
+
+    private final Function<String, List<T>> search;
+    private final Function<T, String[]> searchableFields;
+    private final BiPredicate<String, String> canNarrow;
+    private final int resultLimit;
+    private final Consumer<List<T>> onResults;
+    private final Runnable onCleared;
+    private final PauseTransition debounce;
+
+    private String shownText = "";         // Folded text of the results on screen
+    private String fetchedText;            // Folded text of the last completed query, null if none
+    private List<T> fetchedRows;           // Its results, in ranked order
+    private volatile int generation;       // Bumped for every query so superseded ones are dropped
+    private CompletableFuture<Void> inFlight;
+
+    /**
+     * @param field The search field to listen to
+     * @param search The database search, run in the background
+     * @param searchableFields The text of a row's searchable fields, for filtering in memory
+     * @param resultLimit The most rows the search returns
+     * @param onResults Shows the rows found
+     * @param onCleared Called when the field is emptied
+     */
+    public SearchAsYouType(TextField field, Function<String, List<T>> search, Function<T, String[]> searchableFields,
+                           int resultLimit, Consumer<List<T>> onResults, Runnable onCleared) {
+        this(field, search, searchableFields, (previous, next) -> true, resultLimit, onResults, onCleared);
+    }
+
+    /**
+     * For a search that only follows the prefix rules of the search indexes
+     * for some texts, e.g. one that looks up IDs exactly
+     *
+     * @param field The search field to listen to
+     * @param search The database search, run in the background
+     * @param searchableFields The text of a row's searchable fields, for filtering in memory
+     * @param canNarrow Whether the results for the first text, folded, may be filtered in memory
+     *                  for the second, which starts with it
+     * @param resultLimit The most rows the search returns
+     * @param onResults Shows the rows found
+     * @param onCleared Called when the field is emptied
+     */
+    public SearchAsYouType(TextField field, Function<String, List<T>> search, Function<T, String[]> searchableFields,
+                           BiPredicate<String, String> canNarrow, int resultLimit, Consumer<List<T>> onResults,
+                           Runnable onCleared) {
+        this.search = search;
+        this.searchableFields = searchableFields;
+        this.canNarrow = canNarrow;
+        this.resultLimit = resultLimit;
+        this.onResults = onResults;
+        this.onCleared = onCleared;
+
+        debounce = new PauseTransition(DEFAULT_DELAY);
+        debounce.setOnFinished(e -> run(field.getText()));
+        field.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue == null || newValue.trim().isEmpty()) {
+                clear();
+            } else {
+                debounce.playFromStart();
+            }
+        });
+    }
+
+    /**
+     * Run the search for the field's text again right away, bypassing the
+     * results in memory, e.g. after rows were added or deleted
+     *
+     * @param text The current text of the field
+     */
+    public void refresh(String text) {
+        debounce.stop();
+        fetchedText = null;
+        fetchedRows = null;
+        shownText = "";
+        if (text == null || text.trim().isEmpty()) {
+            clear();
+        } else {
+            run(text);
+        }
+    }
+
+    private void run(String text) {
+        String folded = TextNormalizer.fold(text.trim());
+        if (folded.equals(shownText)) {
+            // e.g. a trailing space was typed, or a letter typed and erased again while its query ran
+            cancelInFlight();
+            return;
+        }
+
+        if (fetchedText != null && folded.startsWith(fetchedText) && fetchedRows.size() < resultLimit
+                && canNarrow.test(fetchedText, folded)) {
+            List<T> rows = narrow(fetchedRows, folded);
+            if (!rows.isEmpty()) {
+                cancelInFlight();
+                shownText = folded;
+                onResults.accept(rows);
+                return;
+            }
+        }
+        query(text.trim(), folded);
+    }
+
+    private void query(String text, String folded) {
+        cancelInFlight();
+        int requestGeneration = ++generation;
+
+        // A query still waiting for a connection when it is superseded never runs
+        CompletableFuture<List<T>> future = AsyncDAO.supplyAsync(
+                () -> requestGeneration == generation ? search.apply(text) : null);
+        inFlight = AsyncDAO.onFx(future, rows -> {
+            if (requestGeneration != generation || rows == null) {
+                return;
+            }
+            inFlight = null;
+            fetchedText = folded;
+            fetchedRows = rows;
+            shownText = folded;
+            onResults.accept(rows);
+        });
+    }
+
+    private List<T> narrow(List<T> rows, String folded) {
+        List<String> queryTerms = TextNormalizer.tokenize(folded);
+        List<T> matching = new ArrayList<>();
+        for (T row : rows) {
+            if (TextNormalizer.matchesAll(queryTerms, searchableFields.apply(row))) {
+                matching.add(row);
+            }
+        }
+        return matching;
+    }
+
+    private void clear() {
+        debounce.stop();
+        cancelInFlight();
+        fetchedText = null;
+        fetchedRows = null;
+        shownText = "";
+        onCleared.run();
+    }
+
+    private void cancelInFlight() {
+        generation++;
+        if (inFlight != null) {
+            inFlight.cancel(false);
+            inFlight = null;
+        }
+    }
+}
@@ -2,9 +2,24 @@ package org.app.dlms;
 
 import javafx.application.Application;
 import javafx.stage.Stage;
+import org.app.dlms.Backend.Dao.BookFacets;
+import org.app.dlms.Backend.Dao.BookSearchIndex;
+import org.app.dlms.Backend.Dao.GenreDictionary;
+import org.app.dlms.Backend.Dao.UserSearchIndex;
 import org.app.dlms.FrontEnd.Views.Auth.LoginPage;
+import org.app.dlms.Middleware.Services.StatsReconciler;
 
 public class Main extends Application {
+    @Override
+    public void init() {
+        // Runs before the first window opens, off the JavaFX thread
+        GenreDictionary.getInstance().load();
+        StatsReconciler.getInstance().start();
+        BookSearchIndex.getInstance().load();
+        BookFacets.getInstance().load();
+        UserSearchIndex.getInstance().load();
+    }
+
     @Override
     public void start(Stage primaryStage) {
         LoginPage loginPage = new LoginPage();
@@ -0,0 +1,297 @@
+package org.app.dlms.Middleware.Cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Size-bounded LRU cache of entities keyed by id, with a time-to-live per entry.
+ *
+ * Loads run outside the cache lock so a slow query never blocks other readers.
+ * Every invalidation bumps a generation counter, and a load that started before
+ * an invalidation is returned to its caller but not stored, so a write that
+ * races with a read can not leave the old row in the cache.
+ *
+ * Null results are not cached; a missing row is looked up again next time.
+ *
+ * Entities are mutable, so a cache can be given a copy function: every caller
+ * then gets its own copy and the cached instance is never handed out.
+ *
+ * @param <K> The key type, usually the entity id
+ * @param <V> The entity type
+ */
+public class EntityCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long generation;
+
+    // Metrics, guarded by this
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long loads;
+    private long totalLoadNanos;
+
+    /**
+     * @param name Name used in log output
+     * @param maxSize Maximum number of entries kept
+     * @param ttl How long an entry stays valid
+     * @param unit Unit of ttl
+     */
+    public EntityCache(String name, int maxSize, long ttl, TimeUnit unit) {
+        this(name, maxSize, ttl, unit, UnaryOperator.identity());
+    }
+
+    /**
+     * @param name Name used in log output
+     * @param maxSize Maximum number of entries kept
+     * @param ttl How long an entry stays valid
+     * @param unit Unit of ttl
+     * @param copier Copies an entity before it is handed out
+     */
+    public EntityCache(String name, int maxSize, long ttl, TimeUnit unit, UnaryOperator<V> copier) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.copier = copier;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get an entity, loading and caching it on a miss
+     *
+     * @param key The key to look up
+     * @param loader Loads the entity from the database, may return null
+     * @return The entity, or null if the loader found none
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) {
+                hits++;
+                return copier.apply(cached);
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        long start = System.nanoTime();
+        V value = loader.apply(key);
+        long elapsed = System.nanoTime() - start;
+
+        synchronized (this) {
+            loads++;
+            totalLoadNanos += elapsed;
+            if (value != null && loadGeneration == generation) {
+                store(key, value);
+            }
+        }
+        return value == null ? null : copier.apply(value);
+    }
+
+    /**
+     * Get an entity only if it is cached
+     *
+     * @param key The key to look up
+     * @return The cached entity, or null on a miss
+     */
+    public synchronized V getIfPresent(K key) {
+        V cached = lookup(key);
+        if (cached != null) {
+            hits++;
+            return copier.apply(cached);
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Get several entities, loading all misses with one call
+     *
+     * @param keys The keys to look up
+     * @param loader Loads the missing entities, keyed like the input
+     * @return Map of the entities found, keyed by key
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        long loadGeneration;
+        synchronized (this) {
+            for (K key : new LinkedHashSet<>(keys)) {
+                if (key == null) {
+                    continue;
+                }
+                V cached = lookup(key);
+                if (cached != null) {
+                    hits++;
+                    result.put(key, copier.apply(cached));
+                } else {
+                    misses++;
+                    missing.add(key);
+                }
+            }
+            loadGeneration = generation;
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long start = System.nanoTime();
+        Map<K, V> loaded = loader.apply(missing);
+        long elapsed = System.nanoTime() - start;
+
+        synchronized (this) {
+            loads++;
+            totalLoadNanos += elapsed;
+            boolean current = loadGeneration == generation;
+            for (Map.Entry<K, V> entry : loaded.entrySet()) {
+                if (entry.getValue() == null) {
+                    continue;
+                }
+                result.put(entry.getKey(), copier.apply(entry.getValue()));
+                if (current) {
+                    store(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Store an entity that was just read or written
+     *
+     * @param key The key of the entity
+     * @param value The entity
+     */
+    public synchronized void put(K key, V value) {
+        if (key != null && value != null) {
+            store(key, copier.apply(value));
+        }
+    }
+
+    /**
+     * Drop one entry, e.g. after its row was updated or deleted
+     *
+     * @param key The key to drop
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Drop every entry matching a condition, for writes that are not keyed by id
+     *
+     * @param condition Selects the entries to drop
+     */
+    public synchronized void invalidateIf(Predicate<V> condition) {
+        generation++;
+        entries.values().removeIf(entry -> condition.test(entry.value));
+    }
+
+    /**
+     * Drop every entry
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    public synchronized long getLoadCount() {
+        return loads;
+    }
+
+    /**
+     * @return Share of lookups served from the cache, 0 when there were none
+     */
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * @return Average time spent in the loader per load, in milliseconds
+     */
+    public synchronized double getAverageLoadMillis() {
+        return loads == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s cache: size=%d/%d, hitRatio=%.2f, hits=%d, misses=%d, evictions=%d, "
+                        + "expirations=%d, loads=%d, avgLoad=%.2f ms",
+                name, entries.size(), maxSize, getHitRatio(), hits, misses, evictions,
+                expirations, loads, getAverageLoadMillis());
+    }
+
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            entries.remove(key);
+            expirations++;
+            return null;
+        }
+        return entry.value;
+    }
+
+    private void store(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+}
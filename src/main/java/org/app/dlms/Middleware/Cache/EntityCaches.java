@@ -0,0 +1,102 @@
+package org.app.dlms.Middleware.Cache;
+
+import org.app.dlms.Backend.Model.ActivityBucket;
+import org.app.dlms.Backend.Model.Book;
+import org.app.dlms.Backend.Model.DashboardStats;
+import org.app.dlms.Backend.Model.MemberLoanSummary;
+import org.app.dlms.Backend.Model.User;
+import org.app.dlms.Middleware.DatabaseConnection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the entity caches shared by all DAO instances.
+ *
+ * The DAOs are created wherever they are needed, so the caches live here
+ * rather than in the DAOs themselves. Reads go through the DAO lookup
+ * methods and every DAO write invalidates the rows it touched. Genres are
+ * few enough to be held completely in GenreDictionary instead.
+ *
+ * Dashboard statistics are not invalidated by writes; they simply expire
+ * after dashboard.stats.ttl milliseconds. Borrowing activity is only cached
+ * for periods that have ended, which change only when a borrow record dated
+ * in them is written.
+ */
+public class EntityCaches {
+
+    private static EntityCaches instance;
+
+    // Callers edit the books and users they get, so each gets its own copy
+    private final EntityCache<Integer, Book> books =
+            new EntityCache<>("Book", 5000, 10, TimeUnit.MINUTES, Book::copy);
+    private final EntityCache<Integer, User> users =
+            new EntityCache<>("User", 2000, 10, TimeUnit.MINUTES, User::copy);
+    // Usernames a login attempt found no account for; short-lived so new accounts can log in soon
+    private final EntityCache<String, Boolean> unknownUsernames =
+            new EntityCache<>("Unknown username", 1000, 30, TimeUnit.SECONDS);
+    // Holds a single entry, the latest library-wide figures
+    private final EntityCache<String, DashboardStats> dashboardStats = new EntityCache<>("Dashboard stats", 1,
+            Math.max(0, DatabaseConnection.getInstance().getLongProperty("dashboard.stats.ttl", 30000)),
+            TimeUnit.MILLISECONDS);
+    private final EntityCache<String, ActivityBucket> activityBuckets =
+            new EntityCache<>("Activity bucket", 5000, 1, TimeUnit.DAYS);
+    // Invalidated when a loan is issued or returned; the TTL picks up loans becoming overdue
+    private final EntityCache<Integer, MemberLoanSummary> loanSummaries =
+            new EntityCache<>("Loan summary", 2000, 5, TimeUnit.MINUTES);
+
+    private EntityCaches() {
+    }
+
+    /**
+     * Get the singleton instance
+     *
+     * @return The shared caches
+     */
+    public static synchronized EntityCaches getInstance() {
+        if (instance == null) {
+            instance = new EntityCaches();
+        }
+        return instance;
+    }
+
+    public EntityCache<Integer, Book> books() {
+        return books;
+    }
+
+    public EntityCache<Integer, User> users() {
+        return users;
+    }
+
+    public EntityCache<String, Boolean> unknownUsernames() {
+        return unknownUsernames;
+    }
+
+    public EntityCache<String, DashboardStats> dashboardStats() {
+        return dashboardStats;
+    }
+
+    public EntityCache<String, ActivityBucket> activityBuckets() {
+        return activityBuckets;
+    }
+
+    public EntityCache<Integer, MemberLoanSummary> loanSummaries() {
+        return loanSummaries;
+    }
+
+    /**
+     * Drop every cached entity
+     */
+    public void invalidateAll() {
+        books.invalidateAll();
+        users.invalidateAll();
+        unknownUsernames.invalidateAll();
+        dashboardStats.invalidateAll();
+        activityBuckets.invalidateAll();
+        loanSummaries.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        return books + "\n" + users + "\n" + unknownUsernames + "\n" + dashboardStats + "\n" + activityBuckets + "\n" + loanSummaries;
+    }
+}
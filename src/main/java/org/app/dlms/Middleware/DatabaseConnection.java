@@ -1,13 +1,14 @@
 package org.app.dlms.Middleware;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.util.Properties;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.app.dlms.Middleware.Pool.ConnectionPool;
+import org.app.dlms.Middleware.Services.PasswordUtil;
+
 /**
  * DatabaseConnection class implements the Singleton pattern to ensure a single
  * database connection instance throughout the application.
@@ -17,10 +18,15 @@ public class DatabaseConnection {
     // The single instance of DatabaseConnection
     private static DatabaseConnection instance;
 
+    // Settings file, packaged from src/main/resources
+    private static final String CONFIG_RESOURCE = "/org/app/dlms/config/db.properties";
+
     // Connection pool management
-    private static final int MAX_CONNECTIONS = 10;
-    private Connection[] connectionPool;
-    private boolean[] connectionInUse;
+    private ConnectionPool connectionPool;
+    private Properties poolProperties = new Properties();
+
+    // Whether every column and index of SchemaMigrations is in place
+    private volatile boolean schemaCurrent;
 
     // Database connection properties
     private String dbUrl;
@@ -34,13 +40,14 @@ public class DatabaseConnection {
     private DatabaseConnection() {
         loadDatabaseProperties();
         initializeConnectionPool();
+        migrateSchema();
     }
 
     private void loadDatabaseProperties() {
         Properties props = new Properties();
-        try (InputStream input = DatabaseConnection.class.getClassLoader().getResourceAsStream("config/db.properties")) {
+        try (InputStream input = DatabaseConnection.class.getResourceAsStream(CONFIG_RESOURCE)) {
             if (input == null) {
-                System.out.println("Sorry, unable to find db.properties");
+                System.out.println("Sorry, unable to find " + CONFIG_RESOURCE);
                 // Fall back to default values
                 dbUrl = "jdbc:mysql://localhost:3306/dlms";
                 username = "root";
@@ -49,12 +56,21 @@ public class DatabaseConnection {
             } else {
                 // Load the properties file
                 props.load(input);
+                // A db.* system property wins over the file, e.g. to point a test run at its own database
+                for (String key : System.getProperties().stringPropertyNames()) {
+                    if (key.startsWith("db.")) {
+                        props.setProperty(key, System.getProperty(key));
+                    }
+                }
 
                 // Get the database properties
                 dbUrl = props.getProperty("db.url");
                 username = props.getProperty("db.username");
                 password = props.getProperty("db.password");
                 driver = props.getProperty("db.driver");
+
+                // Pool sizing and timeouts (db.pool.*) are read by the ConnectionPool
+                poolProperties = props;
             }
             boolean databaseExists = checkIfDatabaseExists();
 
@@ -150,7 +166,14 @@ public class DatabaseConnection {
                         "phone VARCHAR(20), " +
                         "role ENUM('Admin', 'Librarian', 'Member') NOT NULL, " +
                         "membership_type VARCHAR(50), " +
-                        "membership_status ENUM('Active', 'Inactive') DEFAULT 'Active'" +
+                        "membership_status ENUM('Active', 'Inactive') DEFAULT 'Active', " +
+                        // Phone numbers are typed with any punctuation; searches compare the digits only
+                        "phone_digits VARCHAR(20) AS (REGEXP_REPLACE(phone, '[^0-9]', '')) STORED, " +
+                        // Prefix lookups of the member search (see UserSearchPlan)
+                        "INDEX idx_users_email (email), " +
+                        "INDEX idx_users_phone_digits (phone_digits), " +
+                        // Word search until the in-memory token index is loaded
+                        "FULLTEXT INDEX ft_users_text (name, username, email)" +
                         ")");
 
                 // Create payments table
@@ -162,6 +185,8 @@ public class DatabaseConnection {
                         "type VARCHAR(50) DEFAULT 'Subscription', " +
                         "description VARCHAR(255), " +
                         "related_record_id INT DEFAULT 0, " +
+                        // Serves the payment_date DESC, id keyset pagination (InnoDB appends the primary key)
+                        "INDEX idx_payments_payment_date (payment_date), " +
                         "FOREIGN KEY (member_id) REFERENCES users(id)" +
                         ")");
 
@@ -173,6 +198,12 @@ public class DatabaseConnection {
                         "borrow_date DATE NOT NULL, " +
                         "due_date DATE NOT NULL, " +
                         "return_date DATE, " +
+                        // Serves the borrow_date DESC, id keyset pagination (InnoDB appends the primary key)
+                        "INDEX idx_borrow_records_borrow_date (borrow_date), " +
+                        // Serves the overdue loan count, which only looks at unreturned books
+                        "INDEX idx_borrow_records_open (return_date, due_date), " +
+                        // Covers the per-member loan summary; also serves the member_id foreign key
+                        "INDEX idx_borrow_records_member (member_id, return_date, due_date), " +
                         "FOREIGN KEY (member_id) REFERENCES users(id), " +
                         "FOREIGN KEY (book_id) REFERENCES books(id)" +
                         ")");
@@ -192,7 +223,7 @@ public class DatabaseConnection {
 
                 // Insert sample data
                 stmt.executeUpdate("INSERT INTO genres (name) VALUES ('Fiction'), ('Non-Fiction'), ('Science')");
-                String password=hashPassword("password");
+                String password = new PasswordUtil().hashPassword("password");
                 stmt.executeUpdate("INSERT INTO users (username, password, name, email, gender, address, phone, role) " +
                         "VALUES ('admin1','"+password+"' , 'Admin One', 'admin1@example.com', 'Male', '123 Admin St', '1234567890', 'Admin')");
 
@@ -232,20 +263,6 @@ public class DatabaseConnection {
             e.printStackTrace();
         }
     }
-    private String hashPassword(String plainPassword) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] hashedBytes = md.digest(plainPassword.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashedBytes) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            System.err.println("Error hashing password: " + e.getMessage());
-            return "ERROR_HASHING_PASSWORD";
-        }
-    }
     private String extractDatabaseName(String connectionUrl) {
         // Extract database name from JDBC URL
         // Example: jdbc:mysql://localhost:3306/dlms -> dlms
@@ -259,26 +276,36 @@ public class DatabaseConnection {
         try {
             // Load the JDBC driver
             Class.forName(driver);
-
-            connectionPool = new Connection[MAX_CONNECTIONS];
-            connectionInUse = new boolean[MAX_CONNECTIONS];
-
-            // Create all connections and add to the pool
-            for (int i = 0; i < MAX_CONNECTIONS; i++) {
-                connectionPool[i] = DriverManager.getConnection(dbUrl, username, password);
-                connectionInUse[i] = false;
-            }
-
-            System.out.println("Database connection pool initialized with " + MAX_CONNECTIONS + " connections");
         } catch (ClassNotFoundException e) {
             System.err.println("Database driver not found: " + driver);
             e.printStackTrace();
+        }
+
+        connectionPool = new ConnectionPool(dbUrl, username, password, poolProperties);
+    }
+
+    /**
+     * Add the columns and indexes an existing database is missing. Runs on
+     * every startup, as the tables are only created with a new database.
+     */
+    private void migrateSchema() {
+        try (Connection conn = connectionPool.getConnection()) {
+            schemaCurrent = SchemaMigrations.run(conn);
         } catch (SQLException e) {
-            System.err.println("Failed to initialize database connection pool");
-            e.printStackTrace();
+            System.err.println("Could not check the database schema: " + e.getMessage());
         }
     }
 
+    /**
+     * Check whether the database has every column and index the DAOs use,
+     * such as the member search lookups. Until then, callers should use
+     * queries that work on the original schema.
+     * @return true if the schema migrations have all run
+     */
+    public boolean isSchemaCurrent() {
+        return schemaCurrent;
+    }
+
     /**
      * Get the singleton instance of DatabaseConnection
      * @return The single instance of DatabaseConnection
@@ -291,77 +318,88 @@ public class DatabaseConnection {
     }
 
     /**
-     * Get a connection from the pool
+     * Get a connection from the pool. Waits up to db.pool.timeout ms when all
+     * connections are in use. Closing the returned connection gives it back to
+     * the pool, so it can be used with try-with-resources.
      * @return A database connection
-     * @throws SQLException if no connection is available
+     * @throws SQLException if no connection becomes available in time
      */
-    public synchronized Connection getConnection() throws SQLException {
-        // Find an available connection
-        for (int i = 0; i < MAX_CONNECTIONS; i++) {
-            if (!connectionInUse[i]) {
-                // Check if connection is valid and reconnect if needed
-                if (connectionPool[i] == null || connectionPool[i].isClosed()) {
-                    connectionPool[i] = DriverManager.getConnection(dbUrl, username, password);
-                }
-
-                // Check if connection is valid
-                if (connectionPool[i].isValid(5)) {
-                    connectionInUse[i] = true;
-                    return connectionPool[i];
-                } else {
-                    // Connection is invalid, create a new one
-                    connectionPool[i] = DriverManager.getConnection(dbUrl, username, password);
-                    connectionInUse[i] = true;
-                    return connectionPool[i];
-                }
-            }
-        }
-
-        // No available connections
-        throw new SQLException("No available database connections in the pool");
+    public Connection getConnection() throws SQLException {
+        return connectionPool.getConnection();
     }
 
     /**
      * Release a connection back to the pool
      * @param connection The connection to release
      */
-    public synchronized void releaseConnection(Connection connection) {
-        for (int i = 0; i < MAX_CONNECTIONS; i++) {
-            if (connectionPool[i] == connection) {
-                connectionInUse[i] = false;
-                break;
-            }
-        }
+    public void releaseConnection(Connection connection) {
+        connectionPool.releaseConnection(connection);
     }
 
     /**
      * Close all connections in the pool
      */
-    public synchronized void closeAllConnections() {
-        for (int i = 0; i < MAX_CONNECTIONS; i++) {
+    public void closeAllConnections() {
+        connectionPool.shutdown();
+    }
+
+    /**
+     * Run a unit of work on one pooled connection inside a single transaction.
+     * The work is committed if it returns normally and rolled back if it throws.
+     * @param work The work to run
+     * @return The result of the work
+     * @throws SQLException if the work or the commit fails
+     */
+    public <T> T inTransaction(UnitOfWork<T> work) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
             try {
-                if (connectionPool[i] != null && !connectionPool[i].isClosed()) {
-                    connectionPool[i].close();
-                }
-            } catch (SQLException e) {
-                System.err.println("Error closing connection");
-                e.printStackTrace();
+                T result = work.execute(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
             }
         }
     }
+
+    /**
+     * Get the underlying connection pool
+     * @return The connection pool
+     */
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * Get a setting from db.properties
+     * @param key The property name
+     * @param defaultValue Returned when the property is missing or invalid
+     * @return The setting as a number of milliseconds, items, etc.
+     */
+    public long getLongProperty(String key, long defaultValue) {
+        String value = poolProperties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
     /**
      * Check if a table exists in the database
      * @param tableName Name of the table to check
      * @return true if table exists, false otherwise
      */
     private static boolean tableExists( String tableName) throws SQLException {
-        DatabaseConnection connection=DatabaseConnection.getInstance();
-        DatabaseMetaData meta = connection.getConnection().getMetaData();
-        ResultSet resultSet = meta.getTables(null, null, tableName, new String[] {"TABLE"});
-
-        boolean exists = resultSet.next();
-        resultSet.close();
-        return exists;
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             ResultSet resultSet = conn.getMetaData().getTables(null, null, tableName, new String[] {"TABLE"})) {
+            return resultSet.next();
+        }
     }
     /**
      * Test the database connection
@@ -0,0 +1,7 @@
+package org.app.dlms.Middleware.Enums;
+
+public enum BorrowStatus {
+    All,
+    Active,
+    Overdue
+}
@@ -1,8 +1,19 @@
 package org.app.dlms.Middleware.Enums;
 
 public enum MembershipType {
-    Bronze,
-    Silver,
-    Gold,
-    Platinum
+    Bronze(3),
+    Silver(5),
+    Gold(8),
+    Platinum(10);
+
+    private final int borrowLimit;
+
+    MembershipType(int borrowLimit) {
+        this.borrowLimit = borrowLimit;
+    }
+
+    // Number of books a member with this membership may have borrowed at once
+    public int getBorrowLimit() {
+        return borrowLimit;
+    }
 }
@@ -0,0 +1,144 @@
+package org.app.dlms.Middleware.Pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Handler behind PreparedStatements served from a {@link StatementCache}.
+ *
+ * Calling close() on the proxy closes the result sets it produced, clears the
+ * parameters and puts the physical statement back into the cache. Statements
+ * whose fetch size, limits or timeouts were changed by the caller are closed
+ * for real instead, so the next user always gets default settings.
+ */
+class CachedStatementProxy implements InvocationHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(CachedStatementProxy.class.getName());
+
+    private final StatementCache cache;
+    private final String key;
+    private final PreparedStatement delegate;
+    private final Connection connection;
+    private final List<ResultSet> openResultSets = new ArrayList<>();
+    private boolean closed;
+    private boolean modified;
+
+    /**
+     * @param cache The cache to return the statement to
+     * @param key The cache key of the statement
+     * @param delegate The physical statement
+     * @param connection The connection proxy the statement was prepared on
+     */
+    CachedStatementProxy(StatementCache cache, String key, PreparedStatement delegate, Connection connection) {
+        this.cache = cache;
+        this.key = key;
+        this.delegate = delegate;
+        this.connection = connection;
+    }
+
+    /**
+     * @return A PreparedStatement proxy backed by this handler
+     */
+    PreparedStatement newProxy() {
+        return (PreparedStatement) Proxy.newProxyInstance(CachedStatementProxy.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed || delegate.isClosed();
+            case "getConnection":
+                return connection;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "CachedStatement[" + delegate + "]";
+            default:
+                break;
+        }
+
+        if (closed) {
+            throw new SQLException("Statement is closed");
+        }
+
+        switch (name) {
+            case "setFetchSize":
+            case "setFetchDirection":
+            case "setMaxRows":
+            case "setLargeMaxRows":
+            case "setMaxFieldSize":
+            case "setQueryTimeout":
+            case "setEscapeProcessing":
+            case "setCursorName":
+            case "setPoolable":
+            case "closeOnCompletion":
+                modified = true;
+                break;
+            default:
+                break;
+        }
+
+        Object result;
+        try {
+            result = method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+
+        if (result instanceof ResultSet) {
+            openResultSets.add((ResultSet) result);
+        }
+        return result;
+    }
+
+    /**
+     * Hand the physical statement back to the cache, or close it if it can not be reused
+     */
+    private void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        for (ResultSet resultSet : openResultSets) {
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error closing result set of cached statement", e);
+            }
+        }
+        openResultSets.clear();
+
+        if (modified || delegate.isClosed()) {
+            delegate.close();
+            return;
+        }
+        try {
+            delegate.clearParameters();
+            delegate.clearBatch();
+            delegate.clearWarnings();
+        } catch (SQLException e) {
+            delegate.close();
+            throw e;
+        }
+        cache.put(key, delegate);
+    }
+}
@@ -0,0 +1,608 @@
+package org.app.dlms.Middleware.Pool;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * Slots are claimed with compare-and-set instead of a shared monitor. When
+ * every slot is busy the caller parks in a bounded wait queue, each release
+ * wakes the longest waiting thread to claim the freed slot, and the caller
+ * fails once the configured timeout expires.
+ *
+ * Connections are validated by a background housekeeping thread rather than on
+ * checkout, so handing out a connection never waits on the network. The same
+ * thread retires connections that exceed their maximum lifetime or sit idle
+ * too long, and tops the pool back up to its initial size.
+ *
+ * Callers receive a proxy whose close() returns the connection to the pool, so
+ * both try-with-resources and releaseConnection() give the slot back. When
+ * leak detection is enabled, the housekeeping pass reports any connection
+ * held longer than the threshold with the stack trace of the code that
+ * checked it out. Capturing that stack trace costs every checkout, so
+ * detection is off unless configured.
+ *
+ * Each connection keeps an LRU cache of its prepared statements keyed by SQL
+ * text, so DAOs that prepare the same query on every call reuse the parsed
+ * statement. With server-side prepares enabled the cache also saves the
+ * round trip that prepares the statement on the server.
+ *
+ * Configuration keys (all optional):
+ * db.pool.initialSize, db.pool.maxSize, db.pool.timeout (ms), db.pool.maxWaiters,
+ * db.pool.validationInterval (ms), db.pool.validationTimeout (ms),
+ * db.pool.maxLifetime (ms), db.pool.idleTimeout (ms),
+ * db.pool.leakDetectionThreshold (ms, 0 disables),
+ * db.pool.statementCacheSize (prepared statements kept per connection, 0 disables),
+ * db.pool.useServerPrepStmts (true to let MySQL prepare statements server-side)
+ */
+public class ConnectionPool {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private static final int DEFAULT_INITIAL_SIZE = 5;
+    private static final int DEFAULT_MAX_SIZE = 10;
+    private static final long DEFAULT_TIMEOUT = 30000;
+    private static final int DEFAULT_MAX_WAITERS = 50;
+    private static final long DEFAULT_VALIDATION_INTERVAL = 30000;
+    private static final long DEFAULT_VALIDATION_TIMEOUT = 5000;
+    private static final long DEFAULT_MAX_LIFETIME = 1800000;
+    private static final long DEFAULT_IDLE_TIMEOUT = 600000;
+    private static final long DEFAULT_LEAK_DETECTION_THRESHOLD = 0;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private final String dbUrl;
+    private final String username;
+    private final String password;
+
+    private final int initialSize;
+    private final int maxSize;
+    private final long timeoutMillis;
+    private final int maxWaiters;
+    private final long validationInterval;
+    private final int validationTimeoutSeconds;
+    private final long maxLifetime;
+    private final long idleTimeout;
+    private final long leakDetectionThreshold;
+    private final int statementCacheSize;
+    private final boolean useServerPrepStmts;
+
+    private final AtomicReferenceArray<PooledConnection> slots;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    // Waiting threads not yet woken, longest waiting first
+    private final ConcurrentLinkedQueue<Thread> parked = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+
+    // Housekeeping counters
+    private final AtomicLong validations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong replacements = new AtomicLong();
+
+    // Statement cache counters, summed over all connections
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    /**
+     * Create the pool and open the initial connections
+     *
+     * @param dbUrl JDBC URL of the database
+     * @param username Database user
+     * @param password Database password
+     * @param props Properties holding the db.pool.* settings
+     */
+    public ConnectionPool(String dbUrl, String username, String password, Properties props) {
+        this.dbUrl = dbUrl;
+        this.username = username;
+        this.password = password;
+
+        this.maxSize = Math.max(1, intProperty(props, "db.pool.maxSize", DEFAULT_MAX_SIZE));
+        this.initialSize = Math.min(maxSize, Math.max(0, intProperty(props, "db.pool.initialSize", DEFAULT_INITIAL_SIZE)));
+        this.timeoutMillis = Math.max(0, longProperty(props, "db.pool.timeout", DEFAULT_TIMEOUT));
+        this.maxWaiters = Math.max(0, intProperty(props, "db.pool.maxWaiters", DEFAULT_MAX_WAITERS));
+        this.validationInterval = Math.max(1000, longProperty(props, "db.pool.validationInterval", DEFAULT_VALIDATION_INTERVAL));
+        long validationTimeout = longProperty(props, "db.pool.validationTimeout", DEFAULT_VALIDATION_TIMEOUT);
+        this.validationTimeoutSeconds = (int) Math.max(1, (validationTimeout + 999) / 1000);
+        this.maxLifetime = longProperty(props, "db.pool.maxLifetime", DEFAULT_MAX_LIFETIME);
+        this.idleTimeout = longProperty(props, "db.pool.idleTimeout", DEFAULT_IDLE_TIMEOUT);
+        this.leakDetectionThreshold = longProperty(props, "db.pool.leakDetectionThreshold", DEFAULT_LEAK_DETECTION_THRESHOLD);
+        this.statementCacheSize = Math.max(0, intProperty(props, "db.pool.statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE));
+        this.useServerPrepStmts = props != null
+                && Boolean.parseBoolean(props.getProperty("db.pool.useServerPrepStmts", "false").trim());
+
+        this.slots = new AtomicReferenceArray<>(maxSize);
+        fillPool();
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "dlms-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.housekeeper = executor;
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                validationInterval, validationInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open the initial connections. Failures are logged and the remaining slots
+     * are created lazily on demand.
+     */
+    private void fillPool() {
+        for (int i = 0; i < initialSize; i++) {
+            try {
+                slots.set(i, new PooledConnection(openConnection(), false, newStatementCache()));
+                totalConnections.incrementAndGet();
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Failed to open initial pool connection", e);
+                break;
+            }
+        }
+        LOGGER.info("Database connection pool initialized with " + totalConnections.get()
+                + " of max " + maxSize + " connections");
+    }
+
+    /**
+     * Get a connection from the pool, waiting up to the configured timeout
+     *
+     * @return A database connection
+     * @throws SQLException if no connection becomes available in time
+     */
+    public Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        PooledConnection entry = claimIdle();
+        if (entry == null) {
+            entry = createIfBelowMax();
+        }
+        if (entry == null) {
+            entry = awaitRelease(deadline);
+        }
+        return checkout(entry);
+    }
+
+    /**
+     * Release a connection back to the pool. Same as calling close() on it.
+     *
+     * @param connection The connection to release
+     */
+    public void releaseConnection(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error releasing pooled connection", e);
+        }
+    }
+
+    /**
+     * Return a slot to the pool once its proxy has been closed
+     *
+     * @param entry The slot being released
+     */
+    void release(PooledConnection entry) {
+        if (entry.isIdle()) {
+            return;
+        }
+        if (isExpired(entry, System.currentTimeMillis())) {
+            // Retire now; the replacement is opened off the caller's thread
+            retire(entry);
+            scheduleRefill();
+            return;
+        }
+        entry.markIdle();
+        handOff(entry);
+    }
+
+    /**
+     * Close all connections in the pool and reject further checkouts
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        for (int i = 0; i < slots.length(); i++) {
+            PooledConnection entry = slots.getAndSet(i, null);
+            if (entry != null) {
+                totalConnections.decrementAndGet();
+                closeQuietly(entry.getConnection());
+            }
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getActiveConnections() {
+        int active = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            PooledConnection entry = slots.get(i);
+            if (entry != null && !entry.isIdle()) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    public int getWaitingThreads() {
+        return waiters.get();
+    }
+
+    /**
+     * @return Number of idle connections checked by the housekeeper
+     */
+    public long getValidationCount() {
+        return validations.get();
+    }
+
+    /**
+     * @return Number of connections removed because they were dead, too old or idle too long
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return Number of connections opened to replace evicted or closed ones
+     */
+    public long getReplacementCount() {
+        return replacements.get();
+    }
+
+    /**
+     * @return Number of prepareStatement calls served from a statement cache
+     */
+    public long getStatementCacheHits() {
+        return statementHits.get();
+    }
+
+    /**
+     * @return Number of cacheable prepareStatement calls that had to prepare a new statement
+     */
+    public long getStatementCacheMisses() {
+        return statementMisses.get();
+    }
+
+    /**
+     * @return Number of cached statements closed to make room for newer ones
+     */
+    public long getStatementCacheEvictions() {
+        return statementEvictions.get();
+    }
+
+    /**
+     * @return Share of cacheable prepareStatement calls served from the cache, between 0 and 1
+     */
+    public double getStatementCacheHitRatio() {
+        long hits = statementHits.get();
+        long total = hits + statementMisses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    void recordStatementHit() {
+        statementHits.incrementAndGet();
+    }
+
+    void recordStatementMiss() {
+        statementMisses.incrementAndGet();
+    }
+
+    void recordStatementEviction() {
+        statementEvictions.incrementAndGet();
+    }
+
+    /**
+     * One housekeeping pass: report connections held past the leak threshold,
+     * validate idle connections, retire dead, expired or surplus idle ones,
+     * then top the pool back up to its initial size.
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < slots.length(); i++) {
+                PooledConnection entry = slots.get(i);
+                if (entry == null) {
+                    continue;
+                }
+                // Claiming the slot keeps it away from borrowers while it is checked
+                if (!entry.tryClaim()) {
+                    ConnectionProxy holder = entry.getHolder();
+                    if (leakDetectionThreshold > 0 && holder != null) {
+                        holder.reportLeak(now, leakDetectionThreshold);
+                    }
+                    continue;
+                }
+
+                if (isExpired(entry, now)) {
+                    retire(entry);
+                } else if (idleTimeout > 0 && now - entry.getLastAccessed() > idleTimeout
+                        && totalConnections.get() > initialSize) {
+                    retire(entry);
+                } else if (!isAlive(entry.getConnection())) {
+                    retire(entry);
+                } else {
+                    entry.markIdle();
+                    handOff(entry);
+                }
+            }
+            refill();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    private boolean isAlive(Connection connection) {
+        validations.incrementAndGet();
+        try {
+            return connection != null && !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection entry, long now) {
+        return maxLifetime > 0 && now - entry.getCreatedAt() > maxLifetime;
+    }
+
+    /**
+     * Remove a slot claimed by the caller from the pool and close its connection
+     */
+    private void retire(PooledConnection entry) {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.compareAndSet(i, entry, null)) {
+                totalConnections.decrementAndGet();
+                evictions.incrementAndGet();
+                closeQuietly(entry.getConnection());
+                return;
+            }
+        }
+    }
+
+    private void scheduleRefill() {
+        if (!shutdown) {
+            housekeeper.execute(this::refill);
+        }
+    }
+
+    /**
+     * Open idle connections until the pool is back at its initial size
+     */
+    private void refill() {
+        while (!shutdown && totalConnections.get() < Math.max(initialSize, Math.min(maxSize, waiters.get()))) {
+            try {
+                PooledConnection entry = createIfBelowMax();
+                if (entry == null) {
+                    return;
+                }
+                replacements.incrementAndGet();
+                entry.markIdle();
+                handOff(entry);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Could not open replacement pool connection", e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claim any idle slot
+     */
+    private PooledConnection claimIdle() {
+        int size = slots.length();
+        int start = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            PooledConnection entry = slots.get((start + i) % size);
+            if (entry != null && entry.tryClaim()) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Open a new connection if the pool has not reached its maximum size
+     *
+     * @return The new slot, already claimed by the caller, or null if the pool is full
+     */
+    private PooledConnection createIfBelowMax() throws SQLException {
+        while (true) {
+            int total = totalConnections.get();
+            if (total >= maxSize) {
+                return null;
+            }
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                break;
+            }
+        }
+
+        PooledConnection entry;
+        try {
+            entry = new PooledConnection(openConnection(), true, newStatementCache());
+        } catch (SQLException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.compareAndSet(i, null, entry)) {
+                return entry;
+            }
+        }
+
+        // Not reachable while totalConnections never exceeds the slot count
+        totalConnections.decrementAndGet();
+        closeQuietly(entry.getConnection());
+        return null;
+    }
+
+    /**
+     * Join the wait queue until a released connection is claimed or the deadline passes
+     */
+    private PooledConnection awaitRelease(long deadline) throws SQLException {
+        if (waiters.incrementAndGet() > maxWaiters) {
+            waiters.decrementAndGet();
+            throw new SQLException("No available database connections in the pool (wait queue full)");
+        }
+
+        Thread current = Thread.currentThread();
+        try {
+            while (true) {
+                // Queue up before scanning, so a release after the scan finds this thread to wake
+                parked.add(current);
+                PooledConnection entry = claimIdle();
+                if (entry == null) {
+                    entry = createIfBelowMax();
+                }
+                if (entry != null) {
+                    return entry;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new SQLException("Timed out after " + timeoutMillis
+                            + " ms waiting for a database connection");
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (current.isInterrupted()) {
+                    throw new SQLException("Interrupted while waiting for a database connection");
+                }
+                // Woken or not, the next scan looks at every slot
+                parked.remove(current);
+            }
+        } finally {
+            leaveQueue(current);
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Take a thread out of the wait queue. A thread that is no longer queued
+     * was picked by a release; if it leaves without claiming that slot, the
+     * wakeup is passed on so the slot does not sit idle while others wait.
+     */
+    private void leaveQueue(Thread thread) {
+        if (!parked.remove(thread)) {
+            wakeWaiter();
+        }
+    }
+
+    /**
+     * Wake the longest waiting thread, if any, to claim a slot that just became idle
+     */
+    private void wakeWaiter() {
+        Thread waiter = parked.poll();
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * Announce a released slot, which is already marked idle, to the waiting
+     * threads. The woken thread claims it like any other caller, so nothing
+     * waits for the hand-over to be accepted.
+     */
+    private void handOff(PooledConnection entry) {
+        if (waiters.get() > 0) {
+            wakeWaiter();
+        }
+    }
+
+    /**
+     * Hand out the claimed slot wrapped in a proxy. Liveness is checked by the
+     * housekeeper, so only the driver's local closed flag is consulted here.
+     */
+    private Connection checkout(PooledConnection entry) throws SQLException {
+        try {
+            Connection conn = entry.getConnection();
+            if (conn == null || conn.isClosed()) {
+                closeQuietly(conn);
+                entry.setConnection(openConnection());
+                replacements.incrementAndGet();
+            }
+        } catch (SQLException e) {
+            entry.markIdle();
+            handOff(entry);
+            throw e;
+        }
+
+        // Held connections are found by the housekeeping pass, so checkout schedules nothing
+        ConnectionProxy handler = new ConnectionProxy(this, entry, leakDetectionThreshold > 0
+                ? new Exception("Connection checked out by thread " + Thread.currentThread().getName())
+                : null);
+        entry.setHolder(handler);
+        return handler.newProxy();
+    }
+
+    private Connection openConnection() throws SQLException {
+        Properties info = new Properties();
+        if (username != null) {
+            info.setProperty("user", username);
+        }
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+        if (useServerPrepStmts) {
+            info.setProperty("useServerPrepStmts", "true");
+        }
+        return DriverManager.getConnection(dbUrl, info);
+    }
+
+    private StatementCache newStatementCache() {
+        return statementCacheSize > 0 ? new StatementCache(statementCacheSize, this) : null;
+    }
+
+    private void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error closing pooled connection", e);
+        }
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        return (int) longProperty(props, key, defaultValue);
+    }
+
+    private static long longProperty(Properties props, String key, long defaultValue) {
+        if (props == null) {
+            return defaultValue;
+        }
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
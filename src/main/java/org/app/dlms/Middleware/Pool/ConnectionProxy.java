@@ -0,0 +1,218 @@
+package org.app.dlms.Middleware.Pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Handler behind the Connection objects handed out by the pool.
+ *
+ * Calling close() on the proxy closes any statements the caller left open,
+ * rolls back uncommitted work, restores auto-commit, isolation and read-only
+ * settings the caller changed, and returns the physical connection to the
+ * pool instead of closing it. This lets DAOs use try-with-resources.
+ *
+ * When the slot has a statement cache, prepareStatement(sql) and
+ * prepareStatement(sql, autoGeneratedKeys) are served from it.
+ */
+class ConnectionProxy implements InvocationHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionProxy.class.getName());
+
+    private final ConnectionPool pool;
+    private final PooledConnection entry;
+    private final Connection delegate;
+    private final StatementCache statementCache;
+    private final List<Statement> openStatements = new ArrayList<>();
+    private final Exception acquiredAt;
+    private final long acquiredTime;
+    private volatile boolean leakReported;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    // Session state to restore on close, recorded the first time the caller changes it
+    private boolean autoCommitChanged;
+    private Integer originalIsolation;
+    private Boolean originalReadOnly;
+
+    /**
+     * @param pool The owning pool
+     * @param entry The slot claimed by the caller
+     * @param acquiredAt Stack trace of the checkout, or null when leak detection is off
+     */
+    ConnectionProxy(ConnectionPool pool, PooledConnection entry, Exception acquiredAt) {
+        this.pool = pool;
+        this.entry = entry;
+        this.delegate = entry.getConnection();
+        this.statementCache = entry.getStatementCache();
+        this.acquiredAt = acquiredAt;
+        this.acquiredTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @return A Connection proxy backed by this handler
+     */
+    Connection newProxy() {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, this);
+    }
+
+    /**
+     * Log the checkout stack trace, once, if the connection is still held after
+     * the threshold. Called by the pool's housekeeping pass.
+     *
+     * @param now The current time in milliseconds
+     * @param threshold The leak detection threshold in milliseconds
+     */
+    void reportLeak(long now, long threshold) {
+        if (!leakReported && !closed.get() && acquiredAt != null && now - acquiredTime > threshold) {
+            leakReported = true;
+            LOGGER.log(Level.WARNING, "Connection held for " + (System.currentTimeMillis() - acquiredTime)
+                    + " ms without being closed, possible leak. Acquired at:", acquiredAt);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed.get() || delegate.isClosed();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledConnection[" + delegate + "]";
+            default:
+                break;
+        }
+
+        if (closed.get()) {
+            throw new SQLException("Connection is closed");
+        }
+
+        switch (name) {
+            case "setAutoCommit":
+                autoCommitChanged = true;
+                break;
+            case "setTransactionIsolation":
+                if (originalIsolation == null) {
+                    originalIsolation = delegate.getTransactionIsolation();
+                }
+                break;
+            case "setReadOnly":
+                if (originalReadOnly == null) {
+                    originalReadOnly = delegate.isReadOnly();
+                }
+                break;
+            default:
+                break;
+        }
+
+        Object result;
+        if (statementCache != null && "prepareStatement".equals(name) && isCacheable(args)) {
+            result = prepareCached((Connection) proxy, args);
+        } else {
+            try {
+                result = method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        if (result instanceof Statement) {
+            synchronized (openStatements) {
+                openStatements.add((Statement) result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Only the plain and the generated-keys overloads are cached; statements with
+     * custom result set types or column lists are rare enough to prepare directly.
+     */
+    private static boolean isCacheable(Object[] args) {
+        return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+    }
+
+    private PreparedStatement prepareCached(Connection proxy, Object[] args) throws SQLException {
+        String sql = (String) args[0];
+        int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "keys:" + sql : sql;
+
+        PreparedStatement statement = statementCache.take(key);
+        if (statement == null) {
+            statement = delegate.prepareStatement(sql, autoGeneratedKeys);
+        }
+        return new CachedStatementProxy(statementCache, key, statement, proxy).newProxy();
+    }
+
+    /**
+     * Reset the session and hand the physical connection back to the pool
+     */
+    private void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        synchronized (openStatements) {
+            for (Statement statement : openStatements) {
+                try {
+                    if (!statement.isClosed()) {
+                        statement.close();
+                    }
+                } catch (SQLException e) {
+                    LOGGER.log(Level.FINE, "Error closing dangling statement", e);
+                }
+            }
+            openStatements.clear();
+        }
+
+        try {
+            if (!delegate.isClosed()) {
+                resetSession();
+            }
+        } catch (SQLException e) {
+            // The pool notices the broken connection and replaces it
+            LOGGER.log(Level.WARNING, "Error resetting pooled connection state", e);
+            closeDelegate();
+        }
+
+        pool.release(entry);
+    }
+
+    private void resetSession() throws SQLException {
+        if (autoCommitChanged && !delegate.getAutoCommit()) {
+            delegate.rollback();
+            delegate.setAutoCommit(true);
+        }
+        if (originalIsolation != null) {
+            delegate.setTransactionIsolation(originalIsolation);
+        }
+        if (originalReadOnly != null) {
+            delegate.setReadOnly(originalReadOnly);
+        }
+    }
+
+    private void closeDelegate() {
+        try {
+            delegate.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing broken connection", e);
+        }
+    }
+}
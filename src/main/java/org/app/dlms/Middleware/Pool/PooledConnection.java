@@ -0,0 +1,91 @@
+package org.app.dlms.Middleware.Pool;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single slot of the connection pool. The slot owns one physical connection
+ * and an atomic state flag that threads claim with compare-and-set.
+ */
+class PooledConnection {
+
+    static final int STATE_IDLE = 0;
+    static final int STATE_IN_USE = 1;
+
+    private final AtomicInteger state;
+    private volatile Connection connection;
+    private volatile long createdAt;
+    private volatile long lastAccessed;
+    private final StatementCache statementCache;
+    private volatile ConnectionProxy holder;    // Handler of the current checkout, null while idle
+
+    /**
+     * Create a slot around a freshly opened connection
+     *
+     * @param connection The physical connection
+     * @param inUse true if the creating thread keeps the slot for itself
+     * @param statementCache Prepared statement cache for the connection, or null to disable caching
+     */
+    PooledConnection(Connection connection, boolean inUse, StatementCache statementCache) {
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.state = new AtomicInteger(inUse ? STATE_IN_USE : STATE_IDLE);
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessed = createdAt;
+    }
+
+    /**
+     * Try to take the slot for the calling thread
+     *
+     * @return true if the slot was idle and is now owned by the caller
+     */
+    boolean tryClaim() {
+        return state.get() == STATE_IDLE && state.compareAndSet(STATE_IDLE, STATE_IN_USE);
+    }
+
+    /**
+     * Give the slot back so another thread can claim it
+     */
+    void markIdle() {
+        holder = null;
+        lastAccessed = System.currentTimeMillis();
+        state.set(STATE_IDLE);
+    }
+
+    boolean isIdle() {
+        return state.get() == STATE_IDLE;
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    void setConnection(Connection connection) {
+        if (statementCache != null) {
+            // Statements of the old connection are unusable now
+            statementCache.clear();
+        }
+        this.connection = connection;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    ConnectionProxy getHolder() {
+        return holder;
+    }
+
+    void setHolder(ConnectionProxy holder) {
+        this.holder = holder;
+    }
+
+    StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastAccessed() {
+        return lastAccessed;
+    }
+}
@@ -0,0 +1,96 @@
+package org.app.dlms.Middleware.Pool;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * LRU cache of prepared statements belonging to one physical connection,
+ * keyed by SQL text.
+ *
+ * A statement is removed from the cache while a caller holds it and put back
+ * when the caller closes it, so two users of the same connection never share
+ * a statement. When the cache is full the least recently returned statement
+ * is closed.
+ */
+class StatementCache {
+
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    private final int maxSize;
+    private final ConnectionPool pool;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /**
+     * @param maxSize Maximum number of idle statements kept
+     * @param pool The owning pool, which collects the cache metrics
+     */
+    StatementCache(int maxSize, ConnectionPool pool) {
+        this.maxSize = maxSize;
+        this.pool = pool;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Take a cached statement for exclusive use
+     *
+     * @param key The cache key of the statement
+     * @return The statement, or null if none is cached
+     */
+    synchronized PreparedStatement take(String key) {
+        PreparedStatement statement = statements.remove(key);
+        if (statement != null) {
+            pool.recordStatementHit();
+        } else {
+            pool.recordStatementMiss();
+        }
+        return statement;
+    }
+
+    /**
+     * Return a statement to the cache after its user closed it
+     *
+     * @param key The cache key of the statement
+     * @param statement The statement, with parameters already cleared
+     */
+    synchronized void put(String key, PreparedStatement statement) {
+        PreparedStatement previous = statements.put(key, statement);
+        if (previous != null && previous != statement) {
+            // The same SQL was prepared twice on this connection; keep one copy
+            closeQuietly(previous);
+        }
+
+        Iterator<Map.Entry<String, PreparedStatement>> eldest = statements.entrySet().iterator();
+        while (statements.size() > maxSize && eldest.hasNext()) {
+            closeQuietly(eldest.next().getValue());
+            eldest.remove();
+            pool.recordStatementEviction();
+        }
+    }
+
+    /**
+     * Close every cached statement
+     */
+    synchronized void clear() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    synchronized int size() {
+        return statements.size();
+    }
+
+    private void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing cached statement", e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.app.dlms.Middleware;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Brings an existing database up to the schema a new one is created with.
+ *
+ * The tables are only created when the database does not exist yet, so
+ * columns and indexes added to them later never reach an existing install on
+ * their own. Each migration looks its column or index up in
+ * information_schema and only alters the table when it is missing, so running
+ * all of them on every startup is safe.
+ */
+final class SchemaMigrations {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrations.class.getName());
+
+    // One column or index, and the statement that adds it
+    private static final class Migration {
+        final String table;
+        final String name;
+        final boolean column;
+        final String ddl;
+
+        Migration(String table, String name, boolean column, String ddl) {
+            this.table = table;
+            this.name = name;
+            this.column = column;
+            this.ddl = ddl;
+        }
+    }
+
+    // In the order they must run: a column before the indexes on it
+    private static final List<Migration> MIGRATIONS = List.of(
+            // Member search by phone number (see UserSearchPlan)
+            column("users", "phone_digits",
+                    "ALTER TABLE users ADD COLUMN phone_digits VARCHAR(20) AS (REGEXP_REPLACE(phone, '[^0-9]', '')) STORED"),
+            index("users", "idx_users_email", "ALTER TABLE users ADD INDEX idx_users_email (email)"),
+            index("users", "idx_users_phone_digits", "ALTER TABLE users ADD INDEX idx_users_phone_digits (phone_digits)"),
+            index("users", "ft_users_text", "ALTER TABLE users ADD FULLTEXT INDEX ft_users_text (name, username, email)"),
+            // Keyset pagination
+            index("payments", "idx_payments_payment_date",
+                    "ALTER TABLE payments ADD INDEX idx_payments_payment_date (payment_date)"),
+            index("borrow_records", "idx_borrow_records_borrow_date",
+                    "ALTER TABLE borrow_records ADD INDEX idx_borrow_records_borrow_date (borrow_date)"),
+            // Overdue count and member loan summary
+            index("borrow_records", "idx_borrow_records_open",
+                    "ALTER TABLE borrow_records ADD INDEX idx_borrow_records_open (return_date, due_date)"),
+            index("borrow_records", "idx_borrow_records_member",
+                    "ALTER TABLE borrow_records ADD INDEX idx_borrow_records_member (member_id, return_date, due_date)"));
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Add every missing column and index
+     *
+     * @param conn A connection to the application database
+     * @return True if the schema is now current, false if a migration failed
+     */
+    static boolean run(Connection conn) {
+        boolean current = true;
+        for (Migration migration : MIGRATIONS) {
+            try {
+                if (exists(conn, migration)) {
+                    continue;
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate(migration.ddl);
+                }
+                LOGGER.info("Added " + (migration.column ? "column " : "index ") + migration.name
+                        + " to " + migration.table);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Could not add " + migration.name + " to " + migration.table, e);
+                current = false;
+            }
+        }
+        return current;
+    }
+
+    private static boolean exists(Connection conn, Migration migration) throws SQLException {
+        String sql = migration.column
+                ? "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                  "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?"
+                : "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                  "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, migration.table);
+            stmt.setString(2, migration.name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static Migration column(String table, String name, String ddl) {
+        return new Migration(table, name, true, ddl);
+    }
+
+    private static Migration index(String table, String name, String ddl) {
+        return new Migration(table, name, false, ddl);
+    }
+}
@@ -0,0 +1,380 @@
+package org.app.dlms.Middleware.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index: for a fixed list of facets (such as genre or
+ * publisher), which documents have which value, so that filtering on facet
+ * values and counting the documents per value never needs a GROUP BY query.
+ *
+ * Each facet value keeps the ids of its documents. Like the containers of a
+ * roaring bitmap, a value with few documents keeps a sorted array of ids and
+ * switches to a bitmap once the bitmap would be smaller. Each facet also
+ * keeps the value of every document, so counting is one pass over the
+ * documents that pass the filters.
+ *
+ * A query selects any number of values per facet. A document matches if, for
+ * every facet with a selection, its value is one of the selected ones. The
+ * counts of a facet are taken over the documents matching the selections of
+ * all other facets, so the user sees how many documents each alternative
+ * value would give, not just the values already chosen.
+ *
+ * Document ids are expected to be small, dense integers such as
+ * auto-increment keys. Reads share a lock, so queries run concurrently with
+ * each other but not with updates.
+ */
+public class FacetIndex {
+
+    // The documents with one facet value: a sorted array while sparse, a bitmap once that is smaller
+    private static final class IdSet {
+        int[] ids = new int[4];
+        long[] bits;
+        int size;
+
+        void add(int id, int idCapacity) {
+            if (bits != null) {
+                if (id >>> 6 >= bits.length) {
+                    bits = Arrays.copyOf(bits, Math.max(id >>> 6, bits.length * 2) + 1);
+                }
+                if ((bits[id >>> 6] & (1L << id)) == 0) {
+                    bits[id >>> 6] |= 1L << id;
+                    size++;
+                }
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                if ((size + 1) * 32L > idCapacity) {
+                    toBitmap(idCapacity);
+                    add(id, idCapacity);
+                    return;
+                }
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            if (bits != null) {
+                if (id >>> 6 < bits.length && (bits[id >>> 6] & (1L << id)) != 0) {
+                    bits[id >>> 6] &= ~(1L << id);
+                    size--;
+                }
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        // Add these documents to a bitmap
+        void orInto(long[] target) {
+            if (bits != null) {
+                for (int i = 0; i < Math.min(bits.length, target.length); i++) {
+                    target[i] |= bits[i];
+                }
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                int id = ids[i];
+                if (id >>> 6 < target.length) {
+                    target[id >>> 6] |= 1L << id;
+                }
+            }
+        }
+
+        private void toBitmap(int idCapacity) {
+            bits = new long[(idCapacity >>> 6) + 1];
+            for (int i = 0; i < size; i++) {
+                bits[ids[i] >>> 6] |= 1L << ids[i];
+            }
+            ids = null;
+        }
+    }
+
+    // The values of one facet, numbered in the order they were first seen
+    private static final class Facet {
+        final Map<String, Integer> ordinals = new HashMap<>();
+        final List<String> values = new ArrayList<>();
+        final List<IdSet> postings = new ArrayList<>();
+        int[] documentOrdinals; // Value of each document, -1 for none
+
+        int ordinal(String value) {
+            Integer ordinal = ordinals.get(value);
+            if (ordinal == null) {
+                ordinal = values.size();
+                ordinals.put(value, ordinal);
+                values.add(value);
+                postings.add(new IdSet());
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * The outcome of a facet query
+     */
+    public static final class Result {
+        private final long[] matching;
+        private final int[] ids;
+        private final List<Map<String, Integer>> counts;
+
+        private Result(long[] matching, List<Map<String, Integer>> counts) {
+            this.matching = matching;
+            this.ids = toIdsDescending(matching);
+            this.counts = counts;
+        }
+
+        /**
+         * @param id A document id
+         * @return true if the document matches the query
+         */
+        public boolean contains(int id) {
+            return id >= 0 && id >>> 6 < matching.length && (matching[id >>> 6] & (1L << id)) != 0;
+        }
+
+        /**
+         * @return The ids of the matching documents, highest first
+         */
+        public int[] getIds() {
+            return ids;
+        }
+
+        /**
+         * @param facet The facet number
+         * @return Number of documents per value of the facet, for every value that has any
+         */
+        public Map<String, Integer> getCounts(int facet) {
+            return counts.get(facet);
+        }
+    }
+
+    private final Facet[] facets;
+    private int idCapacity = 1024;
+    private long[] live = new long[(idCapacity >>> 6) + 1];
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param facetCount The number of facets, in the order values are passed to put()
+     */
+    public FacetIndex(int facetCount) {
+        facets = new Facet[facetCount];
+        for (int i = 0; i < facetCount; i++) {
+            facets[i] = new Facet();
+            facets[i].documentOrdinals = new int[idCapacity];
+            Arrays.fill(facets[i].documentOrdinals, -1);
+        }
+    }
+
+    /**
+     * Add a document, replacing any earlier version with the same id
+     *
+     * @param id The document id, not negative
+     * @param values The document's value of each facet, in constructor order; null for none
+     */
+    public void put(int id, String... values) {
+        if (id < 0 || values.length > facets.length) {
+            throw new IllegalArgumentException("Invalid document " + id + " with " + values.length + " values");
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            ensureCapacity(id);
+            live[id >>> 6] |= 1L << id;
+            for (int f = 0; f < facets.length; f++) {
+                Facet facet = facets[f];
+                String value = f < values.length ? values[f] : null;
+                if (value == null) {
+                    continue;
+                }
+                int ordinal = facet.ordinal(value);
+                facet.documentOrdinals[id] = ordinal;
+                facet.postings.get(ordinal).add(id, idCapacity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document
+     *
+     * @param id The document id
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the values of a facet that any document has or had
+     *
+     * @param facet The facet number
+     * @return The values, in no particular order
+     */
+    public List<String> getValues(int facet) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(facets[facet].values);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the documents matching the selected values and count the values of every facet
+     *
+     * @param selections For each facet, the selected values; null or empty selects every document
+     * @return The matching ids and the counts per facet
+     */
+    public Result query(List<Set<String>> selections) {
+        lock.readLock().lock();
+        try {
+            // One bitmap per facet with a selection: the documents having one of the selected values
+            long[][] filters = new long[facets.length][];
+            for (int f = 0; f < facets.length; f++) {
+                Set<String> selected = f < selections.size() ? selections.get(f) : null;
+                if (selected == null || selected.isEmpty()) {
+                    continue;
+                }
+                filters[f] = new long[live.length];
+                for (String value : selected) {
+                    Integer ordinal = facets[f].ordinals.get(value);
+                    if (ordinal != null) {
+                        facets[f].postings.get(ordinal).orInto(filters[f]);
+                    }
+                }
+            }
+
+            long[] matching = intersect(filters, -1);
+            int[][] counts = new int[facets.length][];
+            List<Integer> unfiltered = new ArrayList<>();
+            for (int f = 0; f < facets.length; f++) {
+                counts[f] = new int[facets[f].values.size()];
+                if (filters[f] == null) {
+                    unfiltered.add(f);
+                } else {
+                    // A facet's own selection does not narrow its counts
+                    countValues(intersect(filters, f), new int[]{f}, counts);
+                }
+            }
+            // Facets without a selection are all counted over the matching documents, in one pass
+            int[] shared = new int[unfiltered.size()];
+            for (int i = 0; i < shared.length; i++) {
+                shared[i] = unfiltered.get(i);
+            }
+            countValues(matching, shared, counts);
+
+            List<Map<String, Integer>> countMaps = new ArrayList<>(facets.length);
+            for (int f = 0; f < facets.length; f++) {
+                Map<String, Integer> byValue = new HashMap<>();
+                for (int ordinal = 0; ordinal < counts[f].length; ordinal++) {
+                    if (counts[f][ordinal] > 0) {
+                        byValue.put(facets[f].values.get(ordinal), counts[f][ordinal]);
+                    }
+                }
+                countMaps.add(byValue);
+            }
+            return new Result(matching, countMaps);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The live documents that pass every filter except the skipped one
+    private long[] intersect(long[][] filters, int skip) {
+        long[] result = live.clone();
+        for (int f = 0; f < filters.length; f++) {
+            if (f != skip && filters[f] != null) {
+                for (int i = 0; i < result.length; i++) {
+                    result[i] &= filters[f][i];
+                }
+            }
+        }
+        return result;
+    }
+
+    private void countValues(long[] documents, int[] facetNumbers, int[][] counts) {
+        if (facetNumbers.length == 0) {
+            return;
+        }
+        for (int word = 0; word < documents.length; word++) {
+            long bits = documents[word];
+            while (bits != 0) {
+                int id = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                for (int f : facetNumbers) {
+                    int ordinal = facets[f].documentOrdinals[id];
+                    if (ordinal >= 0) {
+                        counts[f][ordinal]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int[] toIdsDescending(long[] documents) {
+        int total = 0;
+        for (long word : documents) {
+            total += Long.bitCount(word);
+        }
+        int[] ids = new int[total];
+        int next = 0;
+        for (int word = documents.length - 1; word >= 0; word--) {
+            long bits = documents[word];
+            while (bits != 0) {
+                int bit = 63 - Long.numberOfLeadingZeros(bits);
+                ids[next++] = (word << 6) + bit;
+                bits &= ~(1L << bit);
+            }
+        }
+        return ids;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < idCapacity) {
+            return;
+        }
+        int capacity = Math.max(id + 1, idCapacity * 2);
+        live = Arrays.copyOf(live, (capacity >>> 6) + 1);
+        for (Facet facet : facets) {
+            int oldLength = facet.documentOrdinals.length;
+            facet.documentOrdinals = Arrays.copyOf(facet.documentOrdinals, capacity);
+            Arrays.fill(facet.documentOrdinals, oldLength, capacity, -1);
+        }
+        idCapacity = capacity;
+    }
+
+    private void removeLocked(int id) {
+        if (id >= idCapacity || (live[id >>> 6] & (1L << id)) == 0) {
+            return;
+        }
+        live[id >>> 6] &= ~(1L << id);
+        for (Facet facet : facets) {
+            int ordinal = facet.documentOrdinals[id];
+            if (ordinal >= 0) {
+                facet.postings.get(ordinal).remove(id);
+                facet.documentOrdinals[id] = -1;
+            }
+        }
+    }
+}
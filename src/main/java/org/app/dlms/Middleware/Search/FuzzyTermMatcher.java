@@ -0,0 +1,188 @@
+package org.app.dlms.Middleware.Search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Finds the terms of a sorted term dictionary that are within a few typing
+ * mistakes of a query term.
+ *
+ * A mistake is a missing, extra or wrong letter, or two neighbouring letters
+ * swapped (the optimal string alignment distance). As with prefix search, the
+ * query may be the start of a longer term, so "tolkein" finds "tolkien" and
+ * "dostoevksy" finds "dostoevsky".
+ *
+ * Like most spelling checkers, the first letter is assumed to be right; typing
+ * mistakes there are rare, and trusting it makes the search many times
+ * faster.
+ *
+ * The dictionary is walked in sorted order like a trie: terms sharing a
+ * prefix with the previous term reuse its rows of the edit distance table,
+ * and once every cell of a row exceeds the allowed distance all terms with
+ * that prefix are skipped with one lookup, or all taken as matches when a
+ * shorter start of them is already within reach. This behaves like running a
+ * Levenshtein automaton over the dictionary and only visits a small part of
+ * it.
+ */
+final class FuzzyTermMatcher {
+
+    // Score factor per mistake, so a term with one typo ranks below an exact or prefix match
+    private static final float SCORE_PER_EDIT = 0.5f;
+
+    // How often the walk looks at the clock
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    private FuzzyTermMatcher() {
+    }
+
+    /**
+     * Allowed mistakes for a query term: none for very short terms, where
+     * almost every dictionary term would be within reach, one for most words
+     * and two for long ones.
+     *
+     * @param term The query term
+     * @return The maximum edit distance
+     */
+    static int maxEdits(String term) {
+        if (term.length() < 4) {
+            return 0;
+        }
+        return term.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Find the dictionary terms within the allowed distance of the query
+     * term, or whose start, at least as long as the query, is within that
+     * distance. Terms the query is an exact prefix of are left out; prefix
+     * search already finds those.
+     *
+     * @param dictionary The sorted terms
+     * @param query The query term
+     * @param maxEdits The maximum edit distance
+     * @param maxTerms Stop after finding this many terms
+     * @param deadline System.nanoTime() value after which the walk stops early
+     * @return Map from matching term to its match score, between 0 and 1
+     */
+    static Map<String, Float> match(NavigableMap<String, ?> dictionary, String query, int maxEdits,
+                                    int maxTerms, long deadline) {
+        Map<String, Float> matches = new HashMap<>();
+        if (maxEdits <= 0 || query.isEmpty()) {
+            return matches;
+        }
+
+        int m = query.length();
+        int[][] rows = new int[16][m + 1];
+        for (int j = 0; j <= m; j++) {
+            rows[0][j] = j;
+        }
+
+        String firstLetter = query.substring(0, 1);
+        String previous = "";
+        int steps = 0;
+        Iterator<String> terms = dictionary.navigableKeySet().tailSet(firstLetter, true).iterator();
+        String term = terms.hasNext() ? terms.next() : null;
+        while (term != null && term.startsWith(firstLetter) && matches.size() < maxTerms) {
+            if (++steps % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                break;
+            }
+            if (rows.length <= term.length()) {
+                rows = grow(rows, term.length() + 1, m + 1);
+            }
+
+            // Rows up to the prefix shared with the previous term are still valid
+            int depth = commonPrefixLength(previous, term);
+            int bestEdits = maxEdits + 1;
+            int bestDepth = 0;
+            for (int d = m; d <= depth; d++) {
+                if (rows[d][m] < bestEdits) {
+                    bestEdits = rows[d][m];
+                    bestDepth = d;
+                }
+            }
+
+            int pruneAt = -1;
+            for (int d = depth + 1; d <= term.length(); d++) {
+                int rowMin = fillRow(rows, d, query, term);
+                if (rowMin > maxEdits) {
+                    pruneAt = d;
+                    break;
+                }
+                // Fewer mistakes win; for the same number, the longer prefix.
+                // A start of the term only counts if it is at least as long as the query.
+                if (rows[d][m] <= bestEdits && (d >= m || d == term.length())) {
+                    bestEdits = rows[d][m];
+                    bestDepth = d;
+                }
+            }
+
+            if (pruneAt > 0) {
+                // No term starting with these letters can come closer than the best start found so far
+                String prefix = term.substring(0, pruneAt);
+                previous = term.substring(0, pruneAt - 1);
+                if (bestEdits > 0 && bestEdits <= maxEdits) {
+                    // That start is within reach, so every term with these letters matches through it
+                    while (term != null && term.startsWith(prefix) && matches.size() < maxTerms) {
+                        matches.put(term, score(bestEdits, bestDepth, term.length()));
+                        term = terms.hasNext() ? terms.next() : null;
+                    }
+                } else {
+                    terms = dictionary.navigableKeySet().tailSet(prefix + Character.MAX_VALUE, false).iterator();
+                    term = terms.hasNext() ? terms.next() : null;
+                }
+                continue;
+            }
+            if (bestEdits > 0 && bestEdits <= maxEdits) {
+                matches.put(term, score(bestEdits, bestDepth, term.length()));
+            }
+            previous = term;
+            term = terms.hasNext() ? terms.next() : null;
+        }
+        return matches;
+    }
+
+    // Score of a term whose first matchedLength letters are the given number of edits from the query
+    private static float score(int edits, int matchedLength, int termLength) {
+        float coverage = matchedLength == termLength ? 1f : 0.5f * matchedLength / termLength;
+        return coverage * (float) Math.pow(SCORE_PER_EDIT, edits);
+    }
+
+    // Fill row d of the distance table between the query and the first d letters of the term
+    private static int fillRow(int[][] rows, int d, String query, String term) {
+        int[] row = rows[d];
+        int[] above = rows[d - 1];
+        char c = term.charAt(d - 1);
+        row[0] = d;
+        int rowMin = d;
+        for (int j = 1; j < row.length; j++) {
+            int cost = query.charAt(j - 1) == c ? 0 : 1;
+            int value = Math.min(Math.min(above[j] + 1, row[j - 1] + 1), above[j - 1] + cost);
+            if (d > 1 && j > 1 && query.charAt(j - 1) == term.charAt(d - 2) && query.charAt(j - 2) == c) {
+                value = Math.min(value, rows[d - 2][j - 2] + 1);
+            }
+            row[j] = value;
+            rowMin = Math.min(rowMin, value);
+        }
+        return rowMin;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static int[][] grow(int[][] rows, int depth, int width) {
+        int[][] grown = Arrays.copyOf(rows, Math.max(depth, rows.length * 2));
+        for (int d = rows.length; d < grown.length; d++) {
+            grown[d] = new int[width];
+        }
+        return grown;
+    }
+}
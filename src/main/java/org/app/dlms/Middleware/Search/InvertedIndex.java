@@ -0,0 +1,587 @@
+package org.app.dlms.Middleware.Search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from search terms to document ids.
+ *
+ * A document is a fixed list of text fields, each with its own weight; the
+ * fields are split into terms by TextNormalizer. Every query term must match a
+ * term of the document, either exactly or as a prefix, so results narrow as
+ * the user types. A fuzzy search also accepts terms with a typing mistake or
+ * two. Documents are ranked by the sum of their best match per query term:
+ * an exact match counts fully, a prefix match by how much of the term it
+ * covers and a similar term less for every mistake, multiplied by the weight
+ * of the field it was found in.
+ *
+ * Terms are kept sorted, so all terms starting with a prefix are found with
+ * one range lookup. Only the postings of the query term with the fewest
+ * documents are read; the candidates are then checked against the remaining
+ * query terms through a per-document term list, which keeps multi-word
+ * queries fast even when one word is very common. A short prefix whose
+ * expansion was cut off only drives the search when every query term was
+ * cut off, so a multi-word query never loses matches to that limit. Terms are visited best
+ * match first and the search stops as soon as the top results can no
+ * longer change.
+ *
+ * Documents can be added, replaced and removed at any time. Reads share a
+ * lock, so searches run concurrently with each other but not with updates.
+ */
+public class InvertedIndex {
+
+    // The documents of one term, sorted by id, with the fields the term occurs in as a bit mask
+    private static final class Postings {
+        int[] ids = new int[2];
+        int[] fieldMasks = new int[2];
+        int size;
+
+        void add(int id, int fieldMask) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                fieldMasks[pos] |= fieldMask;
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                fieldMasks = Arrays.copyOf(fieldMasks, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(fieldMasks, pos, fieldMasks, pos + 1, size - pos);
+            ids[pos] = id;
+            fieldMasks[pos] = fieldMask;
+            size++;
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(fieldMasks, pos + 1, fieldMasks, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    // The distinct terms of one document, with the fields each occurs in
+    private static final class DocumentTerms {
+        final String[] terms;
+        final int[] fieldMasks;
+
+        DocumentTerms(String[] terms, int[] fieldMasks) {
+            this.terms = terms;
+            this.fieldMasks = fieldMasks;
+        }
+    }
+
+    // A query term, with the similar indexed terms it also matches in a fuzzy search
+    private static final class QueryTerm {
+        final String text;
+        final Map<String, Float> similarTerms;
+
+        QueryTerm(String text, Map<String, Float> similarTerms) {
+            this.text = text;
+            this.similarTerms = similarTerms;
+        }
+    }
+
+    // The postings of one indexed term matched by a query term, and how well it matches
+    private static final class Expansion {
+        final Postings postings;
+        final float match;
+
+        Expansion(Postings postings, float match) {
+            this.postings = postings;
+            this.match = match;
+        }
+    }
+
+    private static final int MAX_EXPANSIONS = 256;
+
+    private final float[] fieldWeights;
+    private final float maxFieldWeight;
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Integer, DocumentTerms> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param fieldWeights Weight of each field, in the order fields are passed to put()
+     */
+    public InvertedIndex(float... fieldWeights) {
+        if (fieldWeights.length == 0 || fieldWeights.length > 32) {
+            throw new IllegalArgumentException("Between 1 and 32 fields are supported");
+        }
+        this.fieldWeights = fieldWeights.clone();
+        float max = 0;
+        for (float weight : fieldWeights) {
+            max = Math.max(max, weight);
+        }
+        this.maxFieldWeight = max;
+    }
+
+    /**
+     * Add a document, replacing any earlier version with the same id
+     *
+     * @param id The document id
+     * @param fields The text of each field, in constructor order; nulls are skipped
+     */
+    public void put(int id, String... fields) {
+        if (fields.length > fieldWeights.length) {
+            throw new IllegalArgumentException("Expected at most " + fieldWeights.length + " fields");
+        }
+        // Tokenize outside the lock
+        Map<String, Integer> termMasks = new HashMap<>();
+        for (int field = 0; field < fields.length; field++) {
+            int mask = 1 << field;
+            for (String term : TextNormalizer.tokenize(fields[field])) {
+                termMasks.merge(term, mask, (a, b) -> a | b);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            String[] terms = new String[termMasks.size()];
+            int[] masks = new int[termMasks.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : termMasks.entrySet()) {
+                Postings termPostings = postings.get(entry.getKey());
+                String term = entry.getKey();
+                if (termPostings == null) {
+                    termPostings = new Postings();
+                    postings.put(term, termPostings);
+                } else {
+                    // Share the key instance instead of keeping a copy per document
+                    term = postings.ceilingKey(term);
+                }
+                termPostings.add(id, entry.getValue());
+                terms[i] = term;
+                masks[i] = entry.getValue();
+                i++;
+            }
+            documents.put(id, new DocumentTerms(terms, masks));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document
+     *
+     * @param id The document id
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every document
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of documents in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of distinct terms in the index
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the documents matching every term of a query
+     *
+     * @param query The text typed by the user
+     * @param limit Maximum number of ids to return
+     * @return Matching document ids, best match first; empty if the query has no terms
+     */
+    public List<Integer> search(String query, int limit) {
+        return search(query, limit, false, 0);
+    }
+
+    /**
+     * Like search(), but a query term also matches indexed terms within a
+     * few typing mistakes of it (see FuzzyTermMatcher), ranked below exact
+     * and prefix matches. Looking for such terms stops when the time budget
+     * is used up, so a slow query returns the matches found so far instead
+     * of holding up the caller.
+     *
+     * @param query The text typed by the user
+     * @param limit Maximum number of ids to return
+     * @param budgetNanos Time allowed for finding similar terms, in nanoseconds
+     * @return Matching document ids, best match first; empty if the query has no terms
+     */
+    public List<Integer> searchFuzzy(String query, int limit, long budgetNanos) {
+        return search(query, limit, true, System.nanoTime() + budgetNanos);
+    }
+
+    private List<Integer> search(String query, int limit, boolean fuzzy, long deadline) {
+        List<String> queryTerms = distinct(TextNormalizer.tokenize(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Start from the query term whose expansion has the fewest documents. A cut off expansion
+            // undercounts and would drop documents the other terms match, so complete ones come first.
+            List<QueryTerm> terms = new ArrayList<>();
+            List<Float> maxMatches = new ArrayList<>();
+            QueryTerm first = null;
+            List<Expansion> firstExpansion = null;
+            boolean firstComplete = false;
+            long fewest = Long.MAX_VALUE;
+            for (String text : queryTerms) {
+                QueryTerm term = new QueryTerm(text, fuzzy ? similarTerms(text, deadline) : Collections.emptyMap());
+                terms.add(term);
+                List<Expansion> expansion = new ArrayList<>();
+                boolean complete = expand(term, expansion);
+                maxMatches.add(maxMatch(term, expansion, complete));
+                long count = 0;
+                for (Expansion entry : expansion) {
+                    count += entry.postings.size;
+                }
+                if ((complete && !firstComplete) || (complete == firstComplete && count < fewest)) {
+                    fewest = count;
+                    first = term;
+                    firstExpansion = expansion;
+                    firstComplete = complete;
+                }
+            }
+            if (fewest == 0) {
+                return new ArrayList<>();
+            }
+            List<QueryTerm> otherTerms = new ArrayList<>();
+            float otherTermsMax = 0;
+            for (int i = 0; i < terms.size(); i++) {
+                if (terms.get(i) != first) {
+                    otherTerms.add(terms.get(i));
+                    otherTermsMax += maxMatches.get(i) * maxFieldWeight;
+                }
+            }
+
+            Candidates candidates = new Candidates();
+            for (int t = 0; t < firstExpansion.size(); t++) {
+                Expansion expansion = firstExpansion.get(t);
+                float match = expansion.match;
+                boolean lastOfScore = t + 1 == firstExpansion.size() || firstExpansion.get(t + 1).match != match;
+                boolean onlyOfScore = lastOfScore && (t == 0 || firstExpansion.get(t - 1).match != match);
+
+                // When no other term scores the same, later postings of this term have higher ids and
+                // later terms score less, so nothing after a document scoring this term's maximum can beat it
+                float termMax = match * maxFieldWeight + otherTermsMax;
+                int atTermMax = onlyOfScore ? candidates.countAbove(termMax) : 0;
+
+                Postings termPostings = expansion.postings;
+                for (int i = 0; i < termPostings.size; i++) {
+                    int id = termPostings.ids[i];
+                    float score = match * fieldWeight(termPostings.fieldMasks[i]);
+                    int slot = candidates.slot(id);
+                    float before;
+                    if (candidates.isNew(slot)) {
+                        before = Float.NEGATIVE_INFINITY;
+                        float others = otherTerms.isEmpty() ? 0 : otherTermsScore(documents.get(id), otherTerms);
+                        slot = candidates.add(slot, id, score, others);
+                    } else {
+                        before = candidates.total(slot);
+                        candidates.raise(slot, score);
+                    }
+                    if (onlyOfScore && before < termMax && candidates.total(slot) >= termMax
+                            && ++atTermMax >= limit) {
+                        return candidates.top(limit);
+                    }
+                }
+
+                // Once enough documents score higher than any later term could reach, the rest can not get in
+                if (lastOfScore && t + 1 < firstExpansion.size()) {
+                    float reachable = firstExpansion.get(t + 1).match * maxFieldWeight + otherTermsMax;
+                    if (candidates.countAbove(reachable) >= limit) {
+                        break;
+                    }
+                }
+            }
+            return candidates.top(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Collect the indexed terms a query term matches, best match first: the
+     * terms it is a prefix of, shortest first, then any similar terms. Like
+     * prefix queries in other search engines, a very short prefix is only
+     * expanded to its first MAX_EXPANSIONS terms, which keeps every keystroke
+     * cheap; typing another letter narrows the range again.
+     *
+     * @return false if the prefix range was cut off
+     */
+    private boolean expand(QueryTerm term, List<Expansion> expansion) {
+        boolean complete = true;
+        int prefixTerms = 0;
+        for (Map.Entry<String, Postings> entry
+                : postings.subMap(term.text, true, term.text + Character.MAX_VALUE, false).entrySet()) {
+            if (prefixTerms == MAX_EXPANSIONS) {
+                complete = false;
+                break;
+            }
+            expansion.add(new Expansion(entry.getValue(), matchScore(term.text, entry.getKey())));
+            prefixTerms++;
+        }
+        for (Map.Entry<String, Float> similar : term.similarTerms.entrySet()) {
+            expansion.add(new Expansion(postings.get(similar.getKey()), similar.getValue()));
+        }
+        expansion.sort((x, y) -> Float.compare(y.match, x.match));
+        return complete;
+    }
+
+    // The highest match score a query term can reach in any document; a cut off expansion may miss the
+    // shortest longer term, which scores at most as one letter longer than the query term
+    private static float maxMatch(QueryTerm term, List<Expansion> expansion, boolean complete) {
+        float max = expansion.isEmpty() ? 0 : expansion.get(0).match;
+        if (!complete) {
+            max = Math.max(max, 0.5f * term.text.length() / (term.text.length() + 1));
+        }
+        return max;
+    }
+
+    // Indexed terms with the fewest mistakes that have any, up to the allowed maximum
+    private Map<String, Float> similarTerms(String text, long deadline) {
+        Map<String, Float> similar = Collections.emptyMap();
+        for (int edits = 1; edits <= FuzzyTermMatcher.maxEdits(text) && similar.isEmpty(); edits++) {
+            similar = FuzzyTermMatcher.match(postings, text, edits, MAX_EXPANSIONS, deadline);
+        }
+        return similar;
+    }
+
+    /**
+     * Candidate documents of one search: an open-addressing map from id to
+     * the best score of the first query term and the combined score of the
+     * others, which is negative when the document misses one of them.
+     */
+    private static final class Candidates {
+        private int[] ids = new int[64];
+        private float[] firstScores = new float[64];
+        private float[] otherScores = new float[64];
+        private boolean[] used = new boolean[64];
+        private int size;
+
+        int slot(int id) {
+            int mask = ids.length - 1;
+            int slot = (id * 0x9E3779B9 >>> 7) & mask;
+            while (used[slot] && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        boolean isNew(int slot) {
+            return !used[slot];
+        }
+
+        // Returns the slot of the new entry, which moves when the table grows
+        int add(int slot, int id, float firstScore, float otherScore) {
+            used[slot] = true;
+            ids[slot] = id;
+            firstScores[slot] = firstScore;
+            otherScores[slot] = otherScore;
+            if (++size * 2 > ids.length) {
+                grow();
+                return slot(id);
+            }
+            return slot;
+        }
+
+        // Total score, negative infinity for a document that misses one of the other terms
+        float total(int slot) {
+            return otherScores[slot] < 0 ? Float.NEGATIVE_INFINITY : firstScores[slot] + otherScores[slot];
+        }
+
+        void raise(int slot, float firstScore) {
+            if (firstScore > firstScores[slot]) {
+                firstScores[slot] = firstScore;
+            }
+        }
+
+        int countAbove(float score) {
+            int count = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (used[i] && otherScores[i] >= 0 && firstScores[i] + otherScores[i] > score) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        List<Integer> top(int limit) {
+            PriorityQueue<ScoredId> best = new PriorityQueue<>(Math.min(limit, size) + 1, Collections.reverseOrder());
+            for (int i = 0; i < ids.length; i++) {
+                if (!used[i] || otherScores[i] < 0) {
+                    continue;
+                }
+                ScoredId scored = new ScoredId(ids[i], firstScores[i] + otherScores[i]);
+                if (best.size() < limit) {
+                    best.add(scored);
+                } else if (scored.compareTo(best.peek()) < 0) {
+                    best.poll();
+                    best.add(scored);
+                }
+            }
+            List<ScoredId> sorted = new ArrayList<>(best);
+            sorted.sort(null);
+            List<Integer> result = new ArrayList<>(sorted.size());
+            for (ScoredId scored : sorted) {
+                result.add(scored.id);
+            }
+            return result;
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            float[] oldFirst = firstScores;
+            float[] oldOther = otherScores;
+            boolean[] oldUsed = used;
+            ids = new int[oldIds.length * 2];
+            firstScores = new float[ids.length];
+            otherScores = new float[ids.length];
+            used = new boolean[ids.length];
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = slot(oldIds[i]);
+                    used[slot] = true;
+                    ids[slot] = oldIds[i];
+                    firstScores[slot] = oldFirst[i];
+                    otherScores[slot] = oldOther[i];
+                }
+            }
+        }
+    }
+
+    private static final class ScoredId implements Comparable<ScoredId> {
+        final int id;
+        final float score;
+
+        ScoredId(int id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        // Best first: higher score, then lower id
+        @Override
+        public int compareTo(ScoredId other) {
+            int byScore = Float.compare(other.score, score);
+            return byScore != 0 ? byScore : Integer.compare(id, other.id);
+        }
+    }
+
+    // Sum of the best match of each term, or -1 if the document misses one
+    private float otherTermsScore(DocumentTerms doc, List<QueryTerm> terms) {
+        float total = 0;
+        for (QueryTerm term : terms) {
+            float best = bestMatch(doc, term);
+            if (best == 0) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private void removeLocked(int id) {
+        DocumentTerms doc = documents.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Postings termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(id);
+                if (termPostings.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private float bestMatch(DocumentTerms doc, QueryTerm queryTerm) {
+        float best = 0;
+        for (int i = 0; i < doc.terms.length; i++) {
+            float match;
+            if (doc.terms[i].startsWith(queryTerm.text)) {
+                match = matchScore(queryTerm.text, doc.terms[i]);
+            } else {
+                match = queryTerm.similarTerms.getOrDefault(doc.terms[i], 0f);
+            }
+            if (match > 0) {
+                best = Math.max(best, match * fieldWeight(doc.fieldMasks[i]));
+            }
+        }
+        return best;
+    }
+
+    // 1 for an exact match, less the more of the indexed term the prefix leaves out
+    private static float matchScore(String queryTerm, String indexedTerm) {
+        if (queryTerm.length() == indexedTerm.length()) {
+            return 1f;
+        }
+        return 0.5f * queryTerm.length() / indexedTerm.length();
+    }
+
+    private float fieldWeight(int fieldMask) {
+        float weight = 0;
+        for (int field = 0; field < fieldWeights.length; field++) {
+            if ((fieldMask & (1 << field)) != 0) {
+                weight = Math.max(weight, fieldWeights[field]);
+            }
+        }
+        return weight;
+    }
+
+    private static List<String> distinct(List<String> terms) {
+        List<String> unique = new ArrayList<>();
+        for (String term : terms) {
+            if (!unique.contains(term)) {
+                unique.add(term);
+            }
+        }
+        return unique;
+    }
+}
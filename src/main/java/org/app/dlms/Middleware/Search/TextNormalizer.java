@@ -0,0 +1,116 @@
+package org.app.dlms.Middleware.Search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into search terms.
+ *
+ * Terms are lower case with accents removed, so "Émile" and "emile" give the
+ * same term. Text is split on anything that is not a letter or digit, except
+ * that a hyphen between two digits is dropped, so an ISBN such as
+ * 978-0-14-044913-6 becomes the single term 9780140449136 and can be found by
+ * typing its first digits with or without the hyphens.
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Split text into normalized terms
+     *
+     * @param text The text, may be null
+     * @return The terms in order of appearance, possibly with duplicates
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = fold(text);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (c == '-' && isDigitAt(folded, i - 1) && isDigitAt(folded, i + 1)) {
+                // Keep digit groups together, e.g. in an ISBN
+            } else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (term.length() > 0) {
+            terms.add(term.toString());
+        }
+        return terms;
+    }
+
+    /**
+     * Lower-case text and remove accents
+     *
+     * @param text The text
+     * @return The folded text
+     */
+    public static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (isAscii(lower)) {
+            return lower;
+        }
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int type = Character.getType(c);
+            if (type != Character.NON_SPACING_MARK && type != Character.COMBINING_SPACING_MARK
+                    && type != Character.ENCLOSING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Check a record against a query the way the search indexes do: every
+     * query term must be the start of a term in one of the fields
+     *
+     * @param queryTerms The tokenized query
+     * @param fields The text of the record's searchable fields; nulls are skipped
+     * @return True if the record matches every query term
+     */
+    public static boolean matchesAll(List<String> queryTerms, String... fields) {
+        List<String> recordTerms = new ArrayList<>();
+        for (String field : fields) {
+            recordTerms.addAll(tokenize(field));
+        }
+        for (String queryTerm : queryTerms) {
+            boolean found = false;
+            for (String recordTerm : recordTerms) {
+                if (recordTerm.startsWith(queryTerm)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigitAt(String text, int index) {
+        return index >= 0 && index < text.length() && Character.isDigit(text.charAt(index));
+    }
+}
@@ -0,0 +1,166 @@
+package org.app.dlms.Middleware.Services;
+
+import javafx.application.Platform;
+import org.app.dlms.Backend.Dao.BookDAO;
+import org.app.dlms.Backend.Dao.BorrowActivityDAO;
+import org.app.dlms.Backend.Dao.BorrowRecordDAO;
+import org.app.dlms.Backend.Dao.DashboardStatsDAO;
+import org.app.dlms.Backend.Dao.FineDAO;
+import org.app.dlms.Backend.Dao.GenreDAO;
+import org.app.dlms.Backend.Dao.PaymentDAO;
+import org.app.dlms.Backend.Dao.UserDAO;
+import org.app.dlms.Middleware.DatabaseConnection;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs DAO calls off the JavaFX application thread.
+ *
+ * Every call gets its own virtual thread, and at most as many calls as the
+ * connection pool has connections run at once; the rest wait for a permit
+ * instead of queueing inside the pool. Results handed to a callback are
+ * delivered on the JavaFX application thread.
+ *
+ * Usage:
+ * <pre>
+ * AsyncDAO.books().call(dao -&gt; dao.searchBooks(term), books -&gt; table.getItems().setAll(books));
+ * </pre>
+ *
+ * @param <D> The DAO type
+ */
+public final class AsyncDAO<D> {
+
+    /** Runs tasks on the JavaFX application thread */
+    public static final Executor FX = Platform::runLater;
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dlms-dao-", 0).factory());
+
+    private static final Semaphore PERMITS =
+            new Semaphore(Math.max(1, DatabaseConnection.getInstance().getConnectionPool().getMaxSize()), true);
+
+    // The DAOs keep no per-call state, so one instance of each is shared
+    private static final AsyncDAO<BookDAO> BOOKS = new AsyncDAO<>(new BookDAO());
+    private static final AsyncDAO<UserDAO> USERS = new AsyncDAO<>(new UserDAO());
+    private static final AsyncDAO<GenreDAO> GENRES = new AsyncDAO<>(new GenreDAO());
+    private static final AsyncDAO<BorrowRecordDAO> BORROW_RECORDS = new AsyncDAO<>(new BorrowRecordDAO());
+    private static final AsyncDAO<PaymentDAO> PAYMENTS = new AsyncDAO<>(new PaymentDAO());
+    private static final AsyncDAO<FineDAO> FINES = new AsyncDAO<>(new FineDAO());
+    private static final AsyncDAO<DashboardStatsDAO> DASHBOARD_STATS = new AsyncDAO<>(new DashboardStatsDAO());
+    private static final AsyncDAO<BorrowActivityDAO> BORROW_ACTIVITY = new AsyncDAO<>(new BorrowActivityDAO());
+
+    private final D dao;
+
+    private AsyncDAO(D dao) {
+        this.dao = dao;
+    }
+
+    public static AsyncDAO<BookDAO> books() {
+        return BOOKS;
+    }
+
+    public static AsyncDAO<UserDAO> users() {
+        return USERS;
+    }
+
+    public static AsyncDAO<GenreDAO> genres() {
+        return GENRES;
+    }
+
+    public static AsyncDAO<BorrowRecordDAO> borrowRecords() {
+        return BORROW_RECORDS;
+    }
+
+    public static AsyncDAO<PaymentDAO> payments() {
+        return PAYMENTS;
+    }
+
+    public static AsyncDAO<FineDAO> fines() {
+        return FINES;
+    }
+
+    public static AsyncDAO<DashboardStatsDAO> dashboardStats() {
+        return DASHBOARD_STATS;
+    }
+
+    public static AsyncDAO<BorrowActivityDAO> borrowActivity() {
+        return BORROW_ACTIVITY;
+    }
+
+    /**
+     * Run a call on this DAO in the background
+     *
+     * @param query The DAO call
+     * @return Future completed with the result on the background thread
+     */
+    public <T> CompletableFuture<T> call(Function<D, T> query) {
+        return supplyAsync(() -> query.apply(dao));
+    }
+
+    /**
+     * Run a call on this DAO in the background and hand the result to the JavaFX thread
+     *
+     * @param query The DAO call
+     * @param onResult Receives the result on the JavaFX application thread
+     * @return Future completed after onResult ran
+     */
+    public <T> CompletableFuture<Void> call(Function<D, T> query, Consumer<T> onResult) {
+        return onFx(call(query), onResult);
+    }
+
+    /**
+     * Run work that uses several DAOs in the background
+     *
+     * @param work The work to run
+     * @return Future completed with the result on the background thread
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            PERMITS.acquireUninterruptibly();
+            try {
+                return work.get();
+            } finally {
+                PERMITS.release();
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Run work that mostly computes, such as password hashing, in the background
+     * without taking a database permit. Its DAO calls wait in the connection
+     * pool instead, so a burst of such work does not hold back other queries.
+     *
+     * @param work The work to run
+     * @return Future completed with the result on the background thread
+     */
+    public static <T> CompletableFuture<T> computeAsync(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, EXECUTOR);
+    }
+
+    /**
+     * Hand the result of a future to the JavaFX thread. Failures are logged
+     * instead of being passed on, as the DAOs already report their own errors.
+     *
+     * @param future The background work
+     * @param onResult Receives the result on the JavaFX application thread
+     * @return Future completed after onResult ran
+     */
+    public static <T> CompletableFuture<Void> onFx(CompletableFuture<T> future, Consumer<T> onResult) {
+        return future.handleAsync((result, error) -> {
+            if (error != null) {
+                System.err.println("Error in background database call: " + error.getMessage());
+                error.printStackTrace();
+            } else {
+                onResult.accept(result);
+            }
+            return null;
+        }, FX);
+    }
+}
@@ -10,6 +10,9 @@ import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 
 public class ComponentService {
+
+    private static final String STAT_VALUE_KEY = "statValue";
+
     public StackPane createStatCard(String title, String value, String icon) {
         StackPane card = new StackPane();
         card.setStyle("-fx-background-color: white; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 5, 0, 0, 5); -fx-background-radius: 8;");
@@ -31,7 +34,16 @@ public class ComponentService {
 
         content.getChildren().addAll(iconText, valueText, titleText);
         card.getChildren().add(content);
+        card.getProperties().put(STAT_VALUE_KEY, valueText);
 
         return card;
     }
+
+    // Replaces the value shown on a card made by createStatCard, e.g. once it has loaded
+    public void setStatCardValue(StackPane card, String value) {
+        Object valueText = card.getProperties().get(STAT_VALUE_KEY);
+        if (valueText instanceof Text) {
+            ((Text) valueText).setText(value);
+        }
+    }
 }
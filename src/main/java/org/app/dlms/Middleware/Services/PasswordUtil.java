@@ -1,30 +1,125 @@
 package org.app.dlms.Middleware.Services;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import org.app.dlms.Middleware.Strategy.Md5PasswordHashStrategy;
+import org.app.dlms.Middleware.Strategy.PasswordHashStrategy;
+import org.app.dlms.Middleware.Strategy.Pbkdf2PasswordHashStrategy;
 
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes and verifies passwords.
+ *
+ * New hashes are made with the current strategy (PBKDF2). Stored hashes are
+ * verified with whichever strategy recognizes their format, so legacy MD5
+ * hashes keep working until needsRehash tells the caller to replace them.
+ *
+ * Hashing is deliberately slow, so it runs on a small shared pool: a burst of
+ * logins queues up there instead of occupying every core, and when the queue
+ * is full further attempts fail straight away with RejectedExecutionException.
+ * A failed hash throws rather than returning a placeholder, so nothing
+ * unusable is ever stored, and a rejected verification throws rather than
+ * reporting a wrong password.
+ */
 public class PasswordUtil {
 
-    // Hashes the plain text password using MD5
+    private static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int MAX_QUEUED = 32;
+
+    private static final ThreadPoolExecutor HASHER = new ThreadPoolExecutor(WORKERS, WORKERS,
+            30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED), r -> {
+                Thread thread = new Thread(r, "dlms-password-hasher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        HASHER.allowCoreThreadTimeOut(true);
+    }
+
+    private final PasswordHashStrategy current;
+    private final List<PasswordHashStrategy> strategies;
+    private volatile String dummyHash;    // Hash of a random password, made on first use
+
+    public PasswordUtil() {
+        this(new Pbkdf2PasswordHashStrategy());
+    }
+
+    /**
+     * @param current Strategy used for new hashes; MD5 hashes are still verified
+     */
+    public PasswordUtil(PasswordHashStrategy current) {
+        this.current = current;
+        this.strategies = List.of(current, new Md5PasswordHashStrategy());
+    }
+
+    // Hashes the plain text password with the current strategy.
+    // Throws RejectedExecutionException when the hashing queue is full; the caller must not store anything then
     public String hashPassword(String plainPassword) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] hashedBytes = md.digest(plainPassword.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashedBytes) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            System.err.println("Error hashing password: " + e.getMessage());
-            return "ERROR_HASHING_PASSWORD";
-        }
+        return runBounded(() -> current.hash(plainPassword));
     }
 
-    // Verifies if the plain password, when hashed, matches the provided hash
+    // Verifies if the plain password matches the stored hash, whatever its format.
+    // Throws RejectedExecutionException when the hashing queue is full; the password was not checked then
     public boolean verifyPassword(String plainPassword, String hashedPassword) {
-        return hashPassword(plainPassword).equals(hashedPassword);
+        if (plainPassword == null || hashedPassword == null) {
+            return false;
+        }
+        PasswordHashStrategy strategy = strategyFor(hashedPassword);
+        if (strategy == null) {
+            return false;
+        }
+        return runBounded(() -> strategy.verify(plainPassword, hashedPassword));
+    }
+
+    // Takes as long as verifying against a current hash, and never matches. Used when a login names
+    // no account, so the response time does not reveal which usernames exist. Throws
+    // RejectedExecutionException like verifyPassword, so a busy server looks the same for every username
+    public void verifyAgainstDummy(String plainPassword) {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = runBounded(() -> current.hash(UUID.randomUUID().toString()));
+            dummyHash = hash;
+        }
+        verifyPassword(plainPassword != null ? plainPassword : "", hash);
+    }
+
+    // Whether a stored hash should be replaced by hashPassword() after a successful login
+    public boolean needsRehash(String hashedPassword) {
+        if (hashedPassword == null) {
+            return false;
+        }
+        PasswordHashStrategy strategy = strategyFor(hashedPassword);
+        return strategy != current || current.needsRehash(hashedPassword);
     }
 
+    private PasswordHashStrategy strategyFor(String hashedPassword) {
+        for (PasswordHashStrategy strategy : strategies) {
+            if (strategy.supports(hashedPassword)) {
+                return strategy;
+            }
+        }
+        return null;
+    }
 
+    private static <T> T runBounded(Callable<T> task) {
+        try {
+            return HASHER.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package org.app.dlms.Middleware.Services;
+
+import org.app.dlms.Backend.Dao.LibraryStatsDAO;
+import org.app.dlms.Middleware.DatabaseConnection;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks the library_stats counters against the tables they
+ * summarize and repairs any drift.
+ *
+ * The DAOs keep the counters up to date, so drift only comes from rows
+ * changed outside the application or from a bug; checking every
+ * stats.reconcile.interval milliseconds (10 minutes by default) is enough.
+ */
+public class StatsReconciler {
+
+    private static final long DEFAULT_INTERVAL = 600000;
+
+    private static StatsReconciler instance;
+
+    private final LibraryStatsDAO libraryStatsDAO = new LibraryStatsDAO();
+    private ScheduledExecutorService scheduler;
+
+    private StatsReconciler() {
+    }
+
+    /**
+     * Get the singleton instance
+     *
+     * @return The reconciler
+     */
+    public static synchronized StatsReconciler getInstance() {
+        if (instance == null) {
+            instance = new StatsReconciler();
+        }
+        return instance;
+    }
+
+    /**
+     * Reconcile the counters now, creating them if needed, and then on a
+     * schedule. Blocks until the first run has finished, so the counters
+     * exist before the application starts writing.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        reconcile();
+
+        long interval = Math.max(1000, DatabaseConnection.getInstance()
+                .getLongProperty("stats.reconcile.interval", DEFAULT_INTERVAL));
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "dlms-stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcile, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the scheduled reconciliation
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // LibraryStatsDAO reports each repaired counter itself
+    private void reconcile() {
+        libraryStatsDAO.reconcile();
+    }
+}
@@ -0,0 +1,60 @@
+package org.app.dlms.Middleware.Strategy;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Legacy unsalted MD5 hashes, stored as 32 lower-case hex digits.
+ * Only kept to verify old passwords until they are rehashed on login.
+ */
+public class Md5PasswordHashStrategy implements PasswordHashStrategy {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // MessageDigest is not thread-safe, so each thread keeps its own instance
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    });
+
+    @Override
+    public String hash(String plainPassword) {
+        byte[] hashedBytes = MD5.get().digest(plainPassword.getBytes());
+        char[] hex = new char[hashedBytes.length * 2];
+        for (int i = 0; i < hashedBytes.length; i++) {
+            int b = hashedBytes[i] & 0xff;
+            hex[i * 2] = HEX_DIGITS[b >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    @Override
+    public boolean verify(String plainPassword, String storedHash) {
+        byte[] expected = hash(plainPassword).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = storedHash.getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        if (storedHash.length() != 32) {
+            return false;
+        }
+        for (int i = 0; i < storedHash.length(); i++) {
+            if (Character.digit(storedHash.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return true;
+    }
+}
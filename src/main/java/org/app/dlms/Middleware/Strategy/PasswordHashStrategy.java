@@ -0,0 +1,27 @@
+package org.app.dlms.Middleware.Strategy;
+
+/**
+ * Strategy interface for hashing and verifying passwords
+ */
+public interface PasswordHashStrategy {
+
+    /**
+     * Hash a plain text password for storage
+     */
+    String hash(String plainPassword);
+
+    /**
+     * Check a plain text password against a stored hash produced by this strategy
+     */
+    boolean verify(String plainPassword, String storedHash);
+
+    /**
+     * Whether a stored hash is in this strategy's format
+     */
+    boolean supports(String storedHash);
+
+    /**
+     * Whether a stored hash in this strategy's format is weaker than what hash() produces now
+     */
+    boolean needsRehash(String storedHash);
+}
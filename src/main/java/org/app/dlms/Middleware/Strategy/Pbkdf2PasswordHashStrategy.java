@@ -0,0 +1,119 @@
+package org.app.dlms.Middleware.Strategy;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 hashes in a versioned format:
+ * <pre>$pbkdf2-sha256$v=1$i=&lt;iterations&gt;$&lt;salt&gt;$&lt;hash&gt;</pre>
+ * with salt and hash in unpadded Base64. The iteration count is stored with
+ * every hash, so it can be raised without breaking existing passwords; hashes
+ * made with fewer iterations are reported by needsRehash.
+ */
+public class Pbkdf2PasswordHashStrategy implements PasswordHashStrategy {
+
+    public static final int DEFAULT_ITERATIONS = 600_000;
+
+    private static final String PREFIX = "$pbkdf2-sha256$";
+    private static final String VERSION = "v=1";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final int iterations;
+
+    public Pbkdf2PasswordHashStrategy() {
+        this(DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * @param iterations Work factor for new hashes
+     */
+    public Pbkdf2PasswordHashStrategy(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("iterations must be positive");
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String hash(String plainPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = derive(plainPassword, salt, iterations, HASH_BYTES);
+        return PREFIX + VERSION + "$i=" + iterations + "$" + ENCODER.encodeToString(salt)
+                + "$" + ENCODER.encodeToString(hash);
+    }
+
+    @Override
+    public boolean verify(String plainPassword, String storedHash) {
+        String[] parts = split(storedHash);
+        if (parts == null) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[2].substring(2));
+            byte[] salt = DECODER.decode(parts[3]);
+            byte[] expected = DECODER.decode(parts[4]);
+            byte[] actual = derive(plainPassword, salt, storedIterations, expected.length);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        String[] parts = split(storedHash);
+        if (parts == null || !VERSION.equals(parts[1])) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(parts[2].substring(2)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Split a stored hash into ["pbkdf2-sha256", "v=1", "i=n", salt, hash], or null if malformed
+     */
+    private static String[] split(String storedHash) {
+        if (!storedHash.startsWith(PREFIX)) {
+            return null;
+        }
+        String[] parts = storedHash.substring(1).split("\\$");
+        if (parts.length != 5 || !parts[2].startsWith("i=")) {
+            return null;
+        }
+        return parts;
+    }
+
+    private static byte[] derive(String plainPassword, byte[] salt, int iterations, int length) {
+        PBEKeySpec spec = new PBEKeySpec(plainPassword.toCharArray(), salt, iterations, length * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.app.dlms.Middleware;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A piece of database work that runs on a single connection.
+ * Used with {@link DatabaseConnection#inTransaction(UnitOfWork)} so that every
+ * statement of an operation shares one pooled connection and one transaction.
+ *
+ * @param <T> The result type of the work
+ */
+@FunctionalInterface
+public interface UnitOfWork<T> {
+    T execute(Connection conn) throws SQLException;
+}
@@ -0,0 +1,316 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Model.Book;
+import org.app.dlms.Backend.Model.BorrowRecord;
+import org.app.dlms.Backend.Model.User;
+import org.app.dlms.Middleware.Cache.EntityCaches;
+import org.app.dlms.Middleware.DatabaseConnection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prints the statements run and the time taken to build the table rows of
+ * 10,000 borrow records, with member name and book title: looking the member
+ * and book up once per row as the list screens used to do, with and without
+ * the entity caches, and with the batched getUsersByIds and getBooksByIds.
+ *
+ * The records, 2,000 members and 5,000 books are generated, and the DAOs
+ * read them through an in-memory driver that waits ROUND_TRIP_MICROS on
+ * every query, standing in for the network round trip to MySQL.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=BatchLookupBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BatchLookupBenchmarkTest {
+
+    private static final int RECORDS = 10_000;
+    private static final int MEMBERS = 2_000;
+    private static final int BOOKS = 5_000;
+    private static final long ROUND_TRIP_MICROS = 200;
+
+    @Test
+    void perRowAgainstBatchedLookups() throws SQLException {
+        FakeDatabase.register();
+        System.setProperty("db.url", FakeDatabase.URL);
+        System.setProperty("db.driver", FakeDatabase.class.getName());
+        DatabaseConnection.getInstance();
+        UserDAO userDAO = new UserDAO();
+        BookDAO bookDAO = new BookDAO();
+
+        Random random = new Random(42);
+        List<BorrowRecord> records = new ArrayList<>();
+        for (int id = 1; id <= RECORDS; id++) {
+            Date borrowed = new Date(1_700_000_000_000L + id * 60_000L);
+            records.add(new BorrowRecord(id, 1 + random.nextInt(MEMBERS), 1 + random.nextInt(BOOKS),
+                    borrowed, new Date(borrowed.getTime() + 14 * 86_400_000L), null));
+        }
+
+        // The first pass warms up the JIT, the second is reported
+        for (int pass = 0; pass < 2; pass++) {
+            boolean print = pass == 1;
+            List<String[]> uncached = measure("per row, no cache", print, () -> perRow(records, userDAO, bookDAO, true));
+            List<String[]> cached = measure("per row, cached", print, () -> perRow(records, userDAO, bookDAO, false));
+            List<String[]> batched = measure("batched", print, () -> batched(records, userDAO, bookDAO));
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(String.join("|", uncached.get(i)), String.join("|", batched.get(i)));
+                assertEquals(String.join("|", cached.get(i)), String.join("|", batched.get(i)));
+            }
+        }
+    }
+
+    // One user and one book lookup per record, as the list screens used to do. Without
+    // the cache every lookup is a query, as before the entity caches were added
+    private static List<String[]> perRow(List<BorrowRecord> records, UserDAO userDAO, BookDAO bookDAO,
+                                         boolean uncached) {
+        List<String[]> rows = new ArrayList<>();
+        for (BorrowRecord record : records) {
+            if (uncached) {
+                EntityCaches.getInstance().invalidateAll();
+            }
+            User member = userDAO.getUserById(record.getMemberId());
+            Book book = bookDAO.getBookById(record.getBookId());
+            rows.add(row(record, member, book));
+        }
+        return rows;
+    }
+
+    private static List<String[]> batched(List<BorrowRecord> records, UserDAO userDAO, BookDAO bookDAO) {
+        Set<Integer> memberIds = new TreeSet<>();
+        Set<Integer> bookIds = new TreeSet<>();
+        for (BorrowRecord record : records) {
+            memberIds.add(record.getMemberId());
+            bookIds.add(record.getBookId());
+        }
+        Map<Integer, User> members = userDAO.getUsersByIds(memberIds);
+        Map<Integer, Book> books = bookDAO.getBooksByIds(bookIds);
+        List<String[]> rows = new ArrayList<>();
+        for (BorrowRecord record : records) {
+            rows.add(row(record, members.get(record.getMemberId()), books.get(record.getBookId())));
+        }
+        return rows;
+    }
+
+    // Build the rows from an empty cache, printing the statements run and the time taken
+    private static List<String[]> measure(String label, boolean print, Supplier<List<String[]>> build) {
+        EntityCaches.getInstance().invalidateAll();
+        long statements = FakeDatabase.queries.get();
+        long start = System.nanoTime();
+        List<String[]> rows = build.get();
+        long nanos = System.nanoTime() - start;
+        if (print) {
+            System.out.printf("%s: %,d borrow records, %,d statements, %.1f ms%n", label, rows.size(),
+                    FakeDatabase.queries.get() - statements, nanos / 1_000_000.0);
+        }
+        return rows;
+    }
+
+    // The cells the borrowed books table shows for a record
+    private static String[] row(BorrowRecord record, User member, Book book) {
+        return new String[]{String.valueOf(record.getId()), member.getName(), book.getTitle(),
+                String.valueOf(record.getBorrowDate()), String.valueOf(record.getDueDate())};
+    }
+
+    /**
+     * A driver over generated users and books. Queries by id or by a list of
+     * ids return those rows, the startup schema checks find everything in
+     * place, and every other query returns no rows.
+     */
+    public static final class FakeDatabase implements Driver {
+
+        static final String URL = "jdbc:fakedlms://localhost/dlms";
+
+        static final AtomicLong queries = new AtomicLong();
+
+        private static boolean registered;
+
+        static synchronized void register() throws SQLException {
+            if (!registered) {
+                DriverManager.registerDriver(new FakeDatabase());
+                registered = true;
+            }
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            return acceptsURL(url) ? connection() : null;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith("jdbc:fakedlms:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        private static Connection connection() {
+            return (Connection) Proxy.newProxyInstance(FakeDatabase.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "prepareStatement":
+                                return statement((String) args[0]);
+                            case "createStatement":
+                                return statement(null);
+                            case "isValid":
+                            case "getAutoCommit":
+                                return true;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                return defaultValue(method.getReturnType());
+                        }
+                    });
+        }
+
+        // A prepared statement for sql, or a plain statement when sql is null
+        private static PreparedStatement statement(String sql) {
+            Map<Integer, Object> params = new HashMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(FakeDatabase.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "setInt":
+                            case "setString":
+                            case "setObject":
+                                params.put((Integer) args[0], args[1]);
+                                return null;
+                            case "clearParameters":
+                                params.clear();
+                                return null;
+                            case "executeQuery":
+                                return query(sql != null ? sql : (String) args[0], params);
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            default:
+                                return defaultValue(method.getReturnType());
+                        }
+                    });
+        }
+
+        private static ResultSet query(String sql, Map<Integer, Object> params) {
+            queries.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ROUND_TRIP_MICROS));
+
+            List<Map<String, Object>> rows = new ArrayList<>();
+            if (sql.startsWith("SHOW DATABASES") || sql.contains("information_schema")) {
+                rows.add(Map.of("1", 1)); // The database and every migrated column and index exist
+            } else if (sql.startsWith("SELECT * FROM users WHERE id")) {
+                for (Object id : params.values()) {
+                    rows.add(user((Integer) id));
+                }
+            } else if (sql.startsWith("SELECT * FROM books WHERE id")) {
+                for (Object id : params.values()) {
+                    rows.add(book((Integer) id));
+                }
+            }
+            return resultSet(rows);
+        }
+
+        private static Map<String, Object> user(int id) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("username", "member" + id);
+            row.put("name", "Member " + id);
+            row.put("email", "member" + id + "@example.org");
+            row.put("role", "Member");
+            return row;
+        }
+
+        private static Map<String, Object> book(int id) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("title", "Book " + id);
+            row.put("author", "Author " + id % 700);
+            row.put("isbn", String.format("978-0-%05d-000", id));
+            row.put("year", 1950 + id % 70);
+            row.put("genre_id", 1 + id % 3);
+            row.put("available", true);
+            row.put("stock", 1 + id % 4);
+            return row;
+        }
+
+        private static ResultSet resultSet(List<Map<String, Object>> rows) {
+            int[] index = {-1};
+            return (ResultSet) Proxy.newProxyInstance(FakeDatabase.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next":
+                                return ++index[0] < rows.size();
+                            case "getInt":
+                            case "getString":
+                            case "getBoolean":
+                                Object value = rows.get(index[0]).get(String.valueOf(args[0]));
+                                return value != null ? value : defaultValue(method.getReturnType());
+                            default:
+                                return defaultValue(method.getReturnType());
+                        }
+                    });
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if (type == boolean.class) {
+                return false;
+            }
+            if (type == int.class) {
+                return 0;
+            }
+            if (type == long.class) {
+                return 0L;
+            }
+            return null;
+        }
+    }
+}
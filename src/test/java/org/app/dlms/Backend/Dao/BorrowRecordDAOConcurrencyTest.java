@@ -0,0 +1,199 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Model.Book;
+import org.app.dlms.Backend.Model.BorrowRecord;
+import org.app.dlms.Backend.Model.Genre;
+import org.app.dlms.Backend.Model.Member;
+import org.app.dlms.Middleware.DatabaseConnection;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Issues and returns books from many more threads than the pool has
+ * connections. Runs against a throwaway MySQL server in Docker, which
+ * DatabaseConnection creates the schema in, and is skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BorrowRecordDAOConcurrencyTest {
+
+    private static final int THREADS = 50;
+    private static final int ROUNDS = 20;
+
+    // Root, so DatabaseConnection can create its own database next to the container's
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0").withUsername("root");
+
+    private static DatabaseConnection db;
+    private static int memberId;
+    private static final List<Integer> bookIds = new ArrayList<>();
+
+    @BeforeAll
+    static void createFixtures() {
+        System.setProperty("db.url", "jdbc:mysql://" + MYSQL.getHost() + ":" + MYSQL.getMappedPort(3306)
+                + "/dlms_test?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC");
+        System.setProperty("db.username", MYSQL.getUsername());
+        System.setProperty("db.password", MYSQL.getPassword());
+        db = DatabaseConnection.getInstance();
+        assertTrue(db.testConnection(), "Test database not reachable");
+        assertTrue(new LibraryStatsDAO().reconcile() >= 0, "Counters not created");
+
+        // Through the DAOs, so the counters stay in step with the rows
+        Genre genre = new Genre();
+        genre.setName("Load Test");
+        int genreId = new GenreDAO().addGenre(genre);
+        assertTrue(genreId > 0);
+
+        memberId = new UserDAO().addUser(new Member(0, "loadtest", "loadtest", "Load Test",
+                "loadtest@example.com", null, null, null));
+        assertTrue(memberId > 0);
+
+        BookDAO bookDAO = new BookDAO();
+        for (int i = 0; i < THREADS; i++) {
+            int bookId = bookDAO.addBook(new Book("Load Test " + i, "Load Test", "LT-" + i, "Load Test",
+                    2000, genreId, true, 1));
+            assertTrue(bookId > 0);
+            bookIds.add(bookId);
+        }
+    }
+
+    @Test
+    void issueAndReturnFromFiftyThreadsWithoutFailures() throws Exception {
+        assertTrue(db.getConnectionPool().getMaxSize() < THREADS, "The pool must be smaller than the thread count");
+        BorrowRecordDAO dao = new BorrowRecordDAO();
+
+        List<Callable<Integer>> workers = new ArrayList<>();
+        for (int bookId : bookIds) {
+            workers.add(() -> {
+                int failures = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    BorrowRecord record = newLoan(bookId);
+                    if (!dao.addBorrowRecord(record)) {
+                        failures++;
+                        continue;
+                    }
+                    record.setReturnDate(new Date());
+                    if (!dao.updateBorrowRecord(record)) {
+                        failures++;
+                    }
+                }
+                return failures;
+            });
+        }
+
+        assertEquals(0, sum(runAll(workers)), "Failed issues or returns");
+        assertEquals(0, countActiveLoans(), "Loans left open");
+        assertEquals(THREADS, countAvailableBooks(), "Books left unavailable");
+        assertEquals(0, new LibraryStatsDAO().reconcile(), "Counters that drifted");
+    }
+
+    @Test
+    void concurrentIssuesOfOneCopyAdmitOnlyOne() throws Exception {
+        BorrowRecordDAO dao = new BorrowRecordDAO();
+        int bookId = bookIds.get(0);
+        CountDownLatch start = new CountDownLatch(1);
+        List<BorrowRecord> records = new ArrayList<>();
+
+        List<Callable<Integer>> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            BorrowRecord record = newLoan(bookId);
+            records.add(record);
+            workers.add(() -> {
+                start.await();
+                return dao.addBorrowRecord(record) ? 1 : 0;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (Callable<Integer> worker : workers) {
+                results.add(executor.submit(worker));
+            }
+            start.countDown();
+            int issued = 0;
+            for (Future<Integer> result : results) {
+                issued += result.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(1, issued, "Issues of the same copy that succeeded");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Return the one loan that went through so the other test starts clean
+        for (BorrowRecord record : records) {
+            if (record.getId() > 0) {
+                record.setReturnDate(new Date());
+                assertTrue(dao.updateBorrowRecord(record));
+            }
+        }
+        assertEquals(0, countActiveLoans());
+    }
+
+    private static BorrowRecord newLoan(int bookId) {
+        Date now = new Date();
+        return new BorrowRecord(0, memberId, bookId, now,
+                new Date(now.getTime() + TimeUnit.DAYS.toMillis(14)), null);
+    }
+
+    private static List<Integer> runAll(List<Callable<Integer>> workers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : executor.invokeAll(workers)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int sum(List<Integer> values) {
+        int total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private static int countActiveLoans() throws SQLException {
+        return count("SELECT COUNT(*) FROM borrow_records WHERE return_date IS NULL AND member_id = " + memberId);
+    }
+
+    private static int countAvailableBooks() throws SQLException {
+        StringBuilder ids = new StringBuilder();
+        for (int bookId : bookIds) {
+            ids.append(ids.length() == 0 ? "" : ",").append(bookId);
+        }
+        return count("SELECT COUNT(*) FROM books WHERE available = TRUE AND id IN (" + ids + ")");
+    }
+
+    private static int count(String sql) throws SQLException {
+        try (Connection conn = db.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.app.dlms.Backend.Dao;
+
+import org.app.dlms.Backend.Model.BorrowRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingQueriesTest {
+
+    private static final int ROWS = 1_000_000;
+
+    // Far below what a million buffered rows take, well above what one row does
+    private static final String CHILD_HEAP = "-Xmx24m";
+
+    /**
+     * A driver that behaves like Connector/J: unless the statement is
+     * forward-only, read-only and has the streaming fetch size, executeQuery
+     * reads the whole result into memory before returning it.
+     */
+    private static final class FakeDriver {
+        int resultSetType;
+        int resultSetConcurrency;
+        int fetchSize;
+
+        Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement")) {
+                            resultSetType = args.length > 1 ? (int) args[1] : ResultSet.TYPE_FORWARD_ONLY;
+                            resultSetConcurrency = args.length > 2 ? (int) args[2] : ResultSet.CONCUR_READ_ONLY;
+                            return statement();
+                        }
+                        return null;
+                    });
+        }
+
+        private PreparedStatement statement() {
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "setFetchSize":
+                                fetchSize = (int) args[0];
+                                return null;
+                            case "executeQuery":
+                                return streaming() ? rows(new GeneratedRows()) : rows(buffer(new GeneratedRows()));
+                            default:
+                                return null;
+                        }
+                    });
+        }
+
+        boolean streaming() {
+            return resultSetType == ResultSet.TYPE_FORWARD_ONLY
+                    && resultSetConcurrency == ResultSet.CONCUR_READ_ONLY
+                    && fetchSize == Integer.MIN_VALUE;
+        }
+    }
+
+    /** Borrow record rows, made up one at a time as the cursor moves */
+    private interface Rows {
+        boolean next();
+
+        Object get(int column);
+    }
+
+    private static final class GeneratedRows implements Rows {
+        private int id;
+
+        @Override
+        public boolean next() {
+            return ++id <= ROWS;
+        }
+
+        @Override
+        public Object get(int column) {
+            switch (column) {
+                case 1:
+                    return id;
+                case 2:
+                    return id % 5_000;
+                case 3:
+                    return id % 20_000;
+                case 4:
+                    return new Date(1_600_000_000_000L + id * 60_000L);
+                case 5:
+                    return new Date(1_601_200_000_000L + id * 60_000L);
+                default:
+                    return id % 3 == 0 ? null : new Date(1_600_600_000_000L + id * 60_000L);
+            }
+        }
+    }
+
+    // What a buffering driver holds before handing out the first row
+    private static Rows buffer(Rows source) {
+        List<Object[]> all = new ArrayList<>();
+        while (source.next()) {
+            Object[] row = new Object[6];
+            for (int column = 1; column <= 6; column++) {
+                row[column - 1] = source.get(column);
+            }
+            all.add(row);
+        }
+        int[] index = {-1};
+        return new Rows() {
+            @Override
+            public boolean next() {
+                return ++index[0] < all.size();
+            }
+
+            @Override
+            public Object get(int column) {
+                return all.get(index[0])[column - 1];
+            }
+        };
+    }
+
+    private static ResultSet rows(Rows rows) {
+        return (ResultSet) Proxy.newProxyInstance(StreamingQueriesTest.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return rows.next();
+                        case "getInt":
+                        case "getDate":
+                            return rows.get((int) args[0]);
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    /**
+     * The read loop of BorrowRecordDAO.streamAll over the fake driver; run in
+     * its own JVM with a small heap. Prints the number of rows read.
+     */
+    static final class StreamBorrowRecords {
+        public static void main(String[] args) throws Exception {
+            FakeDriver driver = new FakeDriver();
+            PreparedStatement stmt = StreamingQueries.prepare(driver.connection(),
+                    "SELECT id, member_id, book_id, borrow_date, due_date, return_date FROM borrow_records ORDER BY id");
+            ResultSet rs = stmt.executeQuery();
+            long count = 0;
+            long checksum = 0;
+            while (rs.next()) {
+                BorrowRecord record = new BorrowRecord(
+                        rs.getInt(1),
+                        rs.getInt(2),
+                        rs.getInt(3),
+                        rs.getDate(4),
+                        rs.getDate(5),
+                        rs.getDate(6));
+                checksum += record.getMemberId();
+                count++;
+            }
+            System.out.println(count + " " + checksum);
+        }
+    }
+
+    @Test
+    void statementsAreForwardOnlyReadOnlyAndStreamed() throws Exception {
+        FakeDriver driver = new FakeDriver();
+        StreamingQueries.prepare(driver.connection(), "SELECT id FROM books");
+        assertEquals(ResultSet.TYPE_FORWARD_ONLY, driver.resultSetType);
+        assertEquals(ResultSet.CONCUR_READ_ONLY, driver.resultSetConcurrency);
+        assertEquals(Integer.MIN_VALUE, driver.fetchSize);
+    }
+
+    @Test
+    void aMillionRowsStreamThroughASmallHeap() throws Exception {
+        // Both, since a modular test run puts the classes on the module path
+        String classPath = System.getProperty("java.class.path", "");
+        String modulePath = System.getProperty("jdk.module.path", "");
+        if (!modulePath.isEmpty()) {
+            classPath = classPath.isEmpty() ? modulePath : classPath + File.pathSeparator + modulePath;
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        Process child = new ProcessBuilder(java, CHILD_HEAP, "-cp", classPath, StreamBorrowRecords.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        assertTrue(child.waitFor(2, TimeUnit.MINUTES), "streaming a million rows timed out");
+        String output = new String(child.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+
+        assertEquals(0, child.exitValue(), output);
+        long expectedChecksum = 0;
+        for (int id = 1; id <= ROWS; id++) {
+            expectedChecksum += id % 5_000;
+        }
+        assertEquals(ROWS + " " + expectedChecksum, output);
+    }
+}
@@ -0,0 +1,69 @@
+package org.app.dlms.Backend.Dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserSearchPlanTest {
+
+    @Test
+    void digitsAreAnId() {
+        UserSearchPlan plan = UserSearchPlan.of(" 42 ");
+        assertEquals(UserSearchPlan.Kind.ID, plan.getKind());
+        assertEquals("42", plan.getValue());
+    }
+
+    @Test
+    void digitsTooLargeForAnIdAreAPhoneNumber() {
+        assertEquals(UserSearchPlan.Kind.ID, UserSearchPlan.of("2147483647").getKind());
+        assertEquals(UserSearchPlan.Kind.PHONE, UserSearchPlan.of("2147483648").getKind());
+        assertEquals(UserSearchPlan.Kind.PHONE, UserSearchPlan.of("07123456789").getKind());
+    }
+
+    @Test
+    void phonePunctuationIsDropped() {
+        UserSearchPlan plan = UserSearchPlan.of("+44 (0)20 7946-0958");
+        assertEquals(UserSearchPlan.Kind.PHONE, plan.getKind());
+        assertEquals("4402079460958", plan.getValue());
+        assertEquals("4402079460958%", plan.getPrefixPattern());
+    }
+
+    @Test
+    void tooFewPhoneDigitsAreText() {
+        assertEquals(UserSearchPlan.Kind.TEXT, UserSearchPlan.of("+4").getKind());
+    }
+
+    @Test
+    void anAtSignMakesAnEmail() {
+        UserSearchPlan plan = UserSearchPlan.of("John.Smith@");
+        assertEquals(UserSearchPlan.Kind.EMAIL, plan.getKind());
+        assertEquals("john.smith@%", plan.getPrefixPattern());
+        assertEquals("a\\_b\\%c@%", UserSearchPlan.of("a_b%c@").getPrefixPattern());
+    }
+
+    @Test
+    void containsPatternEscapesWildcards() {
+        assertEquals("%john%", UserSearchPlan.containsPattern("john"));
+        assertEquals("%50\\%\\_off%", UserSearchPlan.containsPattern("50%_off"));
+    }
+
+    @Test
+    void anythingElseIsText() {
+        UserSearchPlan plan = UserSearchPlan.of("  John Smith ");
+        assertEquals(UserSearchPlan.Kind.TEXT, plan.getKind());
+        assertEquals("John Smith", plan.getValue());
+        assertEquals(UserSearchPlan.Kind.TEXT, UserSearchPlan.of("room 12").getKind());
+    }
+
+    @Test
+    void onlyTextResultsAreNarrowedInMemory() {
+        assertTrue(UserDAO.canNarrowSearch("john", "john s"));
+        assertFalse(UserDAO.canNarrowSearch("1", "12"));
+        assertFalse(UserDAO.canNarrowSearch("john", "john@"));
+        assertFalse(UserDAO.canNarrowSearch("john@", "john@ex"));
+        assertFalse(UserDAO.canNarrowSearch("+44", "+44 20"));
+        assertFalse(UserDAO.canNarrowSearch("+4", "+447"));
+    }
+}
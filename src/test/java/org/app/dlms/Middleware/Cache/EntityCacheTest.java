@@ -0,0 +1,155 @@
+package org.app.dlms.Middleware.Cache;
+
+import org.app.dlms.Backend.Model.Member;
+import org.app.dlms.Middleware.Enums.MembershipType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EntityCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Integer, String> loader = id -> {
+        loads.incrementAndGet();
+        return "row" + id;
+    };
+
+    @Test
+    void secondGetIsServedFromTheCache() {
+        EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES);
+
+        assertEquals("row1", cache.get(1, loader));
+        assertEquals("row1", cache.get(1, loader));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void nullResultsAreNotCached() {
+        EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES);
+        Function<Integer, String> missing = id -> {
+            loads.incrementAndGet();
+            return null;
+        };
+
+        assertNull(cache.get(1, missing));
+        assertNull(cache.get(1, missing));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        EntityCache<Integer, String> cache = new EntityCache<>("test", 2, 1, TimeUnit.MINUTES);
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.get(1, loader); // 2 is now the least recently used
+        cache.get(3, loader);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals("row1", cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+    }
+
+    @Test
+    void expiredEntriesAreLoadedAgain() throws InterruptedException {
+        EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 20, TimeUnit.MILLISECONDS);
+        cache.get(1, loader);
+        Thread.sleep(40);
+        cache.get(1, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getExpirations());
+    }
+
+    @Test
+    void loadRacingWithAnInvalidationIsNotStored() {
+        EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES);
+
+        // The row is written, and its cache entry invalidated, while the old version is being read
+        String value = cache.get(1, id -> {
+            cache.invalidate(id);
+            return "stale";
+        });
+
+        assertEquals("stale", value);
+        assertNull(cache.getIfPresent(1), "A load older than the invalidation must not be cached");
+        assertEquals("row1", cache.get(1, loader));
+        assertEquals("row1", cache.getIfPresent(1));
+    }
+
+    @Test
+    void getAllLoadsOnlyTheMissingKeysInOneCall() {
+        EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES);
+        cache.put(1, "row1");
+        AtomicInteger batchLoads = new AtomicInteger();
+        Function<Collection<Integer>, Map<Integer, String>> batchLoader = ids -> {
+            batchLoads.incrementAndGet();
+            assertEquals(List.of(2, 3), List.copyOf(ids));
+            Map<Integer, String> rows = new HashMap<>();
+            rows.put(2, "row2"); // 3 does not exist
+            return rows;
+        };
+
+        Map<Integer, String> result = cache.getAll(Arrays.asList(1, 2, 2, 3, null), batchLoader);
+
+        assertEquals(Map.of(1, "row1", 2, "row2"), result);
+        assertEquals(1, batchLoads.get());
+        assertEquals("row2", cache.getIfPresent(2));
+        assertNull(cache.getIfPresent(3));
+    }
+
+    @Test
+    void invalidateIfDropsMatchingEntriesOnly() {
+        EntityCache<Integer, String> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES);
+        cache.put(1, "keep");
+        cache.put(2, "drop");
+
+        cache.invalidateIf("drop"::equals);
+
+        assertEquals("keep", cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+    }
+
+    @Test
+    void callersGetCopiesThatDoNotChangeTheCachedEntity() {
+        EntityCache<Integer, Member> cache = new EntityCache<>("test", 10, 1, TimeUnit.MINUTES, Member::copy);
+        Function<Integer, Member> memberLoader = id -> new Member(id, "ada", "***", "Ada", "ada@example.com",
+                null, null, null, MembershipType.Gold);
+
+        Member first = cache.get(1, memberLoader);
+        first.setName("Changed");
+        first.setPassword("plain text");
+        Member second = cache.get(1, memberLoader);
+        Member batched = cache.getAll(List.of(1), ids -> Map.of()).get(1);
+
+        assertEquals("Ada", second.getName());
+        assertEquals("***", second.getPassword());
+        assertEquals(MembershipType.Gold, second.getMembershipType());
+        assertNotSame(first, second);
+        assertNotSame(second, batched);
+        assertEquals("Ada", batched.getName());
+    }
+
+    @Test
+    void rejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new EntityCache<>("test", 0, 1, TimeUnit.MINUTES));
+    }
+}
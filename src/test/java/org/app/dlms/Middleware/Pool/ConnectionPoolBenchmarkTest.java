@@ -0,0 +1,129 @@
+package org.app.dlms.Middleware.Pool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prints checkout and release throughput of a 10-connection ConnectionPool
+ * at 1 to 64 threads, next to the synchronized array pool it replaced, which
+ * failed a checkout outright when every connection was busy.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=ConnectionPoolBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class ConnectionPoolBenchmarkTest {
+
+    private static final int[] THREADS = {1, 4, 16, 64};
+    private static final long RUN_MILLIS = 2000;
+
+    // One checkout and release; returns false if the checkout failed
+    private interface Checkout {
+        boolean run() throws SQLException;
+    }
+
+    @Test
+    void checkoutThroughput() throws Exception {
+        FakeJdbc.register();
+        for (int threads : THREADS) {
+            ConnectionPool pool = new ConnectionPool(FakeJdbc.URL, null, null, FakeJdbc.poolProperties(
+                    "db.pool.initialSize", "10", "db.pool.maxSize", "10", "db.pool.maxWaiters", "64"));
+            try {
+                long[] pooled = measure(threads, () -> {
+                    try (Connection conn = pool.getConnection()) {
+                        return conn != null;
+                    }
+                });
+                ArrayPool arrayPool = new ArrayPool(10);
+                long[] array = measure(threads, () -> {
+                    Connection conn = arrayPool.getConnection();
+                    if (conn == null) {
+                        return false;
+                    }
+                    arrayPool.releaseConnection(conn);
+                    return true;
+                });
+                System.out.printf("%2d threads: ConnectionPool %,d ops/ms; array pool %,d ops/ms, %,d failed%n",
+                        threads, pooled[0] / RUN_MILLIS, array[0] / RUN_MILLIS, array[1]);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Runs the checkout on every thread for RUN_MILLIS; returns {succeeded, failed}
+    private static long[] measure(int threads, Checkout checkout) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<long[]> worker = () -> {
+                    long[] counts = new long[2];
+                    start.await();
+                    while (running.get()) {
+                        counts[checkout.run() ? 0 : 1]++;
+                    }
+                    return counts;
+                };
+                results.add(executor.submit(worker));
+            }
+            start.countDown();
+            Thread.sleep(RUN_MILLIS);
+            running.set(false);
+            long[] total = new long[2];
+            for (Future<long[]> result : results) {
+                long[] counts = result.get(10, TimeUnit.SECONDS);
+                total[0] += counts[0];
+                total[1] += counts[1];
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // The pool DatabaseConnection used before ConnectionPool: one monitor and a linear scan
+    private static final class ArrayPool {
+        private final Connection[] connectionPool;
+        private final boolean[] connectionInUse;
+
+        ArrayPool(int size) {
+            connectionPool = new Connection[size];
+            connectionInUse = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                connectionPool[i] = FakeJdbc.newConnection();
+            }
+        }
+
+        synchronized Connection getConnection() {
+            for (int i = 0; i < connectionPool.length; i++) {
+                if (!connectionInUse[i]) {
+                    connectionInUse[i] = true;
+                    return connectionPool[i];
+                }
+            }
+            return null; // The old pool threw an SQLException here
+        }
+
+        synchronized void releaseConnection(Connection connection) {
+            for (int i = 0; i < connectionPool.length; i++) {
+                if (connectionPool[i] == connection) {
+                    connectionInUse[i] = false;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.app.dlms.Middleware.Pool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void registerDriver() throws SQLException {
+        FakeJdbc.register();
+    }
+
+    @AfterEach
+    void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void fiftyThreadsShareTenConnections() throws Exception {
+        pool = new ConnectionPool(FakeJdbc.URL, null, null, FakeJdbc.poolProperties(
+                "db.pool.initialSize", "2", "db.pool.maxSize", "10", "db.pool.maxWaiters", "50"));
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            workers.add(() -> {
+                for (int round = 0; round < 200; round++) {
+                    try (Connection conn = pool.getConnection()) {
+                        maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                        Thread.onSpinWait();
+                        inUse.decrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(50);
+        try {
+            for (Future<Void> future : executor.invokeAll(workers)) {
+                future.get(); // Rethrows any SQLException of a worker
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(maxInUse.get() <= 10, "At most maxSize connections are handed out at once");
+        assertTrue(pool.getTotalConnections() <= 10);
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(0, pool.getWaitingThreads());
+    }
+
+    @Test
+    void exhaustedPoolTimesOut() throws SQLException {
+        pool = new ConnectionPool(FakeJdbc.URL, null, null, FakeJdbc.poolProperties(
+                "db.pool.initialSize", "1", "db.pool.maxSize", "1", "db.pool.timeout", "50"));
+        try (Connection held = pool.getConnection()) {
+            assertThrows(SQLException.class, () -> pool.getConnection());
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed(), "The released connection can be checked out again");
+        }
+    }
+
+    @Test
+    void everyReleaseReachesAWaiter() throws Exception {
+        // One connection and a short timeout: a release that wakes nobody fails a checkout
+        pool = new ConnectionPool(FakeJdbc.URL, null, null, FakeJdbc.poolProperties(
+                "db.pool.initialSize", "1", "db.pool.maxSize", "1", "db.pool.timeout", "2000"));
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            workers.add(() -> {
+                for (int round = 0; round < 500; round++) {
+                    try (Connection conn = pool.getConnection()) {
+                        assertNotNull(conn);
+                    }
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Void> future : executor.invokeAll(workers)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, pool.getWaitingThreads());
+    }
+
+    @Test
+    void housekeepingReportsAHeldConnectionOnce() throws Exception {
+        Logger logger = Logger.getLogger(ConnectionProxy.class.getName());
+        List<LogRecord> warnings = new CopyOnWriteArrayList<>();
+        Handler handler = warningsInto(warnings);
+        logger.addHandler(handler);
+        try {
+            pool = new ConnectionPool(FakeJdbc.URL, null, null, FakeJdbc.poolProperties(
+                    "db.pool.initialSize", "1", "db.pool.maxSize", "2",
+                    "db.pool.validationInterval", "1000", "db.pool.leakDetectionThreshold", "100"));
+            try (Connection held = pool.getConnection()) {
+                Thread.sleep(2500); // At least two housekeeping passes
+            }
+            assertEquals(1, warnings.size(), "One leak warning per checkout");
+            assertNotNull(warnings.get(0).getThrown(), "The warning carries the checkout stack trace");
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test
+    void leakDetectionIsOffByDefault() throws Exception {
+        pool = new ConnectionPool(FakeJdbc.URL, null, null, FakeJdbc.poolProperties(
+                "db.pool.initialSize", "1", "db.pool.validationInterval", "1000"));
+        Logger logger = Logger.getLogger(ConnectionProxy.class.getName());
+        List<LogRecord> warnings = new CopyOnWriteArrayList<>();
+        Handler handler = warningsInto(warnings);
+        logger.addHandler(handler);
+        try (Connection held = pool.getConnection()) {
+            Thread.sleep(1500);
+        } finally {
+            logger.removeHandler(handler);
+        }
+        assertEquals(0, warnings.size());
+    }
+
+    private static Handler warningsInto(List<LogRecord> warnings) {
+        return new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel() == Level.WARNING) {
+                    warnings.add(record);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package org.app.dlms.Middleware.Pool;
+
+import org.app.dlms.Middleware.DatabaseConnection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Prints the per-call latency of the query behind BookDAO.getBookById,
+ * without the entity cache in front of it, on pools with and without the
+ * statement cache. Needs the MySQL database from db.properties.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=StatementCacheBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class StatementCacheBenchmarkTest {
+
+    private static final String SQL = "SELECT * FROM books WHERE id = ?";
+    private static final int CALLS = 5000;
+
+    @Test
+    void getBookByIdLatency() throws Exception {
+        assumeTrue(DatabaseConnection.getInstance().testConnection(), "MySQL database not reachable");
+        Properties config = loadConfig();
+        int bookId = firstBookId(DatabaseConnection.getInstance().getConnectionPool());
+        assumeTrue(bookId > 0, "No books in the database");
+
+        time("no statement cache", config, bookId, "db.pool.statementCacheSize", "0");
+        time("statement cache", config, bookId, "db.pool.statementCacheSize", "64");
+        time("statement cache, server prepares", config, bookId,
+                "db.pool.statementCacheSize", "64", "db.pool.useServerPrepStmts", "true");
+    }
+
+    private static void time(String label, Properties config, int bookId, String... overrides) throws SQLException {
+        Properties props = new Properties();
+        props.putAll(config);
+        for (int i = 0; i < overrides.length; i += 2) {
+            props.setProperty(overrides[i], overrides[i + 1]);
+        }
+        ConnectionPool pool = new ConnectionPool(config.getProperty("db.url"), config.getProperty("db.username"),
+                config.getProperty("db.password"), props);
+        try {
+            for (int i = 0; i < CALLS / 10; i++) {
+                getBookById(pool, bookId); // Warm up
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                getBookById(pool, bookId);
+            }
+            double micros = (System.nanoTime() - start) / 1000.0 / CALLS;
+            System.out.printf("getBookById, %s: %.0f us per call, %.0f%% cache hits%n",
+                    label, micros, pool.getStatementCacheHitRatio() * 100);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // The statements of BookDAO.getBookById
+    private static void getBookById(ConnectionPool pool, int bookId) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL)) {
+            stmt.setInt(1, bookId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                rs.getString("title");
+            }
+        }
+    }
+
+    private static int firstBookId(ConnectionPool pool) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT MIN(id) FROM books");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static Properties loadConfig() throws IOException {
+        Properties config = new Properties();
+        try (InputStream input = DatabaseConnection.class.getResourceAsStream("/org/app/dlms/config/db.properties")) {
+            assertNotNull(input, "db.properties not on the class path");
+            config.load(input);
+        }
+        return config;
+    }
+}
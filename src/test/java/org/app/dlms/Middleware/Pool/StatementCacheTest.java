@@ -0,0 +1,123 @@
+package org.app.dlms.Middleware.Pool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCacheTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void createPool() throws SQLException {
+        FakeJdbc.register();
+        pool = new ConnectionPool(FakeJdbc.URL, null, null, FakeJdbc.poolProperties(
+                "db.pool.initialSize", "1", "db.pool.maxSize", "1", "db.pool.statementCacheSize", "2"));
+    }
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void takeRemovesTheStatementUntilItIsPutBack() throws SQLException {
+        StatementCache cache = new StatementCache(2, pool);
+        PreparedStatement statement = FakeJdbc.newStatement();
+
+        assertNull(cache.take("a"));
+        cache.put("a", statement);
+        assertSame(statement, cache.take("a"));
+        assertNull(cache.take("a"), "A taken statement must not be handed out twice");
+        assertEquals(1, pool.getStatementCacheHits());
+        assertEquals(2, pool.getStatementCacheMisses());
+        assertFalse(statement.isClosed());
+    }
+
+    @Test
+    void evictsAndClosesTheLeastRecentlyReturnedStatement() throws SQLException {
+        StatementCache cache = new StatementCache(2, pool);
+        PreparedStatement a = FakeJdbc.newStatement();
+        PreparedStatement b = FakeJdbc.newStatement();
+        PreparedStatement c = FakeJdbc.newStatement();
+
+        cache.put("a", a);
+        cache.put("b", b);
+        cache.put("a", cache.take("a")); // a is now the most recent
+        cache.put("c", c);
+
+        assertEquals(2, cache.size());
+        assertTrue(b.isClosed());
+        assertFalse(a.isClosed());
+        assertFalse(c.isClosed());
+        assertEquals(1, pool.getStatementCacheEvictions());
+    }
+
+    @Test
+    void secondCopyOfTheSameSqlIsClosed() throws SQLException {
+        StatementCache cache = new StatementCache(2, pool);
+        PreparedStatement first = FakeJdbc.newStatement();
+        PreparedStatement second = FakeJdbc.newStatement();
+
+        cache.put("a", first);
+        cache.put("a", second);
+
+        assertEquals(1, cache.size());
+        assertTrue(first.isClosed());
+        assertSame(second, cache.take("a"));
+    }
+
+    @Test
+    void clearClosesEveryStatement() throws SQLException {
+        StatementCache cache = new StatementCache(2, pool);
+        PreparedStatement a = FakeJdbc.newStatement();
+        cache.put("a", a);
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertTrue(a.isClosed());
+    }
+
+    @Test
+    void pooledConnectionReusesStatementsAcrossCheckouts() throws SQLException {
+        int preparedBefore = FakeJdbc.statementsPrepared.get();
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT * FROM books WHERE id = ?")) {
+                stmt.setInt(1, i);
+                stmt.executeQuery();
+            }
+        }
+
+        assertEquals(1, FakeJdbc.statementsPrepared.get() - preparedBefore);
+        assertEquals(2, pool.getStatementCacheHits());
+        assertEquals(1, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    void statementWithChangedSettingsIsNotReused() throws SQLException {
+        int preparedBefore = FakeJdbc.statementsPrepared.get();
+        try (Connection conn = pool.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM books")) {
+                stmt.setFetchSize(Integer.MIN_VALUE);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM books")) {
+                stmt.executeQuery();
+            }
+        }
+
+        assertEquals(2, FakeJdbc.statementsPrepared.get() - preparedBefore);
+        assertEquals(0, pool.getStatementCacheHits());
+    }
+}
@@ -0,0 +1,128 @@
+package org.app.dlms.Middleware;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaMigrationsTest {
+
+    /**
+     * A database that only knows which columns and indexes exist, as
+     * "table.name", and adds the one an ALTER TABLE names
+     */
+    private static final class FakeSchema {
+        final Set<String> existing = new HashSet<>();
+        final List<String> altered = new ArrayList<>();
+        String failing;
+
+        Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "prepareStatement":
+                                return lookup();
+                            case "createStatement":
+                                return alter();
+                            default:
+                                return null;
+                        }
+                    });
+        }
+
+        private PreparedStatement lookup() {
+            String[] params = new String[2];
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "setString":
+                                params[(int) args[0] - 1] = (String) args[1];
+                                return null;
+                            case "executeQuery":
+                                return count(existing.contains(params[0] + "." + params[1]) ? 1 : 0);
+                            default:
+                                return null;
+                        }
+                    });
+        }
+
+        private Statement alter() {
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("executeUpdate")) {
+                            String ddl = (String) args[0];
+                            String[] words = ddl.split(" ");
+                            // ALTER TABLE <table> ADD [COLUMN | INDEX | FULLTEXT INDEX] <name> ...
+                            String name = words[4].equals("FULLTEXT") ? words[6] : words[5];
+                            if (name.equals(failing)) {
+                                throw new SQLException("Duplicate key name");
+                            }
+                            altered.add(words[2] + "." + name);
+                            existing.add(words[2] + "." + name);
+                            return 0;
+                        }
+                        return null;
+                    });
+        }
+
+        private static ResultSet count(int value) {
+            boolean[] read = {false};
+            return (ResultSet) Proxy.newProxyInstance(SchemaMigrationsTest.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next":
+                                boolean first = !read[0];
+                                read[0] = true;
+                                return first;
+                            case "getInt":
+                                return value;
+                            default:
+                                return null;
+                        }
+                    });
+        }
+    }
+
+    @Test
+    void anOldDatabaseGetsEveryColumnAndIndexColumnFirst() {
+        FakeSchema schema = new FakeSchema();
+        assertTrue(SchemaMigrations.run(schema.connection()));
+        assertEquals("users.phone_digits", schema.altered.get(0));
+        assertTrue(schema.altered.contains("users.ft_users_text"));
+        assertTrue(schema.altered.contains("payments.idx_payments_payment_date"));
+        assertTrue(schema.altered.contains("borrow_records.idx_borrow_records_member"));
+        assertTrue(schema.altered.indexOf("users.idx_users_phone_digits") > 0);
+    }
+
+    @Test
+    void runningAgainChangesNothing() {
+        FakeSchema schema = new FakeSchema();
+        SchemaMigrations.run(schema.connection());
+        schema.altered.clear();
+        assertTrue(SchemaMigrations.run(schema.connection()));
+        assertTrue(schema.altered.isEmpty());
+    }
+
+    @Test
+    void aFailedMigrationLeavesTheSchemaNotCurrentButRunsTheRest() {
+        FakeSchema schema = new FakeSchema();
+        schema.failing = "ft_users_text";
+        assertFalse(SchemaMigrations.run(schema.connection()));
+        assertFalse(schema.existing.contains("users.ft_users_text"));
+        assertTrue(schema.existing.contains("borrow_records.idx_borrow_records_open"));
+    }
+}
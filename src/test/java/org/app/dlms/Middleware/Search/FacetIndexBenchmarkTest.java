@@ -0,0 +1,60 @@
+package org.app.dlms.Middleware.Search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Prints how long building the facets of 500,000 synthetic books takes, and
+ * how long a facet query over them takes, with and without selections,
+ * against the 50 ms target of the catalog view.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=FacetIndexBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class FacetIndexBenchmarkTest {
+
+    private static final int BOOKS = 500_000;
+    private static final int SAMPLES = 50;
+
+    @Test
+    void queryLatency() {
+        // Genre, year, publisher, author, available; skewed like a real catalog
+        long buildStart = System.nanoTime();
+        FacetIndex index = new FacetIndex(5);
+        Random random = new Random(42);
+        for (int id = 1; id <= BOOKS; id++) {
+            index.put(id,
+                    "genre" + random.nextInt(20),
+                    String.valueOf(1900 + random.nextInt(125)),
+                    "publisher" + (int) Math.abs(random.nextGaussian() * 300),
+                    "author" + random.nextInt(50_000),
+                    String.valueOf(random.nextInt(4) > 0));
+        }
+        System.out.printf("Built facets for %,d books in %.1f ms%n", BOOKS, (System.nanoTime() - buildStart) / 1_000_000.0);
+
+        time("no selection", index, Collections.emptyList());
+        time("one genre", index, Arrays.asList(Set.of("genre3")));
+        time("two genres, available", index,
+                Arrays.asList(Set.of("genre3", "genre7"), null, null, null, Set.of("true")));
+        time("genre, decade", index, Arrays.asList(Set.of("genre3"),
+                Set.of("1990", "1991", "1992", "1993", "1994", "1995", "1996", "1997", "1998", "1999")));
+    }
+
+    private static void time(String label, FacetIndex index, List<Set<String>> selections) {
+        int matches = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            matches = index.query(selections).getIds().length; // Warm up
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < SAMPLES; i++) {
+            index.query(selections);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / SAMPLES;
+        System.out.printf("Facet query, %s: %.2f ms, %,d matches%n", label, millis, matches);
+    }
+}
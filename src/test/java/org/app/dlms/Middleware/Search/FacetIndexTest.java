@@ -0,0 +1,121 @@
+package org.app.dlms.Middleware.Search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FacetIndexTest {
+
+    private static final int GENRE = 0;
+    private static final int PUBLISHER = 1;
+
+    private static FacetIndex books() {
+        FacetIndex index = new FacetIndex(2); // genre, publisher
+        index.put(1, "Fantasy", "Allen & Unwin");
+        index.put(2, "Fantasy", "HarperCollins");
+        index.put(3, "Science Fiction", "Chilton");
+        index.put(4, "Biography", "Allen & Unwin");
+        return index;
+    }
+
+    private static List<Set<String>> select(Set<String> genres, Set<String> publishers) {
+        return Arrays.asList(genres, publishers);
+    }
+
+    @Test
+    void noSelectionMatchesEverything() {
+        FacetIndex.Result result = books().query(Collections.emptyList());
+        assertArrayEquals(new int[]{4, 3, 2, 1}, result.getIds());
+        assertEquals(Map.of("Fantasy", 2, "Science Fiction", 1, "Biography", 1), result.getCounts(GENRE));
+        assertEquals(Map.of("Allen & Unwin", 2, "HarperCollins", 1, "Chilton", 1), result.getCounts(PUBLISHER));
+    }
+
+    @Test
+    void valuesOfOneFacetAreAlternativesAndFacetsCombine() {
+        FacetIndex index = books();
+        assertArrayEquals(new int[]{3, 2, 1},
+                index.query(select(Set.of("Fantasy", "Science Fiction"), null)).getIds());
+        assertArrayEquals(new int[]{1},
+                index.query(select(Set.of("Fantasy"), Set.of("Allen & Unwin"))).getIds());
+        assertArrayEquals(new int[0], index.query(select(Set.of("Poetry"), null)).getIds());
+    }
+
+    @Test
+    void countsIgnoreTheirOwnFacetsSelection() {
+        FacetIndex.Result result = books().query(select(Set.of("Fantasy"), Set.of("Allen & Unwin")));
+        // Genres of Allen & Unwin books, and publishers of fantasy books
+        assertEquals(Map.of("Fantasy", 1, "Biography", 1), result.getCounts(GENRE));
+        assertEquals(Map.of("Allen & Unwin", 1, "HarperCollins", 1), result.getCounts(PUBLISHER));
+    }
+
+    @Test
+    void containsAnswersForMatchingIdsOnly() {
+        FacetIndex.Result result = books().query(select(Set.of("Fantasy"), null));
+        assertTrue(result.contains(1));
+        assertTrue(result.contains(2));
+        assertFalse(result.contains(3));
+        assertFalse(result.contains(-1));
+        assertFalse(result.contains(1 << 20));
+    }
+
+    @Test
+    void putReplacesAndRemoveForgets() {
+        FacetIndex index = books();
+        index.put(2, "Science Fiction", "HarperCollins");
+        index.remove(4);
+        index.remove(99);
+
+        FacetIndex.Result result = index.query(Collections.emptyList());
+        assertArrayEquals(new int[]{3, 2, 1}, result.getIds());
+        assertEquals(Map.of("Fantasy", 1, "Science Fiction", 2), result.getCounts(GENRE));
+        // A value no document has any more is still known but not counted
+        assertTrue(index.getValues(GENRE).contains("Biography"));
+    }
+
+    @Test
+    void nullValuesAreLeftOutOfTheirFacet() {
+        FacetIndex index = new FacetIndex(2);
+        index.put(5, "Fantasy", null);
+        index.put(6, "Fantasy");
+        FacetIndex.Result result = index.query(Collections.emptyList());
+        assertEquals(Map.of("Fantasy", 2), result.getCounts(GENRE));
+        assertTrue(result.getCounts(PUBLISHER).isEmpty());
+    }
+
+    @Test
+    void commonValuesSwitchToABitmapAndIdsCanGrow() {
+        FacetIndex index = new FacetIndex(1);
+        for (int id = 0; id < 3000; id += 2) {
+            index.put(id, id % 6 == 0 ? "common" : "other");
+        }
+        for (int id = 0; id < 3000; id += 6) {
+            index.remove(id);
+            index.put(id, "common"); // again, after the bitmap switch
+        }
+        index.put(5000, "common");
+
+        FacetIndex.Result result = index.query(List.of(Set.of("common")));
+        assertEquals(501, result.getIds().length);
+        assertEquals(5000, result.getIds()[0]);
+        assertTrue(result.contains(2994));
+        assertFalse(result.contains(2996));
+        assertEquals(Map.of("common", 501, "other", 1000), result.getCounts(0));
+    }
+
+    @Test
+    void invalidDocumentsAreRejected() {
+        FacetIndex index = new FacetIndex(1);
+        assertThrows(IllegalArgumentException.class, () -> index.put(-1, "x"));
+        assertThrows(IllegalArgumentException.class, () -> index.put(1, "x", "y"));
+    }
+}
@@ -0,0 +1,76 @@
+package org.app.dlms.Middleware.Search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints the latency of fuzzy searches over 1,000,000 synthetic titles,
+ * each query a title word with two letters swapped, and how many of them
+ * found the title they were taken from. The worst case includes any garbage
+ * collection pause of this large heap, so the 99th percentile is printed too.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=FuzzySearchBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class FuzzySearchBenchmarkTest {
+
+    private static final int TITLES = 1_000_000;
+    private static final int QUERIES = 1000;
+    private static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void typoSearchLatency() {
+        Random random = new Random(42);
+        String[] words = new String[TITLES];
+        InvertedIndex index = new InvertedIndex(1f);
+        for (int id = 0; id < TITLES; id++) {
+            words[id] = word(random);
+            index.put(id, words[id] + " " + word(random));
+        }
+
+        for (int i = 0; i < QUERIES; i++) {
+            index.searchFuzzy(typo(words[random.nextInt(TITLES)], random), 20, BUDGET_NANOS); // Warm up
+        }
+        System.gc();
+
+        long[] nanos = new long[QUERIES];
+        long total = 0;
+        int found = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            int id = random.nextInt(TITLES);
+            String query = typo(words[id], random);
+            long start = System.nanoTime();
+            boolean hit = index.searchFuzzy(query, Integer.MAX_VALUE, BUDGET_NANOS).contains(id);
+            nanos[i] = System.nanoTime() - start;
+            total += nanos[i];
+            found += hit ? 1 : 0;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("Fuzzy search: %.2f ms mean, %.2f ms 99th percentile, %.2f ms worst, %d of %d titles found%n",
+                total / 1_000_000.0 / QUERIES, nanos[QUERIES * 99 / 100] / 1_000_000.0,
+                nanos[QUERIES - 1] / 1_000_000.0, found, QUERIES);
+    }
+
+    // A word of four to six random syllables
+    private static String word(Random random) {
+        String[] syllables = {"ba", "de", "fi", "go", "ku", "la", "me", "ni", "po", "ru", "sa", "te", "vi", "zo"};
+        StringBuilder word = new StringBuilder();
+        for (int i = 4 + random.nextInt(3); i > 0; i--) {
+            word.append(syllables[random.nextInt(syllables.length)]);
+        }
+        return word.toString();
+    }
+
+    // The word with two neighbouring letters after the first swapped
+    private static String typo(String word, Random random) {
+        char[] letters = word.toCharArray();
+        int i = 1 + random.nextInt(letters.length - 2);
+        char swapped = letters[i];
+        letters[i] = letters[i + 1];
+        letters[i + 1] = swapped;
+        return new String(letters);
+    }
+}
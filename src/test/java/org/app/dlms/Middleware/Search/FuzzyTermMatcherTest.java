@@ -0,0 +1,74 @@
+package org.app.dlms.Middleware.Search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FuzzyTermMatcherTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static TreeMap<String, Boolean> dictionary(String... terms) {
+        TreeMap<String, Boolean> dictionary = new TreeMap<>();
+        for (String term : terms) {
+            dictionary.put(term, Boolean.TRUE);
+        }
+        return dictionary;
+    }
+
+    @Test
+    void swappedLettersAreOneMistake() {
+        Map<String, Float> matches = FuzzyTermMatcher.match(
+                dictionary("dostoevsky", "dumas", "tolkien"), "dostoevksy", 1, 10, NO_DEADLINE);
+        assertEquals(Set.of("dostoevsky"), matches.keySet());
+    }
+
+    @Test
+    void longerTermsMatchThroughTheirStart() {
+        TreeMap<String, Boolean> dictionary = dictionary("tolkien", "tolkienesque", "tolkiens", "tolstoy");
+        assertEquals(Set.of("tolkien", "tolkienesque", "tolkiens"),
+                FuzzyTermMatcher.match(dictionary, "tolkein", 1, 10, NO_DEADLINE).keySet());
+        assertEquals(Set.of("tolkien", "tolkienesque", "tolkiens"),
+                FuzzyTermMatcher.match(dictionary, "tolkei", 1, 10, NO_DEADLINE).keySet());
+    }
+
+    @Test
+    void wholeTermsScoreAboveTermsMatchedByTheirStart() {
+        Map<String, Float> matches = FuzzyTermMatcher.match(
+                dictionary("tolkien", "tolkienesque", "tolkiens"), "tolkein", 1, 10, NO_DEADLINE);
+        assertEquals(0.5f, matches.get("tolkien"));
+        assertTrue(matches.get("tolkiens") < matches.get("tolkien"));
+        assertTrue(matches.get("tolkienesque") < matches.get("tolkiens"));
+    }
+
+    @Test
+    void exactPrefixesAndDistantTermsAreLeftOut() {
+        Map<String, Float> matches = FuzzyTermMatcher.match(
+                dictionary("hebert", "herbert", "herberts", "hubert", "robert"), "herbert", 1, 10, NO_DEADLINE);
+        assertEquals(Set.of("hebert"), matches.keySet());
+    }
+
+    @Test
+    void firstLetterMustMatch() {
+        assertTrue(FuzzyTermMatcher.match(dictionary("robert"), "hobert", 1, 10, NO_DEADLINE).isEmpty());
+    }
+
+    @Test
+    void maxTermsAndZeroEditsLimitTheResult() {
+        TreeMap<String, Boolean> dictionary = dictionary("tolkiena", "tolkienb", "tolkienc", "tolkiend");
+        assertEquals(2, FuzzyTermMatcher.match(dictionary, "tolkein", 1, 2, NO_DEADLINE).size());
+        assertTrue(FuzzyTermMatcher.match(dictionary, "tolkein", 0, 10, NO_DEADLINE).isEmpty());
+    }
+
+    @Test
+    void allowedMistakesGrowWithTermLength() {
+        assertEquals(0, FuzzyTermMatcher.maxEdits("dun"));
+        assertEquals(1, FuzzyTermMatcher.maxEdits("tolkein"));
+        assertEquals(2, FuzzyTermMatcher.maxEdits("dostoevksy"));
+    }
+}
@@ -0,0 +1,106 @@
+package org.app.dlms.Middleware.Search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Prints how long it takes to index 500,000 synthetic books, and how long
+ * prefix searches over them take, from one-letter prefixes to multi-word
+ * queries. Each query is also run as the LIKE '%x%' scan over title, author
+ * and ISBN that BookDAO falls back to, done in memory with the same
+ * case-insensitive match, so the baseline leaves out disk and network time
+ * and is a lower bound for the database query.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=InvertedIndexBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class InvertedIndexBenchmarkTest {
+
+    private static final int BOOKS = 500_000;
+    private static final int SAMPLES = 200;
+    private static final int SCAN_SAMPLES = 5;
+    private static final String[] QUERIES = {"t", "to", "tol", "tolkien", "the h", "king ring", "hobbit tolkien", "9780"};
+
+    @Test
+    void searchLatency() {
+        String[][] books = syntheticBooks(new Random(42));
+        long buildStart = System.nanoTime();
+        InvertedIndex index = new InvertedIndex(3f, 2f, 1f); // title, author, isbn
+        for (int i = 0; i < books.length; i++) {
+            index.put(i + 1, books[i]);
+        }
+        System.out.printf("Indexed %,d books (%,d terms) in %.1f ms%n",
+                BOOKS, index.termCount(), (System.nanoTime() - buildStart) / 1_000_000.0);
+        for (String query : QUERIES) {
+            for (int i = 0; i < SAMPLES; i++) {
+                index.search(query, 50); // Warm up
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < SAMPLES; i++) {
+                index.search(query, 50);
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0 / SAMPLES;
+
+            int matches = likeScan(books, query).size(); // Warm up
+            start = System.nanoTime();
+            for (int i = 0; i < SCAN_SAMPLES; i++) {
+                likeScan(books, query);
+            }
+            double scanMillis = (System.nanoTime() - start) / 1_000_000.0 / SCAN_SAMPLES;
+            System.out.printf("Search '%s': %.3f ms, LIKE scan: %.1f ms (%,d matches)%n",
+                    query, millis, scanMillis, matches);
+        }
+    }
+
+    // Ids of the books whose title, author or ISBN contains the text, ignoring case,
+    // as title LIKE '%text%' OR author LIKE ... OR isbn LIKE ... finds them
+    private static List<Integer> likeScan(String[][] books, String text) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < books.length; i++) {
+            for (String field : books[i]) {
+                if (containsIgnoreCase(field, text)) {
+                    ids.add(i + 1);
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static boolean containsIgnoreCase(String value, String text) {
+        for (int start = 0; start <= value.length() - text.length(); start++) {
+            if (value.regionMatches(true, start, text, 0, text.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Title, author and ISBN of each book, the book at index i having id i + 1. Titles and
+    // authors are made of random syllables, plus a few real words to search for
+    static String[][] syntheticBooks(Random random) {
+        String[] words = {"the", "tolkien", "hobbit", "king", "ring", "lord", "return", "house"};
+        String[][] books = new String[BOOKS][];
+        for (int id = 1; id <= BOOKS; id++) {
+            String title = word(random) + " " + words[random.nextInt(words.length)] + " "
+                    + words[random.nextInt(words.length)];
+            String author = word(random) + " " + word(random);
+            String isbn = String.format("978-%d-%05d-%03d", random.nextInt(10), random.nextInt(100_000), id % 1000);
+            books[id - 1] = new String[]{title, author, isbn};
+        }
+        return books;
+    }
+
+    private static String word(Random random) {
+        String syllables = "ba be bi bo ka ke ki ko la le li lo ma me mi mo ra re ri ro ta te ti to";
+        String[] parts = syllables.split(" ");
+        StringBuilder word = new StringBuilder();
+        for (int i = 2 + random.nextInt(3); i > 0; i--) {
+            word.append(parts[random.nextInt(parts.length)]);
+        }
+        return word.toString();
+    }
+}
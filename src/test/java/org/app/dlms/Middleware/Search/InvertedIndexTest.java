@@ -0,0 +1,120 @@
+package org.app.dlms.Middleware.Search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private static InvertedIndex books() {
+        InvertedIndex index = new InvertedIndex(3f, 2f, 1f); // title, author, isbn
+        index.put(1, "The Hobbit", "J.R.R. Tolkien", "978-0-261-10221-7");
+        index.put(2, "The Lord of the Rings", "J.R.R. Tolkien", "978-0-261-10320-7");
+        index.put(3, "Tolkien: A Biography", "Humphrey Carpenter", "978-0-261-10275-0");
+        index.put(4, "Dune", "Frank Herbert", "978-0-441-17271-9");
+        return index;
+    }
+
+    @Test
+    void everyQueryTermMustMatchAsAPrefix() {
+        InvertedIndex index = books();
+        assertEquals(List.of(2), index.search("lord tolk", 10));
+        assertEquals(List.of(4), index.search("DUNE herb", 10));
+        assertTrue(index.search("hobbit herbert", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void isbnIsFoundWithOrWithoutHyphens() {
+        InvertedIndex index = books();
+        assertEquals(List.of(4), index.search("978044117", 10));
+        assertEquals(List.of(4), index.search("978-0-441", 10));
+    }
+
+    @Test
+    void exactMatchesInHeavierFieldsRankFirst() {
+        InvertedIndex index = books();
+        // Tolkien is in the title of 3 but only the author of 1 and 2
+        assertEquals(3, index.search("tolkien", 10).get(0).intValue());
+        // An exact term ranks above a term it is only a prefix of
+        index.put(5, "Hobbits", "", "");
+        assertEquals(Arrays.asList(1, 5), index.search("hobbit", 10));
+    }
+
+    @Test
+    void limitCapsTheResults() {
+        InvertedIndex index = books();
+        assertEquals(2, index.search("978", 2).size());
+        assertTrue(index.search("978", 0).isEmpty());
+    }
+
+    @Test
+    void putReplacesAndRemoveForgets() {
+        InvertedIndex index = books();
+        index.put(4, "Children of Dune", "Frank Herbert", "978-0-441-10402-5");
+        assertEquals(List.of(4), index.search("children", 10));
+        assertTrue(index.search("978044117", 10).isEmpty());
+
+        index.remove(4);
+        assertTrue(index.search("dune", 10).isEmpty());
+        assertTrue(index.search("herbert", 10).isEmpty());
+        assertEquals(3, index.size());
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(0, index.termCount());
+    }
+
+    @Test
+    void stoppingEarlyGivesTheSameTopResults() {
+        InvertedIndex index = new InvertedIndex(3f, 1f);
+        String[] words = {"the", "tolkien", "hobbit", "house", "king", "kings", "ring", "rings", "hob"};
+        Random random = new Random(7);
+        for (int id = 1; id <= 3000; id++) {
+            index.put(id, words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)],
+                    words[random.nextInt(words.length)]);
+        }
+        for (String query : new String[]{"the h", "king ring", "h", "ki r", "hob the", "t k"}) {
+            List<Integer> all = index.search(query, Integer.MAX_VALUE);
+            assertEquals(all.subList(0, Math.min(10, all.size())), index.search(query, 10), query);
+        }
+    }
+
+    @Test
+    void truncatedPrefixDoesNotDropMatchesOfOtherTerms() {
+        InvertedIndex index = new InvertedIndex(1f);
+        for (int i = 0; i < 400; i++) {
+            index.put(i, "h" + String.format("%03d", i));
+        }
+        for (int i = 0; i < 300; i++) {
+            index.put(2000 + i, "tolkien");
+        }
+        index.put(1000, "hzzz tolkien");
+        // "h" has more terms than are expanded and "hzzz" sorts past the cut-off, so its expansion
+        // holds fewer documents than "tolkien" although it matches more
+        assertEquals(List.of(1000), index.search("tolkien h", 10));
+        assertEquals(List.of(1000), index.search("h tolkien", 10));
+    }
+
+    @Test
+    void fuzzySearchFindsTermsWithATypo() {
+        InvertedIndex index = new InvertedIndex(1f);
+        index.put(1, "Tolkienesque");
+        index.put(2, "Tolkiens");
+        index.put(3, "Tolstoy");
+        assertTrue(index.search("tolkein", 10).isEmpty());
+        assertEquals(List.of(2, 1), index.searchFuzzy("tolkein", 10, Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    void tooManyFieldsAreRejected() {
+        InvertedIndex index = new InvertedIndex(1f);
+        assertThrows(IllegalArgumentException.class, () -> index.put(1, "a", "b"));
+    }
+}
@@ -0,0 +1,40 @@
+package org.app.dlms.Middleware.Search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextNormalizerTest {
+
+    @Test
+    void tokenizeLowerCasesAndRemovesAccents() {
+        assertEquals(List.of("emile", "zola", "l", "assommoir"), TextNormalizer.tokenize("Émile Zola — L'Assommoir"));
+        assertEquals("creme brulee", TextNormalizer.fold("Crème Brûlée"));
+    }
+
+    @Test
+    void hyphensBetweenDigitsAreDropped() {
+        assertEquals(List.of("9780140449136"), TextNormalizer.tokenize("978-0-14-044913-6"));
+        assertEquals(List.of("spider", "man", "2"), TextNormalizer.tokenize("Spider-Man -2"));
+    }
+
+    @Test
+    void tokenizeToleratesEmptyInput() {
+        assertTrue(TextNormalizer.tokenize(null).isEmpty());
+        assertTrue(TextNormalizer.tokenize("").isEmpty());
+        assertTrue(TextNormalizer.tokenize(" ,.- ").isEmpty());
+    }
+
+    @Test
+    void matchesAllNeedsEveryTermAsAPrefix() {
+        List<String> query = TextNormalizer.tokenize("tolk hob");
+        assertTrue(TextNormalizer.matchesAll(query, "The Hobbit", "J.R.R. Tolkien"));
+        assertTrue(TextNormalizer.matchesAll(query, null, "Tolkien", "Hobbits"));
+        assertFalse(TextNormalizer.matchesAll(query, "The Hobbit"));
+        assertFalse(TextNormalizer.matchesAll(TextNormalizer.tokenize("obbit"), "The Hobbit"));
+    }
+}
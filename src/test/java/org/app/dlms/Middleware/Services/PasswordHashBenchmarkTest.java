@@ -0,0 +1,53 @@
+package org.app.dlms.Middleware.Services;
+
+import org.app.dlms.Middleware.Strategy.Md5PasswordHashStrategy;
+import org.app.dlms.Middleware.Strategy.Pbkdf2PasswordHashStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Prints how long one PBKDF2 verification takes per work factor, to pick
+ * Pbkdf2PasswordHashStrategy.DEFAULT_ITERATIONS for a target login latency
+ * on the machine running it, and the cost of verifying a legacy MD5 hash.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=PasswordHashBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PasswordHashBenchmarkTest {
+
+    private static final int[] ITERATIONS = {100_000, 300_000, 600_000, 1_000_000};
+    private static final int SAMPLES = 10;
+    private static final int MD5_SAMPLES = 1_000_000;
+
+    @Test
+    void verifyLatencyPerWorkFactor() {
+        for (int iterations : ITERATIONS) {
+            Pbkdf2PasswordHashStrategy strategy = new Pbkdf2PasswordHashStrategy(iterations);
+            String hash = strategy.hash("correct horse battery staple");
+            strategy.verify("correct horse battery staple", hash); // Warm up
+
+            long start = System.nanoTime();
+            for (int i = 0; i < SAMPLES; i++) {
+                strategy.verify("correct horse battery staple", hash);
+            }
+            double millis = (System.nanoTime() - start) / 1_000_000.0 / SAMPLES;
+            System.out.printf("PBKDF2 %,d iterations: %.1f ms per verify%n", iterations, millis);
+        }
+    }
+
+    @Test
+    void legacyMd5VerifyLatency() {
+        Md5PasswordHashStrategy strategy = new Md5PasswordHashStrategy();
+        String hash = strategy.hash("correct horse battery staple");
+        for (int i = 0; i < MD5_SAMPLES; i++) {
+            strategy.verify("correct horse battery staple", hash); // Warm up
+        }
+
+        long start = System.nanoTime();
+        int matches = 0;
+        for (int i = 0; i < MD5_SAMPLES; i++) {
+            matches += strategy.verify("correct horse battery staple", hash) ? 1 : 0;
+        }
+        double nanos = (System.nanoTime() - start) / (double) MD5_SAMPLES;
+        System.out.printf("MD5: %.0f ns per verify (%d matched)%n", nanos, matches);
+    }
+}
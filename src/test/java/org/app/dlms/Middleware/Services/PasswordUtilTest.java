@@ -0,0 +1,176 @@
+package org.app.dlms.Middleware.Services;
+
+import org.app.dlms.Middleware.Strategy.Md5PasswordHashStrategy;
+import org.app.dlms.Middleware.Strategy.PasswordHashStrategy;
+import org.app.dlms.Middleware.Strategy.Pbkdf2PasswordHashStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordUtilTest {
+
+    // Few iterations keep the tests fast; the format is the same as in production
+    private final PasswordUtil passwords = new PasswordUtil(new Pbkdf2PasswordHashStrategy(1000));
+
+    @Test
+    void hashesAreSaltedAndVerify() {
+        String first = passwords.hashPassword("secret");
+        String second = passwords.hashPassword("secret");
+
+        assertTrue(first.startsWith("$pbkdf2-sha256$v=1$i=1000$"));
+        assertNotEquals(first, second);
+        assertTrue(passwords.verifyPassword("secret", first));
+        assertFalse(passwords.verifyPassword("Secret", first));
+        assertFalse(passwords.needsRehash(first));
+    }
+
+    @Test
+    void legacyMd5HashesVerifyAndNeedRehash() {
+        String legacy = new Md5PasswordHashStrategy().hash("password");
+
+        assertEquals("5f4dcc3b5aa765d61d8327deb882cf99", legacy);
+        assertTrue(passwords.verifyPassword("password", legacy));
+        assertFalse(passwords.verifyPassword("wrong", legacy));
+        assertTrue(passwords.needsRehash(legacy));
+    }
+
+    @Test
+    void fewerIterationsThanCurrentNeedRehash() {
+        String weaker = new PasswordUtil(new Pbkdf2PasswordHashStrategy(500)).hashPassword("secret");
+
+        assertTrue(passwords.verifyPassword("secret", weaker));
+        assertTrue(passwords.needsRehash(weaker));
+    }
+
+    @Test
+    void malformedHashesNeverVerify() {
+        assertFalse(passwords.verifyPassword("secret", "ERROR_HASHING_PASSWORD"));
+        assertFalse(passwords.verifyPassword("secret", "$pbkdf2-sha256$v=1$i=x$$"));
+        assertFalse(passwords.verifyPassword(null, passwords.hashPassword("secret")));
+    }
+
+    @Test
+    void dummyVerificationRunsOneRealVerify() {
+        AtomicInteger verifies = new AtomicInteger();
+        PasswordHashStrategy counting = new CountingStrategy(verifies, null);
+        PasswordUtil util = new PasswordUtil(counting);
+
+        util.verifyAgainstDummy("guess");
+        util.verifyAgainstDummy(null);
+
+        assertEquals(2, verifies.get());
+    }
+
+    @Test
+    void saturatedHasherThrowsInsteadOfReturningAPlaceholder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordUtil blocked = new PasswordUtil(new CountingStrategy(new AtomicInteger(), release));
+        int callers = 200; // Far more than the workers plus the queue
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> blocked.hashPassword("secret")));
+            }
+            Thread.sleep(200); // Let the queue fill up
+            release.countDown();
+
+            int rejected = 0;
+            for (Future<String> result : results) {
+                try {
+                    assertEquals("hash:secret", result.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof RejectedExecutionException, e.getCause().toString());
+                    rejected++;
+                }
+            }
+            assertTrue(rejected > 0, "Some hashes must be rejected while the queue is full");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void saturatedHasherRejectsVerificationInsteadOfReportingAWrongPassword() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordUtil blocked = new PasswordUtil(new CountingStrategy(new AtomicInteger(), release));
+        int callers = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> blocked.verifyPassword("secret", "hash:secret")));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            int rejected = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    assertTrue(result.get(30, TimeUnit.SECONDS), "A verification that ran must match");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof RejectedExecutionException, e.getCause().toString());
+                    rejected++;
+                }
+            }
+            assertTrue(rejected > 0, "Some verifications must be rejected while the queue is full");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    // Hashes to "hash:" + password, optionally waiting for a latch first
+    private static final class CountingStrategy implements PasswordHashStrategy {
+        private final AtomicInteger verifies;
+        private final CountDownLatch release;
+
+        CountingStrategy(AtomicInteger verifies, CountDownLatch release) {
+            this.verifies = verifies;
+            this.release = release;
+        }
+
+        @Override
+        public String hash(String plainPassword) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "hash:" + plainPassword;
+        }
+
+        @Override
+        public boolean verify(String plainPassword, String storedHash) {
+            verifies.incrementAndGet();
+            return storedHash.equals(hash(plainPassword));
+        }
+
+        @Override
+        public boolean supports(String storedHash) {
+            return storedHash.startsWith("hash:");
+        }
+
+        @Override
+        public boolean needsRehash(String storedHash) {
+            return false;
+        }
+    }
+}